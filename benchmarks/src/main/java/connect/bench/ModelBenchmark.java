@@ -0,0 +1,157 @@
+package connect.bench;
+
+import connect.BitboardConnectFourModel;
+import connect.ConnectFourModel;
+import connect.ConnectFourModelImpl;
+import connect.Player;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for the hot paths of the Connect Four models, on empty, mid-game and near-full
+ * positions of the classic 6 * 7 board and of a large board. See {@link PlayoutBenchmark} for
+ * whole-game throughput.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelBenchmark {
+
+  @Param({"ConnectFourModelImpl", "BitboardConnectFourModel"})
+  public String implementation;
+
+  @Param({"6x7", "32x32"})
+  public String size;
+
+  @Param({"empty", "midgame", "nearfull"})
+  public String position;
+
+  private int columns;
+  private int[] moves;
+  private ConnectFourModel model;
+
+  /**
+   * Builds the position once per trial.
+   */
+  @Setup
+  public void setUp() {
+    String[] parts = size.split("x");
+    int rows = Integer.parseInt(parts[0]);
+    this.columns = Integer.parseInt(parts[1]);
+    double fraction = "empty".equals(position) ? 0 : "midgame".equals(position) ? 0.5 : 0.9;
+    this.moves = Positions.build(rows, columns, fraction, 42);
+    this.model = create(rows, columns);
+    play(this.model);
+  }
+
+  private ConnectFourModel create(int rows, int columns) {
+    if ("BitboardConnectFourModel".equals(implementation)) {
+      return new BitboardConnectFourModel(rows, columns);
+    }
+    return new ConnectFourModelImpl(rows, columns);
+  }
+
+  private void play(ConnectFourModel target) {
+    target.resetBoard();
+    for (int move : moves) {
+      target.makeMove(move);
+    }
+  }
+
+  /**
+   * Resets the board and replays every move of the position, i.e. one makeMove per disc.
+   */
+  @Benchmark
+  public ConnectFourModel replayPosition() {
+    play(model);
+    return model;
+  }
+
+  @Benchmark
+  public Player getWinner() {
+    return model.getWinner();
+  }
+
+  @Benchmark
+  public boolean isGameOver() {
+    return model.isGameOver();
+  }
+
+  @Benchmark
+  public Player getTurn() {
+    return model.getTurn();
+  }
+
+  @Benchmark
+  public Player[][] getBoardState() {
+    return model.getBoardState();
+  }
+
+  @Benchmark
+  public Player getBoardViewCell() {
+    return model.getBoardView().cell(0, columns / 2);
+  }
+
+  /**
+   * Makes one move on the position, into its first legal column.
+   */
+  @Benchmark
+  public ConnectFourModel makeMove(Replayed replayed) {
+    replayed.model.makeMove(replayed.column);
+    return replayed.model;
+  }
+
+  /**
+   * Resets a board holding the position, so the cost grows with the number of discs for the
+   * models that clear only the cells in use.
+   */
+  @Benchmark
+  public ConnectFourModel resetBoard(Replayed replayed) {
+    replayed.model.resetBoard();
+    return replayed.model;
+  }
+
+  /**
+   * A model of its own that holds the position afresh before every call of a benchmark that
+   * changes it. The replay is not timed, but the timestamps around every call are, so these
+   * results are only reliable well above the resolution of the clock.
+   */
+  @State(Scope.Thread)
+  public static class Replayed {
+
+    private ConnectFourModel model;
+    private int column;
+
+    /**
+     * Creates the model once per trial.
+     */
+    @Setup
+    public void setUp(ModelBenchmark benchmark) {
+      String[] parts = benchmark.size.split("x");
+      this.model = benchmark.create(Integer.parseInt(parts[0]), benchmark.columns);
+    }
+
+    /**
+     * Replays the position before every call, and finds the column to play.
+     */
+    @Setup(Level.Invocation)
+    public void replay(ModelBenchmark benchmark) {
+      benchmark.play(this.model);
+      this.column = this.model.getLegalMoves()[0];
+    }
+  }
+}
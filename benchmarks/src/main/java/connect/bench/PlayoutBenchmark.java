@@ -0,0 +1,83 @@
+package connect.bench;
+
+import connect.BitboardConnectFourModel;
+import connect.ConnectFourModel;
+import connect.ConnectFourModelImpl;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how many random games per second a model can play from the empty board to the end.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayoutBenchmark {
+
+  @Param({"ConnectFourModelImpl", "BitboardConnectFourModel"})
+  public String implementation;
+
+  @Param({"6x7", "32x32"})
+  public String size;
+
+  private int columns;
+  private ConnectFourModel model;
+  private long seed = 0x9E3779B97F4A7C15L;
+
+  /**
+   * Creates the model once per trial.
+   */
+  @Setup
+  public void setUp() {
+    String[] parts = size.split("x");
+    int rows = Integer.parseInt(parts[0]);
+    this.columns = Integer.parseInt(parts[1]);
+    if ("BitboardConnectFourModel".equals(implementation)) {
+      this.model = new BitboardConnectFourModel(rows, columns);
+    } else {
+      this.model = new ConnectFourModelImpl(rows, columns);
+    }
+  }
+
+  /**
+   * Plays one random game, returning its number of moves.
+   */
+  @Benchmark
+  public int randomPlayout() {
+    model.resetBoard();
+    int plies = 0;
+    while (!model.isGameOver()) {
+      int column = nextInt(columns);
+      if (model.isLegalMove(column)) {
+        model.makeMove(column);
+        plies++;
+      }
+    }
+    return plies;
+  }
+
+  /**
+   * A xorshift generator, so that picking a column costs less than the move itself.
+   */
+  private int nextInt(int bound) {
+    long x = seed;
+    x ^= x << 13;
+    x ^= x >>> 7;
+    x ^= x << 17;
+    seed = x;
+    return (int) ((x >>> 33) % bound);
+  }
+}
@@ -0,0 +1,70 @@
+package connect.bench;
+
+import java.util.Random;
+
+/**
+ * Builds reproducible move sequences for the benchmarks. Every sequence leaves the game in
+ * progress, so that the benchmarks measure positions where moves can still be made.
+ */
+final class Positions {
+
+  private Positions() {
+    // static helpers only
+  }
+
+  /**
+   * Builds a sequence of moves that fills the given fraction of the board without any player
+   * getting four in a row.
+   *
+   * <p>Random play rarely gets far into a large board without a win, so the discs follow a
+   * fixed pattern in which nobody can have four in a row: within each column the colors change
+   * every two rows, and neighbouring columns are shifted by one color. The random part is the
+   * order in which the columns are filled.
+   *
+   * @param rows     the number of rows of the board
+   * @param columns  the number of columns of the board
+   * @param fraction the fraction of the cells to fill, from 0 to 0.9
+   * @param seed     the seed of the random moves, so that every run builds the same position
+   * @return the columns of the moves, in the order they are played
+   */
+  static int[] build(int rows, int columns, double fraction, long seed) {
+    int target = (int) (rows * columns * fraction);
+    Random random = new Random(seed);
+    while (true) {
+      int[] moves = tryBuild(rows, columns, target, random);
+      if (moves != null) {
+        return moves;
+      }
+    }
+  }
+
+  /**
+   * Retrieves the player of a cell in the pattern, 0 for red and 1 for yellow, where row 0 is
+   * the bottom of the board.
+   */
+  static int patternPlayer(int row, int column) {
+    return (row / 2 + column) % 2;
+  }
+
+  private static int[] tryBuild(int rows, int columns, int target, Random random) {
+    int[] heights = new int[columns];
+    int[] moves = new int[target];
+    for (int ply = 0; ply < target; ply++) {
+      int player = ply % 2;
+      int start = random.nextInt(columns);
+      int chosen = -1;
+      for (int k = 0; k < columns && chosen < 0; k++) {
+        int column = (start + k) % columns;
+        if (heights[column] < rows && patternPlayer(heights[column], column) == player) {
+          chosen = column;
+        }
+      }
+      if (chosen < 0) {
+        return null; // no column has the right color on top, start over
+      }
+      heights[chosen]++;
+      moves[ply] = chosen;
+    }
+    return moves;
+  }
+}
@@ -1,23 +1,33 @@
 import connect.ConnectFourController;
 import connect.ConnectFourModel;
-import connect.ConnectFourModelImpl;
+import connect.ConnectFourModels;
 import connect.SwingConnectFourController;
 import connect.SwingConnectFourView;
+import connect.metrics.GameMetrics;
+import connect.metrics.InstrumentedConnectFourModel;
 import java.io.IOException;
 
 /**
  * Run a Connect 4 game interactively on the console. You can make the number of rows and columns
  * configurable by passing them as command-line arguments. It is also OK to hard-code the number of
- * rows and columns to 6 and 7, respectively.
+ * rows and columns to 6 and 7, respectively. The game is instrumented, so its metrics can be
+ * watched over JMX, e.g. with JConsole, under {@value GameMetrics#OBJECT_NAME}.
  */
 public class Main {
   /**
-   * Run a Connect 4 game interactively on the console. Rows = 6, Columns = 7.
+   * Run a Connect 4 game interactively on the console. Rows = 6, Columns = 7 by default.
    *
-   * @param args not used
+   * @param args optionally, the number of rows and columns, e.g. {@code 20 40}
+   * @throws IllegalArgumentException if there are arguments, but not exactly two
    */
   public static void main(String[] args) throws IOException {
-    ConnectFourModel model = new ConnectFourModelImpl(6, 7);
+    if (args.length != 0 && args.length != 2) {
+      throw new IllegalArgumentException("Usage: java Main [rows columns]");
+    }
+    int rows = args.length > 1 ? Integer.parseInt(args[0]) : 6;
+    int columns = args.length > 1 ? Integer.parseInt(args[1]) : 7;
+    ConnectFourModel model = new InstrumentedConnectFourModel(
+        ConnectFourModels.create(rows, columns), GameMetrics.global());
     SwingConnectFourView view = new SwingConnectFourView("Connect 4");
     ConnectFourController controller = new SwingConnectFourController(model, view);
     try {
@@ -0,0 +1,438 @@
+package connect;
+
+import java.util.Arrays;
+
+/**
+ * This class represents the model of the Connect Four game, storing the position as one bitboard
+ * per player instead of a {@code Player[][]} grid.
+ *
+ * <p>Every column takes {@code rows + 1} consecutive bits, the lowest bit being the bottom cell
+ * and the extra bit on top being a sentinel that is always empty, so that shifted copies of a
+ * bitboard never wrap from one column into the next. Boards of up to 64 bits
+ * (e.g. the classic 6 * 7 board) fit in a single {@code long} per player and use shift-and-mask
+ * win detection; bigger boards are spread over several words and check the lines through the
+ * last disc only.
+ */
+public class BitboardConnectFourModel implements ConnectFourModel {
+
+  private final int rows;
+  private final int columns;
+  private final int stride; // bits per column, including the sentinel bit
+  private final long[] red;
+  private final long[] yellow;
+  private final int[] heights; // number of discs in each column
+  private int moves;
+  private final int[] history; // the column of every move, in the order they were made
+  private int winningMoves; // the value of moves right after the winning disc was placed
+  private long version; // changes whenever the board changes, see BoardView
+  private long positionKey; // Zobrist key of the discs on the board
+  private final BoardView view = new View();
+  private final ModelListeners listeners = new ModelListeners();
+  private Player turn; // decides who is the next to play
+  private Player winner = null;
+
+  /**
+   * This is a constructor of the class BitboardConnectFourModel, which initializes
+   * the game board with a specified number of rows and columns.
+   *
+   * @param rows    the number of rows in the game board
+   *                (must be at least 4)
+   * @param columns the number of columns in the game board
+   *                (must be at least 4)
+   * @throws IllegalArgumentException if the number of rows or columns is less than 4
+   */
+  public BitboardConnectFourModel(int rows, int columns) throws IllegalArgumentException {
+    if (rows < 4 || columns < 4) {
+      throw new IllegalArgumentException("The number of rows and columns must be at least 4");
+    }
+    if ((long) (rows + 1) * columns > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("The board is too large for a bitboard");
+    }
+    this.rows = rows;
+    this.columns = columns;
+    this.stride = rows + 1;
+    int words = (this.stride * columns + 63) >>> 6;
+    this.red = new long[words];
+    this.yellow = new long[words];
+    this.heights = new int[columns];
+    this.history = new int[rows * columns];
+    this.turn = Player.RED; // red always goes first
+  }
+
+  /**
+   * Initializes the game board with a specified number of rows and columns.
+   * Each cell in the board is set to a default state (e.g., empty).
+   */
+  @Override
+  public void initializeBoard() {
+    clear();
+    this.listeners.fireBoardReset();
+  }
+
+  /**
+   * Removes every disc from the board.
+   */
+  private void clear() {
+    for (int i = 0; i < this.red.length; i++) {
+      this.red[i] = 0L;
+      this.yellow[i] = 0L;
+    }
+    for (int j = 0; j < this.columns; j++) {
+      this.heights[j] = 0;
+    }
+    this.moves = 0;
+    this.positionKey = 0;
+    this.version++;
+  }
+
+  /**
+   * Attempts to place a disc in the specified column.
+   * The disc will occupy the lowest available row within the column.
+   * If the column is full, the move will be rejected.
+   *
+   * @param column the column in which to place the disc
+   * @throws IllegalArgumentException if the game is over, the column is out of bounds, or the
+   *                                  column is full
+   */
+  @Override
+  public void makeMove(int column) throws IllegalArgumentException {
+    if (isGameOver()) {
+      throw new IllegalArgumentException("The game is over");
+    }
+    if (column < 0 || column >= this.columns) {
+      throw new IllegalArgumentException("The column is out of bounds");
+    }
+    if (this.heights[column] == this.rows) {
+      throw new IllegalArgumentException("The column is full");
+    }
+    int bit = column * this.stride + this.heights[column];
+    long[] own = this.turn == Player.RED ? this.red : this.yellow;
+    own[bit >>> 6] |= 1L << bit;
+    this.positionKey ^= Zobrist.key(this.turn, this.heights[column], column);
+    this.heights[column]++;
+    this.history[this.moves] = column;
+    this.moves++;
+    this.version++;
+    if (this.winner == null && isWinningBit(own, bit)) {
+      this.winner = this.turn;
+      this.winningMoves = this.moves;
+    }
+    Player player = this.turn;
+    this.turn = this.turn == Player.RED ? Player.YELLOW : Player.RED;
+    this.listeners.fireMoveMade(this.rows - this.heights[column], column, player, getStatus());
+  }
+
+  /**
+   * Takes back the last move, restoring the board, the turn and the winner to what they were
+   * before that move.
+   *
+   * @throws IllegalStateException if no move has been made since the board was last cleared
+   */
+  @Override
+  public void undoMove() throws IllegalStateException {
+    if (this.moves == 0) {
+      throw new IllegalStateException("There is no move to undo");
+    }
+    if (this.winner != null && this.moves == this.winningMoves) {
+      this.winner = null; // the winning disc is taken back
+    }
+    this.moves--;
+    int column = this.history[this.moves];
+    this.heights[column]--;
+    int bit = column * this.stride + this.heights[column];
+    this.turn = this.turn == Player.RED ? Player.YELLOW : Player.RED;
+    this.positionKey ^= Zobrist.key(this.turn, this.heights[column], column);
+    long[] own = this.turn == Player.RED ? this.red : this.yellow;
+    own[bit >>> 6] &= ~(1L << bit);
+    this.version++;
+    this.listeners.fireMoveUndone(this.rows - 1 - this.heights[column], column, this.turn,
+        getStatus());
+  }
+
+  /**
+   * Checks whether the disc at the given bit completes four in a row for the owner of the
+   * given bitboard.
+   *
+   * @param own the bitboard of the player who owns the disc
+   * @param bit the bit index of the disc
+   * @return true if the disc is part of four in a row, false otherwise
+   */
+  private boolean isWinningBit(long[] own, int bit) {
+    if (own.length == 1) {
+      long b = own[0];
+      return hasFour(b, 1) || hasFour(b, this.stride)
+          || hasFour(b, this.stride - 1) || hasFour(b, this.stride + 1);
+    }
+    return countLine(own, bit, 1) >= 4
+        || countLine(own, bit, this.stride) >= 4
+        || countLine(own, bit, this.stride - 1) >= 4
+        || countLine(own, bit, this.stride + 1) >= 4;
+  }
+
+  /**
+   * Checks a single-word bitboard for four discs spaced {@code shift} bits apart.
+   */
+  private static boolean hasFour(long b, int shift) {
+    long m = b & (b >>> shift);
+    return (m & (m >>> (2 * shift))) != 0;
+  }
+
+  /**
+   * Counts the discs in a line through the given bit, walking {@code step} bits in both
+   * directions. The sentinel bit of every column is always empty, so a walk stops at the top
+   * and bottom of the board instead of wrapping into the next column.
+   */
+  private int countLine(long[] own, int bit, int step) {
+    int count = 1;
+    for (int b = bit + step; count < 4 && isSet(own, b); b += step) {
+      count++;
+    }
+    for (int b = bit - step; count < 4 && isSet(own, b); b -= step) {
+      count++;
+    }
+    return count;
+  }
+
+  private boolean isSet(long[] own, int bit) {
+    return bit >= 0 && bit < this.stride * this.columns && (own[bit >>> 6] & (1L << bit)) != 0;
+  }
+
+  /**
+   * Retrieves the player whose turn it is to make a move.
+   *
+   * @return the player whose turn it is
+   */
+  @Override
+  public Player getTurn() {
+    //if game is over, return null
+    if (isGameOver()) {
+      return null;
+    }
+    return this.turn;
+  }
+
+  /**
+   * Checks if the game is over. The game is over when either the board is full, or
+   * one player has won.
+   *
+   * @return true if the game is over, false otherwise
+   */
+  @Override
+  public boolean isGameOver() {
+    return this.winner != null || this.moves == this.rows * this.columns;
+  }
+
+  /**
+   * Retrieves the status of the game, to be reported to listeners after a move.
+   *
+   * @return the status of the game
+   */
+  private GameStatus getStatus() {
+    if (this.winner != null) {
+      return GameStatus.WON;
+    }
+    return this.moves == this.rows * this.columns ? GameStatus.DRAW : GameStatus.IN_PROGRESS;
+  }
+
+  /**
+   * Checks if a disc can be dropped into the specified column, i.e. the column is within
+   * the bounds of the board and is not full.
+   *
+   * @param column the column to check
+   * @return true if a move to the column would be accepted, false otherwise
+   */
+  @Override
+  public boolean isLegalMove(int column) {
+    return column >= 0 && column < this.columns && this.heights[column] < this.rows
+        && !isGameOver();
+  }
+
+  /**
+   * Retrieves the columns that are not full, in increasing order, or none once the game is over.
+   *
+   * @return an array of the columns a disc can be dropped into
+   */
+  @Override
+  public int[] getLegalMoves() {
+    if (isGameOver()) {
+      return new int[0];
+    }
+    int count = 0;
+    for (int j = 0; j < this.columns; j++) {
+      if (this.heights[j] < this.rows) {
+        count++;
+      }
+    }
+    int[] legal = new int[count];
+    count = 0;
+    for (int j = 0; j < this.columns; j++) {
+      if (this.heights[j] < this.rows) {
+        legal[count++] = j;
+      }
+    }
+    return legal;
+  }
+
+  /**
+   * Retrieves the winner of the game, or {@code null} if there is no winner. If the game is not
+   * over, returns {@code null}.
+   *
+   * @return the winner, or null if there is no winner
+   */
+  @Override
+  public Player getWinner() {
+    return this.winner;
+  }
+
+  /**
+   * Resets the game board to its initial state, clearing all cells.
+   */
+  @Override
+  public void resetBoard() {
+    clear();
+    this.turn = Player.RED; // reset the first player to red
+    this.winner = null;
+    this.listeners.fireBoardReset();
+  }
+
+  /**
+   * Retrieves the current state of the game board. This method is useful
+   * for the View component to display the current game status.
+   *
+   * @return a 2D array representing the current state of the board
+   */
+  @Override
+  public Player[][] getBoardState() {
+    // row 0 is the top of the board, as in ConnectFourModelImpl
+    Player[][] copy = new Player[this.rows][this.columns];
+    for (int j = 0; j < this.columns; j++) {
+      for (int h = 0; h < this.heights[j]; h++) {
+        int bit = j * this.stride + h;
+        copy[this.rows - 1 - h][j] = isSet(this.red, bit) ? Player.RED : Player.YELLOW;
+      }
+    }
+    return copy;
+  }
+
+  /**
+   * Retrieves the disc in the specified cell, where row 0 is the top of the board.
+   */
+  private Player cellAt(int row, int column) {
+    int h = this.rows - 1 - row;
+    if (h >= this.heights[column]) {
+      return null;
+    }
+    return isSet(this.red, column * this.stride + h) ? Player.RED : Player.YELLOW;
+  }
+
+  /**
+   * Retrieves the Zobrist key of the position, which is updated with every move instead of
+   * being computed from the board.
+   *
+   * @return the 64-bit key of the position
+   */
+  @Override
+  public long getPositionKey() {
+    return this.positionKey;
+  }
+
+  /**
+   * Retrieves the columns of the moves made since the board was last cleared, in order.
+   *
+   * @return a copy of the move history
+   */
+  @Override
+  public int[] getMoveHistory() {
+    return Arrays.copyOf(this.history, this.moves);
+  }
+
+  /**
+   * Retrieves a read-only view of the game board. The view is backed by the model, so reading
+   * it does not copy the board the way {@link #getBoardState()} does.
+   *
+   * @return a read-only view of the current state of the board
+   */
+  @Override
+  public BoardView getBoardView() {
+    return this.view;
+  }
+
+  /**
+   * Adds a listener that is notified after every move and every reset.
+   *
+   * @param listener the listener to add
+   * @throws IllegalArgumentException if the listener is null
+   */
+  @Override
+  public void addModelListener(ModelListener listener) throws IllegalArgumentException {
+    this.listeners.add(listener);
+  }
+
+  /**
+   * Removes a listener that was added before.
+   *
+   * @param listener the listener to remove
+   */
+  @Override
+  public void removeModelListener(ModelListener listener) {
+    this.listeners.remove(listener);
+  }
+
+  /**
+   * A read-only view that reads the board of the enclosing model directly.
+   */
+  private class View implements BoardView {
+
+    @Override
+    public int getRows() {
+      return rows;
+    }
+
+    @Override
+    public int getColumns() {
+      return columns;
+    }
+
+    @Override
+    public Player cell(int row, int column) throws IllegalArgumentException {
+      if (row < 0 || row >= rows || column < 0 || column >= columns) {
+        throw new IllegalArgumentException("The cell is out of bounds");
+      }
+      return cellAt(row, column);
+    }
+
+    @Override
+    public int height(int column) throws IllegalArgumentException {
+      if (column < 0 || column >= columns) {
+        throw new IllegalArgumentException("The column is out of bounds");
+      }
+      return heights[column];
+    }
+
+    @Override
+    public long version() {
+      return version;
+    }
+  }
+
+  /**
+   * Returns a string representation of the game board. This method is useful
+   * for debugging purposes.
+   *
+   * @return a string representation of the game board
+   */
+  public String toString() {
+    StringBuilder string = new StringBuilder();
+    for (int i = 0; i < this.rows; i++) {
+      for (int j = 0; j < this.columns; j++) {
+        string.append(cellAt(i, j));
+        if (j < this.columns - 1) {
+          //separate every element with a comma
+          string.append(", ");
+        }
+      }
+      string.append("\n");
+    }
+    return string.toString();
+  }
+}
@@ -0,0 +1,265 @@
+package connect;
+
+import connect.metrics.GameMetrics;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntConsumer;
+import javax.swing.JComponent;
+import javax.swing.JViewport;
+import javax.swing.Scrollable;
+import javax.swing.SwingConstants;
+
+/**
+ * A single component that paints the whole Connect Four board, instead of one button per cell.
+ * Clicks are mapped to columns, and changing a cell repaints only the rectangle of that cell.
+ *
+ * <p>Only the cells that hold a disc are stored, so the memory of the component grows with the
+ * number of moves rather than the size of the board. Inside a {@link javax.swing.JScrollPane},
+ * a board smaller than the viewport is stretched to fill it, and a larger board keeps cells of a
+ * fixed size and scrolls; either way only the cells inside the visible area are painted. The time
+ * every paint takes is recorded in {@link GameMetrics#global()}.
+ *
+ * <p>A hint can be shown over the board: the score of every column as a percentage along the top
+ * row, with the best column outlined.
+ */
+class BoardComponent extends JComponent implements Scrollable {
+
+  private static final long serialVersionUID = 1L;
+  private static final int CELL_SIZE = 64;
+  private static final int DISC_MARGIN = 6;
+  private static final Color BOARD_COLOR = new Color(30, 80, 200);
+  private static final Color HINT_COLOR = new Color(0, 200, 0);
+
+  private int rows;
+  private int columns;
+  private final Map<Long, Color> discs = new HashMap<>(); // the cells that are not empty
+  private IntConsumer columnListener = column -> { };
+  private double[] hint; // the scores of the columns, or null when no hint is shown
+  private int hintColumn = -1;
+
+  /**
+   * Constructor for the BoardComponent class. Every cell starts empty (white).
+   *
+   * @param rows    the number of rows of the board
+   * @param columns the number of columns of the board
+   */
+  BoardComponent(int rows, int columns) {
+    setBoardSize(rows, columns);
+    setDoubleBuffered(true);
+    setOpaque(true);
+    addMouseListener(new MouseAdapter() {
+      @Override
+      public void mouseClicked(MouseEvent e) {
+        int column = columnAt(e.getX());
+        if (column >= 0 && column < BoardComponent.this.columns) {
+          columnListener.accept(column);
+        }
+      }
+    });
+  }
+
+  /**
+   * Changes the size of the board, emptying every cell.
+   *
+   * @param rows    the number of rows of the board
+   * @param columns the number of columns of the board
+   */
+  void setBoardSize(int rows, int columns) {
+    this.rows = rows;
+    this.columns = columns;
+    setPreferredSize(new Dimension(pixels(columns), pixels(rows)));
+    revalidate();
+    clear();
+  }
+
+  /**
+   * Retrieves the size in pixels of the given number of cells, which is capped for boards too
+   * large to be measured in an int.
+   */
+  private static int pixels(int cells) {
+    return (int) Math.min(Integer.MAX_VALUE / 2, (long) cells * CELL_SIZE);
+  }
+
+  /**
+   * Sets the listener that is called with the column the user clicked.
+   *
+   * @param listener the listener to call
+   */
+  void setColumnListener(IntConsumer listener) {
+    this.columnListener = listener;
+  }
+
+  /**
+   * Changes the color of a single cell and repaints that cell only.
+   *
+   * @param row    the row of the cell
+   * @param column the column of the cell
+   * @param color  the new color of the cell, white for an empty cell
+   */
+  void setCell(int row, int column, Color color) {
+    Long cell = (long) row * columns + column;
+    Color old = Color.WHITE.equals(color) ? discs.remove(cell) : discs.put(cell, color);
+    if (color.equals(old == null ? Color.WHITE : old)) {
+      return;
+    }
+    repaint(cellBounds(row, column));
+  }
+
+  /**
+   * Empties every cell and repaints the board once.
+   */
+  void clear() {
+    discs.clear();
+    hint = null;
+    repaint();
+  }
+
+  /**
+   * Shows the score of every column over the board, or hides it.
+   *
+   * @param scores the score of every column from 0 to 1, NaN for a full column, or null to hide
+   *               the hint
+   */
+  void setHint(double[] scores) {
+    if (scores == null && hint == null) {
+      return;
+    }
+    hint = scores == null ? null : scores.clone();
+    hintColumn = -1;
+    for (int j = 0; hint != null && j < Math.min(columns, hint.length); j++) {
+      if (!Double.isNaN(hint[j]) && (hintColumn < 0 || hint[j] > hint[hintColumn])) {
+        hintColumn = j;
+      }
+    }
+    repaint();
+  }
+
+  private Color colorAt(int row, int column) {
+    Color color = discs.get((long) row * columns + column);
+    return color == null ? Color.WHITE : color;
+  }
+
+  /**
+   * Retrieves the width of a cell, as the component is stretched to fill its parent.
+   */
+  private int cellWidth() {
+    return Math.max(1, getWidth() / columns);
+  }
+
+  /**
+   * Retrieves the height of a cell, as the component is stretched to fill its parent.
+   */
+  private int cellHeight() {
+    return Math.max(1, getHeight() / rows);
+  }
+
+  private int columnAt(int x) {
+    return x / cellWidth();
+  }
+
+  private Rectangle cellBounds(int row, int column) {
+    return new Rectangle(column * cellWidth(), row * cellHeight(), cellWidth(), cellHeight());
+  }
+
+  @Override
+  protected void paintComponent(Graphics g) {
+    long start = System.nanoTime();
+    Graphics2D g2 = (Graphics2D) g;
+    g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+    int width = cellWidth();
+    int height = cellHeight();
+    // only the cells inside the clip need painting, e.g. a single cell after a move, or the
+    // visible part of a board in a scroll pane
+    Rectangle clip = g2.getClipBounds();
+    if (clip == null) {
+      clip = new Rectangle(0, 0, getWidth(), getHeight());
+    }
+    g2.setColor(BOARD_COLOR);
+    g2.fillRect(clip.x, clip.y, clip.width, clip.height);
+    int firstRow = Math.max(0, clip.y / height);
+    int lastRow = Math.min(rows - 1, (clip.y + clip.height) / height);
+    int firstColumn = Math.max(0, clip.x / width);
+    int lastColumn = Math.min(columns - 1, (clip.x + clip.width) / width);
+    int margin = Math.min(DISC_MARGIN, Math.min(width, height) / 8);
+    for (int i = firstRow; i <= lastRow; i++) {
+      for (int j = firstColumn; j <= lastColumn; j++) {
+        g2.setColor(colorAt(i, j));
+        g2.fillOval(j * width + margin, i * height + margin,
+            width - 2 * margin, height - 2 * margin);
+      }
+    }
+    if (hint != null) {
+      paintHint(g2, firstColumn, Math.min(lastColumn, hint.length - 1), width, height);
+    }
+    GameMetrics.global().paint(System.nanoTime() - start);
+  }
+
+  /**
+   * Paints the scores of the visible columns along the top row, and outlines the best column.
+   */
+  private void paintHint(Graphics2D g2, int firstColumn, int lastColumn, int width,
+      int height) {
+    g2.setFont(g2.getFont().deriveFont(Font.BOLD, Math.max(8f, Math.min(width, height) / 4f)));
+    FontMetrics font = g2.getFontMetrics();
+    for (int j = firstColumn; j <= lastColumn; j++) {
+      if (Double.isNaN(hint[j])) {
+        continue;
+      }
+      String score = Math.round(100 * hint[j]) + "%";
+      g2.setColor(j == hintColumn ? HINT_COLOR : Color.BLACK);
+      g2.drawString(score, j * width + (width - font.stringWidth(score)) / 2,
+          (height + font.getAscent()) / 2);
+    }
+    if (hintColumn >= firstColumn && hintColumn <= lastColumn) {
+      g2.setColor(HINT_COLOR);
+      g2.setStroke(new BasicStroke(3));
+      g2.drawRect(hintColumn * width + 1, 1, width - 3, getHeight() - 3);
+    }
+  }
+
+  @Override
+  public Dimension getPreferredScrollableViewportSize() {
+    Dimension preferred = getPreferredSize();
+    return new Dimension(Math.min(preferred.width, 10 * CELL_SIZE),
+        Math.min(preferred.height, 8 * CELL_SIZE));
+  }
+
+  @Override
+  public int getScrollableUnitIncrement(Rectangle visible, int orientation, int direction) {
+    return orientation == SwingConstants.HORIZONTAL ? cellWidth() : cellHeight();
+  }
+
+  @Override
+  public int getScrollableBlockIncrement(Rectangle visible, int orientation, int direction) {
+    return orientation == SwingConstants.HORIZONTAL ? visible.width : visible.height;
+  }
+
+  /**
+   * Stretches the board to the width of the viewport when it is narrower than the viewport.
+   */
+  @Override
+  public boolean getScrollableTracksViewportWidth() {
+    return getParent() instanceof JViewport
+        && getParent().getWidth() > getPreferredSize().width;
+  }
+
+  /**
+   * Stretches the board to the height of the viewport when it is lower than the viewport.
+   */
+  @Override
+  public boolean getScrollableTracksViewportHeight() {
+    return getParent() instanceof JViewport
+        && getParent().getHeight() > getPreferredSize().height;
+  }
+}
@@ -0,0 +1,55 @@
+package connect;
+
+/**
+ * A read-only, live view of a Connect Four game board. Unlike
+ * {@link ConnectFourModel#getBoardState()}, reading the board through this interface does not
+ * copy it, so it is the cheaper way for views, computer players and loggers to look at the
+ * current position.
+ *
+ * <p>The view always reflects the current state of the model it came from. Callers that need to
+ * know whether the board changed between two reads can compare {@link #version()} stamps.
+ */
+public interface BoardView {
+
+  /**
+   * Retrieves the number of rows of the board.
+   *
+   * @return the number of rows
+   */
+  int getRows();
+
+  /**
+   * Retrieves the number of columns of the board.
+   *
+   * @return the number of columns
+   */
+  int getColumns();
+
+  /**
+   * Retrieves the disc in the specified cell. As in {@link ConnectFourModel#getBoardState()},
+   * row 0 is the top of the board and row {@code getRows() - 1} is the bottom.
+   *
+   * @param row    the row of the cell
+   * @param column the column of the cell
+   * @return the player whose disc is in the cell, or {@code null} if the cell is empty
+   * @throws IllegalArgumentException if the cell is out of bounds
+   */
+  Player cell(int row, int column) throws IllegalArgumentException;
+
+  /**
+   * Retrieves the number of discs in the specified column.
+   *
+   * @param column the column to check
+   * @return the number of discs in the column, from 0 (empty) to {@code getRows()} (full)
+   * @throws IllegalArgumentException if the column is out of bounds
+   */
+  int height(int column) throws IllegalArgumentException;
+
+  /**
+   * Retrieves a stamp that changes every time the board changes, i.e. after every move and
+   * every reset.
+   *
+   * @return the version stamp of the board
+   */
+  long version();
+}
@@ -0,0 +1,159 @@
+package connect;
+
+import java.util.Arrays;
+
+/**
+ * The discs of a sparse board, stored in chunks of 8 * 8 cells. A chunk is created the first
+ * time a disc is placed in it, and holds two 64-bit masks: the cells that hold a disc and the
+ * cells that hold a red disc. The chunks are kept in an open-addressing hash table of primitive
+ * arrays, so memory grows with the number of chunks in use rather than with the size of the
+ * board.
+ *
+ * <p>Cells are addressed by their height from the bottom of the board and their column, both
+ * counted from 0.
+ */
+final class ChunkTable {
+
+  private static final int CHUNK_BITS = 3; // chunks are 2^3 = 8 cells wide and high
+  private static final int CHUNK_MASK = (1 << CHUNK_BITS) - 1;
+  private static final long EMPTY = -1L; // no chunk has this key, see key()
+  private static final int INITIAL_CAPACITY = 16;
+
+  private long[] keys;
+  private long[] discs;
+  private long[] reds;
+  private int size; // number of chunks in use
+
+  ChunkTable() {
+    allocate(INITIAL_CAPACITY);
+  }
+
+  private void allocate(int capacity) {
+    keys = new long[capacity];
+    Arrays.fill(keys, EMPTY);
+    discs = new long[capacity];
+    reds = new long[capacity];
+  }
+
+  /**
+   * Retrieves the number of chunks that were created.
+   */
+  int chunks() {
+    return size;
+  }
+
+  /**
+   * Retrieves the disc in a cell.
+   *
+   * @return the player whose disc is in the cell, or null if the cell is empty
+   */
+  Player get(int height, int column) {
+    int slot = find(key(height, column));
+    if (slot < 0) {
+      return null;
+    }
+    long bit = bit(height, column);
+    if ((discs[slot] & bit) == 0) {
+      return null;
+    }
+    return (reds[slot] & bit) != 0 ? Player.RED : Player.YELLOW;
+  }
+
+  /**
+   * Places a disc in an empty cell, creating its chunk if needed.
+   */
+  void set(int height, int column, Player player) {
+    long key = key(height, column);
+    int slot = find(key);
+    if (slot < 0) {
+      if (2 * (size + 1) > keys.length) {
+        grow();
+      }
+      slot = insert(key);
+    }
+    long bit = bit(height, column);
+    discs[slot] |= bit;
+    if (player == Player.RED) {
+      reds[slot] |= bit;
+    }
+  }
+
+  /**
+   * Empties a cell. Its chunk is kept, even if it becomes empty, since the cell is likely to be
+   * filled again soon.
+   */
+  void remove(int height, int column) {
+    int slot = find(key(height, column));
+    if (slot >= 0) {
+      long bit = bit(height, column);
+      discs[slot] &= ~bit;
+      reds[slot] &= ~bit;
+    }
+  }
+
+  /**
+   * Empties every cell, keeping the chunks and the table for the next game.
+   */
+  void clear() {
+    Arrays.fill(discs, 0L);
+    Arrays.fill(reds, 0L);
+  }
+
+  /**
+   * Packs the chunk coordinates of a cell into one key. Both halves are non-negative, so no
+   * key is ever {@link #EMPTY}.
+   */
+  private static long key(int height, int column) {
+    return ((long) (height >>> CHUNK_BITS) << 32) | (column >>> CHUNK_BITS);
+  }
+
+  private static long bit(int height, int column) {
+    return 1L << (((height & CHUNK_MASK) << CHUNK_BITS) | (column & CHUNK_MASK));
+  }
+
+  private static int hash(long key) {
+    // the finalizer of MurmurHash3, so that neighboring chunks spread over the table
+    key ^= key >>> 33;
+    key *= 0xff51afd7ed558ccdL;
+    key ^= key >>> 33;
+    return (int) key;
+  }
+
+  private int find(long key) {
+    int mask = keys.length - 1;
+    for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+      if (keys[slot] == key) {
+        return slot;
+      }
+      if (keys[slot] == EMPTY) {
+        return -1;
+      }
+    }
+  }
+
+  private int insert(long key) {
+    int mask = keys.length - 1;
+    int slot = hash(key) & mask;
+    while (keys[slot] != EMPTY) {
+      slot = (slot + 1) & mask;
+    }
+    keys[slot] = key;
+    size++;
+    return slot;
+  }
+
+  private void grow() {
+    long[] oldKeys = keys;
+    long[] oldDiscs = discs;
+    long[] oldReds = reds;
+    allocate(2 * oldKeys.length);
+    size = 0;
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] != EMPTY) {
+        int slot = insert(oldKeys[i]);
+        discs[slot] = oldDiscs[i];
+        reds[slot] = oldReds[i];
+      }
+    }
+  }
+}
@@ -17,13 +17,23 @@ public interface ConnectFourModel {
   /**
    * Attempts to place a disc in the specified column.
    * The disc will occupy the lowest available row within the column.
-   * If the column is full, the move will be rejected.
+   * If the column is full, or the game is over, the move will be rejected.
    *
    * @param column the column in which to place the disc
-   * @throws IllegalArgumentException if the column is out of bounds
+   * @throws IllegalArgumentException if the game is over, the column is out of bounds, or the
+   *                                  column is full
    */
   void makeMove(int column) throws IllegalArgumentException;
 
+  /**
+   * Takes back the last move, restoring the board, the turn and the winner to what they were
+   * before that move. This takes constant time, so computer players can search by making and
+   * taking back moves instead of copying the board.
+   *
+   * @throws IllegalStateException if no move has been made since the board was last cleared
+   */
+  void undoMove() throws IllegalStateException;
+
   /**
    * Retrieves the player whose turn it is to make a move.
    *
@@ -39,6 +49,24 @@ public interface ConnectFourModel {
    */
   boolean isGameOver();
 
+  /**
+   * Checks if a disc can be dropped into the specified column, i.e. the game is not over, and
+   * the column is within the bounds of the board and is not full. This takes constant time, so
+   * callers can check a move before making it instead of catching the exception thrown by
+   * {@link #makeMove}.
+   *
+   * @param column the column to check
+   * @return true if a move to the column would be accepted, false otherwise
+   */
+  boolean isLegalMove(int column);
+
+  /**
+   * Retrieves the columns that are not full, in increasing order, or none once the game is over.
+   *
+   * @return an array of the columns a disc can be dropped into
+   */
+  int[] getLegalMoves();
+
   /**
    * Retrieves the winner of the game, or {@code null} if there is no winner. If the game is not
    * over, returns {@code null}.
@@ -47,6 +75,25 @@ public interface ConnectFourModel {
    */
   Player getWinner();
 
+  /**
+   * Retrieves a 64-bit key of the current position, e.g. for caches and for spotting positions
+   * seen before. The key only depends on which discs are on the board, not on the order they
+   * were played in, and is the same in every run of the program, so it can be stored. It is
+   * updated with every move, so retrieving it takes constant time. Different positions may
+   * share a key, but it is very unlikely.
+   *
+   * @return the 64-bit key of the position, 0 for the empty board
+   */
+  long getPositionKey();
+
+  /**
+   * Retrieves the columns of the moves made since the board was last cleared, in the order they
+   * were made. Replaying them on an empty board of the same size gives the current position.
+   *
+   * @return a new array with one column per move, empty if no move was made
+   */
+  int[] getMoveHistory();
+
   /**
    * Resets the game board to its initial state, clearing all discs.
    */
@@ -59,4 +106,29 @@ public interface ConnectFourModel {
    * @return a 2D array representing the current state of the board
    */
   Player[][] getBoardState();
+
+  /**
+   * Retrieves a read-only view of the game board. The view is backed by the model, so reading
+   * it does not copy the board the way {@link #getBoardState()} does, and it keeps reflecting
+   * the board as moves are made.
+   *
+   * @return a read-only view of the current state of the board
+   */
+  BoardView getBoardView();
+
+  /**
+   * Adds a listener that is notified after every move and every reset, so that views do not
+   * have to read back the whole board to find out what changed.
+   *
+   * @param listener the listener to add
+   * @throws IllegalArgumentException if the listener is null
+   */
+  void addModelListener(ModelListener listener) throws IllegalArgumentException;
+
+  /**
+   * Removes a listener that was added before.
+   *
+   * @param listener the listener to remove
+   */
+  void removeModelListener(ModelListener listener);
 }
\ No newline at end of file
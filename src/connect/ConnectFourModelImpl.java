@@ -9,10 +9,16 @@ public class ConnectFourModelImpl implements ConnectFourModel {
 
   private final int rows;
   private final int columns;
-  private Player[][] board;
+  private final Player[][] board;
+  private final int[] heights; // number of discs in each column
+  private int moves; // number of discs on the board
+  private final int[] history; // the column of every move, in the order they were made
+  private int winningMoves; // the value of moves right after the winning disc was placed
+  private long version; // changes whenever the board changes, see BoardView
+  private long positionKey; // Zobrist key of the discs on the board
+  private final BoardView view = new View();
+  private final ModelListeners listeners = new ModelListeners();
   private Player turn; // decides who is the next to play
-  private Player lastTurn = null;
-  // will be used to decide if one player has won right after the last move
   private Player winner = null;
 
   /**
@@ -36,8 +42,9 @@ public class ConnectFourModelImpl implements ConnectFourModel {
     this.turn = Player.RED; // we assume red goes first,
     // according to the canvas instructions
     this.board = new Player[rows][columns];
-    //we have to call initializeBoard() to fill the board with empty cells
-    // for the GUI view
+    this.heights = new int[columns];
+    this.history = new int[rows * columns];
+    // a new array is already empty, so initializeBoard() only resets the counters
     initializeBoard();
   }
 
@@ -48,30 +55,83 @@ public class ConnectFourModelImpl implements ConnectFourModel {
    */
   @Override
   public void initializeBoard() {
-    //create a 2D array to represent the game board, filling each cell with the empty state (null)
-    // We assume the upper left corner is (0,0) and the bottom right corner is (rows-1, columns-1)
-    this.board = new Player[rows][columns];
-    for (int i = 0; i < rows; i++) {
-      for (int j = 0; j < columns; j++) {
-        this.board[i][j] = null;
+    // the board array is reused rather than allocated again, so starting a game allocates
+    // nothing; we assume the upper left corner is (0,0) and the bottom right corner is
+    // (rows-1, columns-1)
+    clear();
+    this.listeners.fireBoardReset();
+  }
+
+  /**
+   * Removes every disc from the board. Only the cells that hold a disc are cleared, which the
+   * heights of the columns tell without scanning the whole board.
+   */
+  private void clear() {
+    for (int j = 0; j < this.columns; j++) {
+      for (int h = 0; h < this.heights[j]; h++) {
+        this.board[this.rows - 1 - h][j] = null;
       }
+      this.heights[j] = 0;
     }
+    this.moves = 0;
+    this.positionKey = 0;
+    this.version++;
   }
 
   /**
-   * Switches the turn to the other player while keep track who made the last move.
+   * Switches the turn to the other player.
    */
 
   private void switchTurn() {
     if (this.turn == Player.RED) {
       this.turn = Player.YELLOW;
-      this.lastTurn = Player.RED;
     } else {
       this.turn = Player.RED;
-      this.lastTurn = Player.YELLOW;
     }
   }
 
+  /**
+   * Checks if the disc at the given cell is part of four in a row. Only the horizontal,
+   * vertical and both diagonal lines through that cell are checked, since a new four in a row
+   * must contain the disc that was just placed.
+   *
+   * @param row    the row of the disc that was just placed
+   * @param column the column of the disc that was just placed
+   * @return true if the disc completes four in a row, false otherwise
+   */
+  private boolean isWinningDisc(int row, int column) {
+    return countLine(row, column, 0, 1) >= 4 // horizontal
+        || countLine(row, column, 1, 0) >= 4 // vertical
+        || countLine(row, column, 1, 1) >= 4 // diagonal from top left to bottom right
+        || countLine(row, column, 1, -1) >= 4; // diagonal from top right to bottom left
+  }
+
+  /**
+   * Counts the discs of the same player in a line through the given cell, walking in both
+   * directions of the given step.
+   */
+  private int countLine(int row, int column, int rowStep, int columnStep) {
+    Player player = this.board[row][column];
+    int count = 1;
+    int i = row + rowStep;
+    int j = column + columnStep;
+    while (count < 4 && i >= 0 && i < this.rows && j >= 0 && j < this.columns
+        && this.board[i][j] == player) {
+      count++;
+      i += rowStep;
+      j += columnStep;
+    }
+    i = row - rowStep;
+    j = column - columnStep;
+    while (count < 4 && i >= 0 && i < this.rows && j >= 0 && j < this.columns
+        && this.board[i][j] == player) {
+      count++;
+      i -= rowStep;
+      j -= columnStep;
+    }
+    return count;
+  }
+
 
   /**
    * Attempts to place a disc in the specified column.
@@ -79,24 +139,60 @@ public class ConnectFourModelImpl implements ConnectFourModel {
    * If the column is full, the move will be rejected.
    *
    * @param column the column in which to place the disc
-   * @throws IllegalArgumentException if the column is out of bounds, or the column is full
+   * @throws IllegalArgumentException if the game is over, the column is out of bounds, or the
+   *                                  column is full
    */
   @Override
   public void makeMove(int column) throws IllegalArgumentException {
+    if (isGameOver()) {
+      throw new IllegalArgumentException("The game is over");
+    }
     if (column < 0 || column >= this.columns) {
       throw new IllegalArgumentException("The column is out of bounds");
     }
-    if (this.board[0][column] != null) {
+    if (this.heights[column] == this.rows) {
       throw new IllegalArgumentException("The column is full");
     }
-    for (int i = this.rows - 1; i >= 0; i--) {
-      if (this.board[i][column] == null) {
-        this.board[i][column] = getTurn();
-        break;
-      }
+    // the lowest empty cell is right above the discs already in the column
+    int row = this.rows - 1 - this.heights[column];
+    this.board[row][column] = this.turn;
+    this.positionKey ^= Zobrist.key(this.turn, this.heights[column], column);
+    this.heights[column]++;
+    this.history[this.moves] = column;
+    this.moves++;
+    this.version++;
+    if (this.winner == null && isWinningDisc(row, column)) {
+      this.winner = this.turn;
+      this.winningMoves = this.moves;
     }
+    Player player = this.turn;
     switchTurn(); //after placing the piece, switch the turn to the other player
+    this.listeners.fireMoveMade(row, column, player, getStatus());
+  }
 
+  /**
+   * Takes back the last move, restoring the board, the turn and the winner to what they were
+   * before that move.
+   *
+   * @throws IllegalStateException if no move has been made since the board was last cleared
+   */
+  @Override
+  public void undoMove() throws IllegalStateException {
+    if (this.moves == 0) {
+      throw new IllegalStateException("There is no move to undo");
+    }
+    if (this.winner != null && this.moves == this.winningMoves) {
+      this.winner = null; // the winning disc is taken back
+    }
+    this.moves--;
+    int column = this.history[this.moves];
+    this.heights[column]--;
+    int row = this.rows - 1 - this.heights[column];
+    this.positionKey ^= Zobrist.key(this.board[row][column], this.heights[column], column);
+    this.board[row][column] = null;
+    this.version++;
+    switchTurn(); // the player who made the move is to move again
+    this.listeners.fireMoveUndone(row, column, this.turn, getStatus());
   }
 
   /**
@@ -120,12 +216,7 @@ public class ConnectFourModelImpl implements ConnectFourModel {
    * @return true if the board is full, false otherwise
    */
   private boolean isFull() {
-    for (int i = 0; i < this.columns; i++) {
-      if (this.board[0][i] == null) {
-        return false;
-      }
-    }
-    return true;
+    return this.moves == this.rows * this.columns;
   }
 
 
@@ -141,64 +232,65 @@ public class ConnectFourModelImpl implements ConnectFourModel {
   }
 
   /**
-   * Retrieves the winner of the game, or {@code null} if there is no winner. If the game is not
-   * over, returns {@code null}.
+   * Retrieves the status of the game, to be reported to listeners after a move.
    *
-   * @return the winner, or null if there is no winner
+   * @return the status of the game
+   */
+  private GameStatus getStatus() {
+    if (this.winner != null) {
+      return GameStatus.WON;
+    }
+    return isFull() ? GameStatus.DRAW : GameStatus.IN_PROGRESS;
+  }
+
+  /**
+   * Checks if a disc can be dropped into the specified column, i.e. the column is within
+   * the bounds of the board and is not full.
+   *
+   * @param column the column to check
+   * @return true if a move to the column would be accepted, false otherwise
    */
   @Override
-  public Player getWinner() {
-    //check for horizontal win for the current player who just made a move
-    // (placed a piece on the board )
-    for (int i = 0; i < this.rows; i++) {
-      for (int j = 0; j < this.columns - 3; j++) {
-        if (this.board[i][j] == this.lastTurn
-            && this.board[i][j + 1] == this.lastTurn
-            && this.board[i][j + 2] == this.lastTurn
-            && this.board[i][j + 3] == this.lastTurn) {
-          this.winner = this.lastTurn;
-          return this.winner;
-        }
-      }
+  public boolean isLegalMove(int column) {
+    return column >= 0 && column < this.columns && this.heights[column] < this.rows
+        && !isGameOver();
+  }
+
+  /**
+   * Retrieves the columns that are not full, in increasing order, or none once the game is over.
+   *
+   * @return an array of the columns a disc can be dropped into
+   */
+  @Override
+  public int[] getLegalMoves() {
+    if (isGameOver()) {
+      return new int[0];
     }
-    // check for vertical win for the current player
-    for (int i = 0; i < this.rows - 3; i++) {
-      for (int j = 0; j < this.columns; j++) {
-        if (this.board[i][j] == this.lastTurn
-            && this.board[i + 1][j] == this.lastTurn
-            && this.board[i + 2][j] == this.lastTurn
-            && this.board[i + 3][j] == this.lastTurn) {
-          this.winner = this.lastTurn;
-          return this.winner;
-        }
+    int count = 0;
+    for (int j = 0; j < this.columns; j++) {
+      if (this.heights[j] < this.rows) {
+        count++;
       }
     }
-
-    // check for diagonal win for the current player (from top left to bottom right)
-    for (int i = 0; i < this.rows - 3; i++) {
-      for (int j = 0; j < this.columns - 3; j++) {
-        if (this.board[i][j] == this.lastTurn
-            && this.board[i + 1][j + 1] == this.lastTurn
-            && this.board[i + 2][j + 2] == this.lastTurn
-            && this.board[i + 3][j + 3] == this.lastTurn) {
-          this.winner = this.lastTurn;
-          return this.winner;
-        }
+    int[] legal = new int[count];
+    count = 0;
+    for (int j = 0; j < this.columns; j++) {
+      if (this.heights[j] < this.rows) {
+        legal[count++] = j;
       }
     }
+    return legal;
+  }
 
-    // check for diagonal win for the current player (from top right to bottom left)
-    for (int i = 0; i < this.rows - 3; i++) {
-      for (int j = 3; j < this.columns; j++) {
-        if (this.board[i][j] == this.lastTurn
-            && this.board[i + 1][j - 1] == this.lastTurn
-            && this.board[i + 2][j - 2] == this.lastTurn
-            && this.board[i + 3][j - 3] == this.lastTurn) {
-          this.winner = this.lastTurn;
-          return this.winner;
-        }
-      }
-    }
+  /**
+   * Retrieves the winner of the game, or {@code null} if there is no winner. If the game is not
+   * over, returns {@code null}.
+   *
+   * @return the winner, or null if there is no winner
+   */
+  @Override
+  public Player getWinner() {
+    // the winner is decided in makeMove, right after the winning disc is placed
     return this.winner;
   }
 
@@ -207,20 +299,12 @@ public class ConnectFourModelImpl implements ConnectFourModel {
    */
   @Override
   public void resetBoard() {
-    // keep the number of rows and columns
-    //clear the board by setting every cell to null
-    //keep the first player as red
-
-    for (int i = 0; i < this.rows; i++) {
-      for (int j = 0; j < this.columns; j++) {
-        this.board[i][j] = null;
-      }
-
-
-    }
+    // keep the number of rows and columns, and the board array
+    // keep the first player as red
+    clear();
     this.turn = Player.RED; // reset the first player to red
-    this.lastTurn = null; // reset the last turn to null
     this.winner = null; // reset the winner to null
+    this.listeners.fireBoardReset();
 
   }
 
@@ -241,6 +325,96 @@ public class ConnectFourModelImpl implements ConnectFourModel {
     return copy;
   }
 
+  /**
+   * Retrieves the Zobrist key of the position, which is updated with every move instead of
+   * being computed from the board.
+   *
+   * @return the 64-bit key of the position
+   */
+  @Override
+  public long getPositionKey() {
+    return this.positionKey;
+  }
+
+  /**
+   * Retrieves the columns of the moves made since the board was last cleared, in order.
+   *
+   * @return a copy of the move history
+   */
+  @Override
+  public int[] getMoveHistory() {
+    return Arrays.copyOf(this.history, this.moves);
+  }
+
+  /**
+   * Retrieves a read-only view of the game board. The view is backed by the model, so reading
+   * it does not copy the board the way {@link #getBoardState()} does.
+   *
+   * @return a read-only view of the current state of the board
+   */
+  @Override
+  public BoardView getBoardView() {
+    return this.view;
+  }
+
+  /**
+   * Adds a listener that is notified after every move and every reset.
+   *
+   * @param listener the listener to add
+   * @throws IllegalArgumentException if the listener is null
+   */
+  @Override
+  public void addModelListener(ModelListener listener) throws IllegalArgumentException {
+    this.listeners.add(listener);
+  }
+
+  /**
+   * Removes a listener that was added before.
+   *
+   * @param listener the listener to remove
+   */
+  @Override
+  public void removeModelListener(ModelListener listener) {
+    this.listeners.remove(listener);
+  }
+
+  /**
+   * A read-only view that reads the board of the enclosing model directly.
+   */
+  private class View implements BoardView {
+
+    @Override
+    public int getRows() {
+      return rows;
+    }
+
+    @Override
+    public int getColumns() {
+      return columns;
+    }
+
+    @Override
+    public Player cell(int row, int column) throws IllegalArgumentException {
+      if (row < 0 || row >= rows || column < 0 || column >= columns) {
+        throw new IllegalArgumentException("The cell is out of bounds");
+      }
+      return board[row][column];
+    }
+
+    @Override
+    public int height(int column) throws IllegalArgumentException {
+      if (column < 0 || column >= columns) {
+        throw new IllegalArgumentException("The column is out of bounds");
+      }
+      return heights[column];
+    }
+
+    @Override
+    public long version() {
+      return version;
+    }
+  }
+
   /**
    * Returns a string representation of the game board. This method is useful
    * for debugging purposes.
@@ -251,9 +425,8 @@ public class ConnectFourModelImpl implements ConnectFourModel {
   public String toString() {
     // print the board
     StringBuilder string = new StringBuilder();
-    //print every item in getBoardState, add a new line after each row
-    Player[][] array = getBoardState();
-    for (Player[] players : array) {
+    //print every cell, add a new line after each row
+    for (Player[] players : this.board) {
       for (int j = 0; j < players.length; j++) {
         string.append(players[j]);
         if (j < players.length - 1) {
@@ -0,0 +1,60 @@
+package connect;
+
+/**
+ * Factory methods for creating Connect Four models, so that callers such as {@code Main} do not
+ * have to pick a model implementation themselves.
+ */
+public final class ConnectFourModels {
+
+  /**
+   * The largest board, in bits, that fits in one {@code long} per player.
+   */
+  private static final int SINGLE_WORD_BITS = 64;
+
+  /**
+   * The largest board, in cells, that is stored densely. Bigger boards are stored sparsely.
+   */
+  private static final long DENSE_CELLS = 1 << 16;
+
+  private ConnectFourModels() {
+    // static factory methods only
+  }
+
+  /**
+   * Creates a model with the specified number of rows and columns. Boards that fit in a single
+   * {@code long} per player (such as the classic 6 * 7 board) are backed by a
+   * {@link BitboardConnectFourModel}, boards of more than 65536 cells by a
+   * {@link SparseConnectFourModel}, and any other size by {@link ConnectFourModelImpl}.
+   *
+   * @param rows    the number of rows in the game board (must be at least 4)
+   * @param columns the number of columns in the game board (must be at least 4)
+   * @return a new model with an empty board
+   * @throws IllegalArgumentException if the number of rows or columns is less than 4
+   */
+  public static ConnectFourModel create(int rows, int columns) throws IllegalArgumentException {
+    if ((long) (rows + 1) * columns <= SINGLE_WORD_BITS) {
+      return new BitboardConnectFourModel(rows, columns);
+    }
+    if ((long) rows * columns > DENSE_CELLS) {
+      return new SparseConnectFourModel(rows, columns);
+    }
+    return new ConnectFourModelImpl(rows, columns);
+  }
+
+  /**
+   * Creates an independent copy of a model, with the same board size and the same moves
+   * played. Listeners are not copied. The copy is created by {@link #create(int, int)}, so it
+   * may be a different implementation than the original.
+   *
+   * @param model the model to copy
+   * @return a new model in the same position
+   */
+  public static ConnectFourModel copyOf(ConnectFourModel model) {
+    BoardView view = model.getBoardView();
+    ConnectFourModel copy = create(view.getRows(), view.getColumns());
+    for (int column : model.getMoveHistory()) {
+      copy.makeMove(column);
+    }
+    return copy;
+  }
+}
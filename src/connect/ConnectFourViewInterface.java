@@ -60,6 +60,14 @@ public interface ConnectFourViewInterface {
    */
   void addFeatures(Features features);
 
+  /**
+   * Sizes the game board to the given number of rows and columns, emptying every cell.
+   *
+   * @param rows    the number of rows of the board
+   * @param columns the number of columns of the board
+   */
+  void setBoardSize(int rows, int columns);
+
   /**
    * Updates the color of a button on the game board.
    *
@@ -83,4 +91,12 @@ public interface ConnectFourViewInterface {
    * Resets the labels when the game is restarted.
    */
   void resetLabel();
+
+  /**
+   * Shows the score of every column over the board, as a hint for the player to move.
+   *
+   * @param scores the score of every column from 0 to 1, NaN for a full column, or null to hide
+   *               the hint
+   */
+  void showHint(double[] scores);
 }
\ No newline at end of file
@@ -43,9 +43,20 @@ public interface Features {
   void makeMove(int column) throws IOException;
 
 
+  /**
+   * A method to take back the last move.
+   */
+  void undoMove() throws IOException;
+
+
   /**
    * A method to restart the game.It will empty the board
    * and set the current player to player RED.
    */
   void restartGame() throws IOException;
+
+  /**
+   * A method to score every column for the player to move, and show the scores on the board.
+   */
+  void requestHint() throws IOException;
 }
@@ -0,0 +1,21 @@
+package connect;
+
+/**
+ * Enumerated type representing the status of a game after a move.
+ */
+public enum GameStatus {
+  /**
+   * The game goes on, the other player is to move.
+   */
+  IN_PROGRESS,
+
+  /**
+   * The player who made the move has won the game.
+   */
+  WON,
+
+  /**
+   * The board is full and nobody has won.
+   */
+  DRAW
+}
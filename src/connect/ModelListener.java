@@ -0,0 +1,28 @@
+package connect;
+
+/**
+ * Listener for changes to a {@link ConnectFourModel}. Listeners are called synchronously on the
+ * thread that changed the model, after the change has been applied.
+ */
+public interface ModelListener {
+
+  /**
+   * Called after a move has been accepted by the model.
+   *
+   * @param event the cell that changed and the resulting status of the game
+   */
+  void moveMade(MoveEvent event);
+
+  /**
+   * Called after a move has been taken back by {@link ConnectFourModel#undoMove()}.
+   *
+   * @param event the cell that was emptied, the player whose disc was taken back, and the
+   *              status of the game after taking it back
+   */
+  void moveUndone(MoveEvent event);
+
+  /**
+   * Called after the board has been cleared, either by a reset or by initializing the board.
+   */
+  void boardReset();
+}
@@ -0,0 +1,80 @@
+package connect;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the listeners of a model and notifies them of changes. Events are only created when
+ * there is at least one listener, so a model nobody listens to pays nothing for them.
+ */
+final class ModelListeners {
+
+  private final List<ModelListener> listeners = new ArrayList<>();
+
+  /**
+   * Adds a listener.
+   *
+   * @param listener the listener to add
+   * @throws IllegalArgumentException if the listener is null
+   */
+  void add(ModelListener listener) throws IllegalArgumentException {
+    if (listener == null) {
+      throw new IllegalArgumentException("The listener cannot be null");
+    }
+    listeners.add(listener);
+  }
+
+  /**
+   * Removes a listener, if it was added before.
+   *
+   * @param listener the listener to remove
+   */
+  void remove(ModelListener listener) {
+    listeners.remove(listener);
+  }
+
+  /**
+   * Notifies every listener of a move.
+   *
+   * @param row    the row the disc landed in
+   * @param column the column the disc was dropped into
+   * @param player the player who made the move
+   * @param status the status of the game after the move
+   */
+  void fireMoveMade(int row, int column, Player player, GameStatus status) {
+    if (listeners.isEmpty()) {
+      return;
+    }
+    MoveEvent event = new MoveEvent(row, column, player, status);
+    for (int i = 0; i < listeners.size(); i++) {
+      listeners.get(i).moveMade(event);
+    }
+  }
+
+  /**
+   * Notifies every listener that a move has been taken back.
+   *
+   * @param row    the row of the disc that was taken back
+   * @param column the column of the disc that was taken back
+   * @param player the player whose disc was taken back
+   * @param status the status of the game after taking the move back
+   */
+  void fireMoveUndone(int row, int column, Player player, GameStatus status) {
+    if (listeners.isEmpty()) {
+      return;
+    }
+    MoveEvent event = new MoveEvent(row, column, player, status);
+    for (int i = 0; i < listeners.size(); i++) {
+      listeners.get(i).moveUndone(event);
+    }
+  }
+
+  /**
+   * Notifies every listener that the board has been cleared.
+   */
+  void fireBoardReset() {
+    for (int i = 0; i < listeners.size(); i++) {
+      listeners.get(i).boardReset();
+    }
+  }
+}
@@ -0,0 +1,114 @@
+package connect;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * A bounded pool of models, so that games can start and end without creating and discarding a
+ * model every time. Models are pooled per board size, and at most a fixed number of idle models
+ * of each size are kept; models released beyond that are left to the garbage collector.
+ *
+ * <p>A released model is reset before it goes back to the pool, so every model handed out has an
+ * empty board and red to move. Taking a model out of the pool and putting it back allocates
+ * nothing once the pool holds models of that size. The pool can be shared by several threads.
+ */
+public final class ModelPool {
+
+  private final int maxIdle;
+  private volatile SizePool[] pools = new SizePool[0]; // copied on write, as sizes are rare
+
+  /**
+   * Creates an empty pool.
+   *
+   * @param maxIdle the largest number of idle models kept for each board size, at least 1
+   * @throws IllegalArgumentException if the number of models is less than 1
+   */
+  public ModelPool(int maxIdle) throws IllegalArgumentException {
+    if (maxIdle < 1) {
+      throw new IllegalArgumentException("The pool must keep at least one model per size");
+    }
+    this.maxIdle = maxIdle;
+  }
+
+  /**
+   * Takes a model with an empty board out of the pool, or creates one with
+   * {@link ConnectFourModels#create(int, int)} if there is no idle model of that size.
+   *
+   * @param rows    the number of rows in the game board (must be at least 4)
+   * @param columns the number of columns in the game board (must be at least 4)
+   * @return a model with an empty board and red to move
+   * @throws IllegalArgumentException if the number of rows or columns is less than 4
+   */
+  public ConnectFourModel acquire(int rows, int columns) throws IllegalArgumentException {
+    SizePool pool = find(rows, columns);
+    ConnectFourModel model = pool == null ? null : pool.idle.poll();
+    return model != null ? model : ConnectFourModels.create(rows, columns);
+  }
+
+  /**
+   * Resets a model and puts it back in the pool, unless the pool already holds as many idle
+   * models of its size as it may. The caller must not use the model afterwards, and should
+   * remove any listener it added, since listeners stay with the model.
+   *
+   * @param model the model to give back
+   */
+  public void release(ConnectFourModel model) {
+    BoardView view = model.getBoardView();
+    model.resetBoard();
+    pool(view.getRows(), view.getColumns()).idle.offer(model);
+  }
+
+  /**
+   * Retrieves the number of idle models of a board size.
+   *
+   * @param rows    the number of rows
+   * @param columns the number of columns
+   * @return the number of models of that size waiting in the pool
+   */
+  public int idle(int rows, int columns) {
+    SizePool pool = find(rows, columns);
+    return pool == null ? 0 : pool.idle.size();
+  }
+
+  private SizePool find(int rows, int columns) {
+    for (SizePool pool : pools) {
+      if (pool.rows == rows && pool.columns == columns) {
+        return pool;
+      }
+    }
+    return null;
+  }
+
+  private SizePool pool(int rows, int columns) {
+    SizePool pool = find(rows, columns);
+    if (pool != null) {
+      return pool;
+    }
+    synchronized (this) {
+      pool = find(rows, columns);
+      if (pool == null) {
+        SizePool[] grown = Arrays.copyOf(pools, pools.length + 1);
+        pool = new SizePool(rows, columns, maxIdle);
+        grown[pools.length] = pool;
+        pools = grown;
+      }
+      return pool;
+    }
+  }
+
+  /**
+   * The idle models of one board size.
+   */
+  private static final class SizePool {
+
+    private final int rows;
+    private final int columns;
+    private final ArrayBlockingQueue<ConnectFourModel> idle;
+
+    SizePool(int rows, int columns, int maxIdle) {
+      this.rows = rows;
+      this.columns = columns;
+      this.idle = new ArrayBlockingQueue<>(maxIdle);
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package connect;
+
+/**
+ * Describes a single move accepted by a {@link ConnectFourModel}: the cell the disc landed in,
+ * the player who dropped it, and the status of the game after the move. Listeners can use it to
+ * update only the cell that changed instead of reading back the whole board.
+ */
+public final class MoveEvent {
+
+  private final int row;
+  private final int column;
+  private final Player player;
+  private final GameStatus status;
+
+  /**
+   * Constructor for the MoveEvent class.
+   *
+   * @param row    the row the disc landed in, where row 0 is the top of the board
+   * @param column the column the disc was dropped into
+   * @param player the player who made the move
+   * @param status the status of the game after the move
+   */
+  public MoveEvent(int row, int column, Player player, GameStatus status) {
+    this.row = row;
+    this.column = column;
+    this.player = player;
+    this.status = status;
+  }
+
+  /**
+   * Retrieves the row the disc landed in, where row 0 is the top of the board.
+   *
+   * @return the row of the disc
+   */
+  public int getRow() {
+    return row;
+  }
+
+  /**
+   * Retrieves the column the disc was dropped into.
+   *
+   * @return the column of the disc
+   */
+  public int getColumn() {
+    return column;
+  }
+
+  /**
+   * Retrieves the player who made the move.
+   *
+   * @return the player who made the move
+   */
+  public Player getPlayer() {
+    return player;
+  }
+
+  /**
+   * Retrieves the status of the game after the move.
+   *
+   * @return the status of the game
+   */
+  public GameStatus getStatus() {
+    return status;
+  }
+
+  @Override
+  public String toString() {
+    return player + " at (" + row + ", " + column + "), " + status;
+  }
+}
@@ -0,0 +1,412 @@
+package connect;
+
+import java.util.Arrays;
+
+/**
+ * This class represents the model of the Connect Four game on very large boards that are mostly
+ * empty, e.g. thousands of columns. Unlike {@link ConnectFourModelImpl}, it does not allocate a
+ * cell for every square of the board: the discs are kept in chunks of 8 * 8 cells that are only
+ * created where discs are placed (see {@link ChunkTable}), and the move history grows with the
+ * game. Apart from one height per column, memory therefore grows with the number of moves
+ * instead of the area of the board.
+ *
+ * <p>Win checks only look at the lines through the last disc, so a move takes constant time
+ * whatever the size of the board. {@link #getBoardState()} and {@link #toString()} still build
+ * the whole board, and should be avoided on huge boards; {@link #getBoardView()} reads single
+ * cells without copying.
+ */
+public class SparseConnectFourModel implements ConnectFourModel {
+
+  private static final int INITIAL_HISTORY = 64;
+
+  private final int rows;
+  private final int columns;
+  private final long area; // the number of cells, which may not fit in an int
+  private final ChunkTable discs = new ChunkTable();
+  private final int[] heights; // number of discs in each column
+  private int moves;
+  private int[] history = new int[INITIAL_HISTORY]; // grows as moves are made
+  private int winningMoves; // the value of moves right after the winning disc was placed
+  private long version; // changes whenever the board changes, see BoardView
+  private long positionKey; // Zobrist key of the discs on the board
+  private final BoardView view = new View();
+  private final ModelListeners listeners = new ModelListeners();
+  private Player turn; // decides who is the next to play
+  private Player winner = null;
+
+  /**
+   * This is a constructor of the class SparseConnectFourModel, which initializes
+   * the game board with a specified number of rows and columns.
+   *
+   * @param rows    the number of rows in the game board
+   *                (must be at least 4)
+   * @param columns the number of columns in the game board
+   *                (must be at least 4)
+   * @throws IllegalArgumentException if the number of rows or columns is less than 4
+   */
+  public SparseConnectFourModel(int rows, int columns) throws IllegalArgumentException {
+    if (rows < 4 || columns < 4) {
+      throw new IllegalArgumentException("The number of rows and columns must be at least 4");
+    }
+    this.rows = rows;
+    this.columns = columns;
+    this.area = (long) rows * columns;
+    this.heights = new int[columns];
+    this.turn = Player.RED; // red always goes first
+  }
+
+  /**
+   * Initializes the game board with a specified number of rows and columns.
+   * Each cell in the board is set to a default state (e.g., empty).
+   */
+  @Override
+  public void initializeBoard() {
+    clear();
+    this.listeners.fireBoardReset();
+  }
+
+  /**
+   * Removes every disc from the board, keeping the chunks for the next game.
+   */
+  private void clear() {
+    this.discs.clear();
+    Arrays.fill(this.heights, 0);
+    this.moves = 0;
+    this.positionKey = 0;
+    this.version++;
+  }
+
+  /**
+   * Attempts to place a disc in the specified column.
+   * The disc will occupy the lowest available row within the column.
+   * If the column is full, the move will be rejected.
+   *
+   * @param column the column in which to place the disc
+   * @throws IllegalArgumentException if the game is over, the column is out of bounds, or the
+   *                                  column is full
+   */
+  @Override
+  public void makeMove(int column) throws IllegalArgumentException {
+    if (isGameOver()) {
+      throw new IllegalArgumentException("The game is over");
+    }
+    if (column < 0 || column >= this.columns) {
+      throw new IllegalArgumentException("The column is out of bounds");
+    }
+    if (this.heights[column] == this.rows) {
+      throw new IllegalArgumentException("The column is full");
+    }
+    int height = this.heights[column];
+    this.discs.set(height, column, this.turn);
+    this.positionKey ^= Zobrist.key(this.turn, height, column);
+    this.heights[column]++;
+    if (this.moves == this.history.length) {
+      this.history = Arrays.copyOf(this.history, 2 * this.history.length);
+    }
+    this.history[this.moves] = column;
+    this.moves++;
+    this.version++;
+    if (this.winner == null && isWinningDisc(height, column)) {
+      this.winner = this.turn;
+      this.winningMoves = this.moves;
+    }
+    Player player = this.turn;
+    this.turn = this.turn == Player.RED ? Player.YELLOW : Player.RED;
+    this.listeners.fireMoveMade(this.rows - 1 - height, column, player, getStatus());
+  }
+
+  /**
+   * Takes back the last move, restoring the board, the turn and the winner to what they were
+   * before that move.
+   *
+   * @throws IllegalStateException if no move has been made since the board was last cleared
+   */
+  @Override
+  public void undoMove() throws IllegalStateException {
+    if (this.moves == 0) {
+      throw new IllegalStateException("There is no move to undo");
+    }
+    if (this.winner != null && this.moves == this.winningMoves) {
+      this.winner = null; // the winning disc is taken back
+    }
+    this.moves--;
+    int column = this.history[this.moves];
+    this.heights[column]--;
+    int height = this.heights[column];
+    this.turn = this.turn == Player.RED ? Player.YELLOW : Player.RED;
+    this.positionKey ^= Zobrist.key(this.turn, height, column);
+    this.discs.remove(height, column);
+    this.version++;
+    this.listeners.fireMoveUndone(this.rows - 1 - height, column, this.turn, getStatus());
+  }
+
+  /**
+   * Checks if the disc at the given cell is part of four in a row, looking only at the lines
+   * through that cell.
+   *
+   * @param height the height of the disc from the bottom of the board
+   * @param column the column of the disc
+   * @return true if the disc completes four in a row, false otherwise
+   */
+  private boolean isWinningDisc(int height, int column) {
+    Player player = this.discs.get(height, column);
+    return countLine(player, height, column, 0, 1) >= 4 // horizontal
+        || countLine(player, height, column, 1, 0) >= 4 // vertical
+        || countLine(player, height, column, 1, 1) >= 4 // diagonal
+        || countLine(player, height, column, 1, -1) >= 4; // anti-diagonal
+  }
+
+  /**
+   * Counts the discs of the player in a line through the given cell, walking in both
+   * directions of the given step.
+   */
+  private int countLine(Player player, int height, int column, int heightStep, int columnStep) {
+    int count = 1;
+    for (int sign = -1; sign <= 1; sign += 2) {
+      int h = height + sign * heightStep;
+      int j = column + sign * columnStep;
+      while (count < 4 && h >= 0 && j >= 0 && j < this.columns && h < this.heights[j]
+          && this.discs.get(h, j) == player) {
+        count++;
+        h += sign * heightStep;
+        j += sign * columnStep;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Retrieves the player whose turn it is to make a move.
+   *
+   * @return the player whose turn it is
+   */
+  @Override
+  public Player getTurn() {
+    //if game is over, return null
+    if (isGameOver()) {
+      return null;
+    }
+    return this.turn;
+  }
+
+  /**
+   * Checks if the game is over. The game is over when either the board is full, or
+   * one player has won.
+   *
+   * @return true if the game is over, false otherwise
+   */
+  @Override
+  public boolean isGameOver() {
+    return this.winner != null || this.moves == this.area;
+  }
+
+  /**
+   * Retrieves the status of the game, to be reported to listeners after a move.
+   *
+   * @return the status of the game
+   */
+  private GameStatus getStatus() {
+    if (this.winner != null) {
+      return GameStatus.WON;
+    }
+    return this.moves == this.area ? GameStatus.DRAW : GameStatus.IN_PROGRESS;
+  }
+
+  /**
+   * Checks if a disc can be dropped into the specified column, i.e. the column is within
+   * the bounds of the board and is not full.
+   *
+   * @param column the column to check
+   * @return true if a move to the column would be accepted, false otherwise
+   */
+  @Override
+  public boolean isLegalMove(int column) {
+    return column >= 0 && column < this.columns && this.heights[column] < this.rows
+        && !isGameOver();
+  }
+
+  /**
+   * Retrieves the columns that are not full, in increasing order, or none once the game is over.
+   *
+   * @return an array of the columns a disc can be dropped into
+   */
+  @Override
+  public int[] getLegalMoves() {
+    if (isGameOver()) {
+      return new int[0];
+    }
+    int count = 0;
+    for (int j = 0; j < this.columns; j++) {
+      if (this.heights[j] < this.rows) {
+        count++;
+      }
+    }
+    int[] legal = new int[count];
+    count = 0;
+    for (int j = 0; j < this.columns; j++) {
+      if (this.heights[j] < this.rows) {
+        legal[count++] = j;
+      }
+    }
+    return legal;
+  }
+
+  /**
+   * Retrieves the winner of the game, or {@code null} if there is no winner. If the game is not
+   * over, returns {@code null}.
+   *
+   * @return the winner, or null if there is no winner
+   */
+  @Override
+  public Player getWinner() {
+    return this.winner;
+  }
+
+  /**
+   * Resets the game board to its initial state, clearing all cells.
+   */
+  @Override
+  public void resetBoard() {
+    clear();
+    this.turn = Player.RED; // reset the first player to red
+    this.winner = null;
+    this.listeners.fireBoardReset();
+  }
+
+  /**
+   * Retrieves the current state of the game board. This builds the whole board, so on a huge
+   * board {@link #getBoardView()} is the better way to read it.
+   *
+   * @return a 2D array representing the current state of the board
+   */
+  @Override
+  public Player[][] getBoardState() {
+    // row 0 is the top of the board, as in ConnectFourModelImpl
+    Player[][] copy = new Player[this.rows][this.columns];
+    for (int j = 0; j < this.columns; j++) {
+      for (int h = 0; h < this.heights[j]; h++) {
+        copy[this.rows - 1 - h][j] = this.discs.get(h, j);
+      }
+    }
+    return copy;
+  }
+
+  /**
+   * Retrieves the disc in the specified cell, where row 0 is the top of the board.
+   */
+  private Player cellAt(int row, int column) {
+    int h = this.rows - 1 - row;
+    return h < this.heights[column] ? this.discs.get(h, column) : null;
+  }
+
+  /**
+   * Retrieves the Zobrist key of the position, which is updated with every move instead of
+   * being computed from the board.
+   *
+   * @return the 64-bit key of the position
+   */
+  @Override
+  public long getPositionKey() {
+    return this.positionKey;
+  }
+
+  /**
+   * Retrieves the columns of the moves made since the board was last cleared, in order.
+   *
+   * @return a copy of the move history
+   */
+  @Override
+  public int[] getMoveHistory() {
+    return Arrays.copyOf(this.history, this.moves);
+  }
+
+  /**
+   * Retrieves a read-only view of the game board. The view is backed by the model, so reading
+   * it does not copy the board the way {@link #getBoardState()} does.
+   *
+   * @return a read-only view of the current state of the board
+   */
+  @Override
+  public BoardView getBoardView() {
+    return this.view;
+  }
+
+  /**
+   * Adds a listener that is notified after every move and every reset.
+   *
+   * @param listener the listener to add
+   * @throws IllegalArgumentException if the listener is null
+   */
+  @Override
+  public void addModelListener(ModelListener listener) throws IllegalArgumentException {
+    this.listeners.add(listener);
+  }
+
+  /**
+   * Removes a listener that was added before.
+   *
+   * @param listener the listener to remove
+   */
+  @Override
+  public void removeModelListener(ModelListener listener) {
+    this.listeners.remove(listener);
+  }
+
+  /**
+   * A read-only view that reads the chunks of the enclosing model directly.
+   */
+  private class View implements BoardView {
+
+    @Override
+    public int getRows() {
+      return rows;
+    }
+
+    @Override
+    public int getColumns() {
+      return columns;
+    }
+
+    @Override
+    public Player cell(int row, int column) throws IllegalArgumentException {
+      if (row < 0 || row >= rows || column < 0 || column >= columns) {
+        throw new IllegalArgumentException("The cell is out of bounds");
+      }
+      return cellAt(row, column);
+    }
+
+    @Override
+    public int height(int column) throws IllegalArgumentException {
+      if (column < 0 || column >= columns) {
+        throw new IllegalArgumentException("The column is out of bounds");
+      }
+      return heights[column];
+    }
+
+    @Override
+    public long version() {
+      return version;
+    }
+  }
+
+  /**
+   * Returns a string representation of the game board. This method is useful
+   * for debugging purposes, on boards small enough to print.
+   *
+   * @return a string representation of the game board
+   */
+  public String toString() {
+    StringBuilder string = new StringBuilder();
+    for (int i = 0; i < this.rows; i++) {
+      for (int j = 0; j < this.columns; j++) {
+        string.append(cellAt(i, j));
+        if (j < this.columns - 1) {
+          //separate every element with a comma
+          string.append(", ");
+        }
+      }
+      string.append("\n");
+    }
+    return string.toString();
+  }
+}
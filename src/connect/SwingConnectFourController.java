@@ -1,18 +1,43 @@
 package connect;
 
+import connect.engine.HintAnalyzer;
+import connect.metrics.GameMetrics;
 import java.io.IOException;
-import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.swing.SwingUtilities;
 
 
 /**
- * Represents a controller for the Connect Four game.
+ * Represents a controller for the Connect Four game. The time it takes to handle every move of
+ * the user is recorded in a {@link GameMetrics}.
+ *
+ * <p>The model is only used on a game thread of the controller, never on the Swing event
+ * dispatch thread: the moves of the user are handed to the game thread, and the changes to the
+ * view go back through a {@link ViewUpdateQueue}, which coalesces them into one batch per
+ * repaint. The view therefore stays responsive however fast the moves come, e.g. from a replay
+ * or a computer player, and however long the model takes on a huge board.
+ *
+ * <p>Hints are computed by a {@link HintAnalyzer} on a copy of the model, so the game thread
+ * goes on taking moves meanwhile. A hint is only shown if the position is still the one it was
+ * computed for, and it is hidden as soon as the board changes.
  */
 
-public class SwingConnectFourController implements Features, ConnectFourController {
+public class SwingConnectFourController implements Features, ConnectFourController,
+    ModelListener {
 
 
+  /**
+   * The time a hint is computed for, in milliseconds.
+   */
+  static final long HINT_MILLIS = 300;
+
   private final ConnectFourModel model;
   private final ConnectFourViewInterface view;
+  private final GameMetrics metrics;
+  private final ExecutorService gameThread;
+  private final ViewUpdateQueue updates;
+  private final HintAnalyzer analyzer;
 
 
   /**
@@ -22,10 +47,34 @@ public class SwingConnectFourController implements Features, ConnectFourControll
    * @param view  the Connect Four view
    */
   public SwingConnectFourController(ConnectFourModel model, ConnectFourViewInterface view) {
+    this(model, view, GameMetrics.global());
+  }
+
+  /**
+   * Constructor for the SwingConnectFourController class, recording to the given metrics.
+   *
+   * @param model   the Connect Four model
+   * @param view    the Connect Four view
+   * @param metrics the metrics to record the handling of the moves to
+   */
+  public SwingConnectFourController(ConnectFourModel model, ConnectFourViewInterface view,
+      GameMetrics metrics) {
 
     this.model = model;
     this.view = view;
+    this.metrics = metrics;
+    this.gameThread = Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "connect-game");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.updates = new ViewUpdateQueue(view, SwingUtilities::invokeLater);
+    this.analyzer = new HintAnalyzer();
+    // the view takes the size of the board from the model, whatever it is
+    BoardView board = model.getBoardView();
+    this.view.setBoardSize(board.getRows(), board.getColumns());
     this.view.addFeatures(this);
+    this.model.addModelListener(this);
   }
 
 
@@ -48,30 +97,19 @@ public class SwingConnectFourController implements Features, ConnectFourControll
    */
   @Override
   public void displayGameState(String gameState) {
-    //parse the string to 6* 7 grid
+    //parse the string to a grid of the size of the board
     // Remove outer brackets and split by '], [' to get individual rows
+    int rows = this.model.getBoardView().getRows();
+    int columns = this.model.getBoardView().getColumns();
     String[] rowStrings = gameState.substring(1, gameState.length() - 1).split("], \\[");
 
-    // Initialize a 6x7 matrix
-    String[][] matrix = new String[6][7];
-
-    for (int i = 0; i < rowStrings.length; i++) {
+    for (int i = 0; i < rows && i < rowStrings.length; i++) {
       String[] elements = rowStrings[i].split(", ");
-      for (int j = 0; j < 7; j++) {
-        // Remove square brackets and trim whitespace
-        matrix[i][j] = elements[j].replaceAll("[\\[\\]]", "").trim();
-      }
-    }
-
-    for (int i = 0; i < 6; i++) {
-      for (int j = 0; j < 7; j++) {
-        //set the buttons to the right color
-        this.view.updateButtonColor(i, j, matrix[i][j]);
+      for (int j = 0; j < columns && j < elements.length; j++) {
+        // Remove square brackets and trim whitespace, then set the cell to the right color
+        this.view.updateButtonColor(i, j, elements[j].replaceAll("[\\[\\]]", "").trim());
       }
-
     }
-
-
   }
 
   /**
@@ -113,25 +151,31 @@ public class SwingConnectFourController implements Features, ConnectFourControll
    */
   @Override
   public void makeMove(int column) throws IOException {
-    try {
-      this.model.makeMove(column);
-      displayGameState(Arrays.deepToString(this.model.getBoardState()));
-      if (this.model.isGameOver() && this.model.getWinner() != null) {
-        this.view.displayGameOver(this.model.getWinner().toString());
-        this.view.askPlayAgain();
-      }
-      if (this.model.isGameOver() && this.model.getWinner() == null) {
-        this.view.displayGameOver("It's a tie!");
-        this.view.askPlayAgain();
-      }
-      if (this.model.getTurn() != null) {
-        this.view.displayPlayerTurn(this.model.getTurn().toString());
+    // the view is updated by moveMade, once the model has accepted the move
+    this.gameThread.execute(() -> {
+      long start = System.nanoTime();
+      try {
+        this.model.makeMove(column);
+      } catch (IllegalArgumentException e) {
+        this.updates.hint(view -> view.displayErrorMessage(e.getMessage()));
       }
-    } catch (IllegalArgumentException | IOException e) {
-      this.view.displayErrorMessage(e.getMessage());
-    }
-
+      this.metrics.controllerMove(System.nanoTime() - start);
+    });
+  }
 
+  /**
+   * A method to take back the last move.
+   */
+  @Override
+  public void undoMove() throws IOException {
+    // the view is updated by moveUndone, once the model has taken the move back
+    this.gameThread.execute(() -> {
+      try {
+        this.model.undoMove();
+      } catch (IllegalStateException e) {
+        this.updates.hint(view -> view.displayErrorMessage(e.getMessage()));
+      }
+    });
   }
 
   /**
@@ -140,8 +184,97 @@ public class SwingConnectFourController implements Features, ConnectFourControll
    */
   @Override
   public void restartGame() throws IOException {
-    this.model.resetBoard();
-    this.view.emptyBoard();
-    this.view.resetLabel();
+    // the view is emptied by boardReset
+    this.gameThread.execute(this.model::resetBoard);
+  }
+
+  /**
+   * A method to score every column for the player to move, and show the scores on the board.
+   * The scores are shown once they are computed, unless a move was made or taken back
+   * meanwhile.
+   */
+  @Override
+  public void requestHint() throws IOException {
+    this.gameThread.execute(() -> {
+      long position = this.model.getPositionKey();
+      int moves = this.model.getMoveHistory().length;
+      try {
+        this.analyzer.analyzeAsync(this.model, HINT_MILLIS).thenAccept(hint -> {
+          // checked on the game thread, where the model changes
+          this.gameThread.execute(() -> {
+            if (this.model.getPositionKey() == position
+                && this.model.getMoveHistory().length == moves) {
+              this.updates.scores(hint.getScores());
+            }
+          });
+        });
+      } catch (IllegalArgumentException e) {
+        // the game is over, or the board is too large for hints
+        this.updates.hint(view -> view.displayErrorMessage(e.getMessage()));
+      }
+    });
+  }
+
+  /**
+   * Stops the game thread once the moves handed to it are done, and the threads computing
+   * hints. The controller cannot take moves afterwards.
+   */
+  public void shutdown() {
+    this.gameThread.shutdown();
+    this.analyzer.shutdown();
+  }
+
+  /**
+   * Updates the view after the model has accepted a move. Only the cell that changed is
+   * recolored. Called on the game thread, so the changes are queued for the view.
+   *
+   * @param event the cell that changed and the resulting status of the game
+   */
+  @Override
+  public void moveMade(MoveEvent event) {
+    this.updates.cell(event.getRow(), event.getColumn(), event.getPlayer().toString());
+    this.updates.scores(null);
+    switch (event.getStatus()) {
+      case WON:
+        String winner = this.model.getWinner().toString();
+        this.updates.hint(view -> view.displayGameOver(winner));
+        this.updates.instruction(ConnectFourViewInterface::askPlayAgain);
+        break;
+      case DRAW:
+        this.updates.hint(view -> view.displayGameOver("It's a tie!"));
+        this.updates.instruction(ConnectFourViewInterface::askPlayAgain);
+        break;
+      default:
+        String turn = this.model.getTurn().toString();
+        this.updates.hint(view -> view.displayPlayerTurn(turn));
+        break;
+    }
+  }
+
+  /**
+   * Updates the view after the model has taken back a move. Only the cell that changed is
+   * recolored. Called on the game thread, so the changes are queued for the view.
+   *
+   * @param event the cell that was emptied and the resulting status of the game
+   */
+  @Override
+  public void moveUndone(MoveEvent event) {
+    this.updates.cell(event.getRow(), event.getColumn(), "null");
+    this.updates.scores(null);
+    // taking back a winning move makes the game go on
+    this.updates.resetLabels();
+    String turn = this.model.getTurn().toString();
+    this.updates.hint(view -> view.displayPlayerTurn(turn));
+  }
+
+  /**
+   * Empties the view after the model has cleared the board. Called on the game thread, so the
+   * changes are queued for the view.
+   */
+  @Override
+  public void boardReset() {
+    this.updates.clear();
+    this.updates.resetLabels();
+    this.updates.scores(null);
   }
 }
@@ -1,7 +1,7 @@
 package connect;
 
+import java.awt.Color;
 import java.awt.FlowLayout;
-import java.awt.GridLayout;
 import java.io.IOException;
 import java.util.Objects;
 import javax.swing.BoxLayout;
@@ -9,6 +9,7 @@ import javax.swing.JButton;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
+import javax.swing.JScrollPane;
 
 /**
  * Represents the view for the Connect Four game.
@@ -17,8 +18,10 @@ public class SwingConnectFourView extends JFrame implements ConnectFourViewInter
 
 
   private final JButton restartButton;
+  private final JButton undoButton;
   private final JButton exitButton;
-  private final JButton[][] buttons;
+  private final JButton hintButton;
+  private final BoardComponent board;
   private final JLabel hintLabel;
 
   private final JLabel instructionLabel;
@@ -53,30 +56,24 @@ public class SwingConnectFourView extends JFrame implements ConnectFourViewInter
     panel.add(panel1);
     panel.add(panel2);
 
-    //create 6*7 gird for the game board, each cell is a button
-    JPanel gameBoard = new JPanel();
-    gameBoard.setLayout(new GridLayout(6, 7));
-
-    // Create an array of JButtons
-    buttons = new JButton[6][7];
-
-    for (int row = 0; row < 6; row++) {
-      for (int col = 0; col < 7; col++) {
-        buttons[row][col] = new JButton("◉");
-        buttons[row][col].putClientProperty("col", col); // Set column data
-        buttons[row][col].putClientProperty("row", row); // Set row data
-        buttons[row][col].setActionCommand("Connect Four Button");
-        gameBoard.add(buttons[row][col]);
-      }
-    }
+    //create the game board, painted by a single component; it starts at 6*7 until the
+    // controller sizes it from the model, and scrolls when it does not fit the window
+    board = new BoardComponent(6, 7);
+    JScrollPane scrollPane = new JScrollPane(board);
+    panel.add(scrollPane);
 
+    // add the undo button, restart button and exit button
+    undoButton = new JButton("Undo");
+    undoButton.setActionCommand("Undo Button");
+    JPanel twoButtonPanel = new JPanel();
+    twoButtonPanel.add(undoButton);
 
-    panel.add(gameBoard);
+    hintButton = new JButton("Hint");
+    hintButton.setActionCommand("Hint Button");
+    twoButtonPanel.add(hintButton);
 
-    // add the restart button and exit button
     restartButton = new JButton("Restart"); // NOTE: No action listener
     restartButton.setActionCommand("Restart Button");
-    JPanel twoButtonPanel = new JPanel();
     twoButtonPanel.add(restartButton);
 
     exitButton = new JButton("Exit");
@@ -97,23 +94,24 @@ public class SwingConnectFourView extends JFrame implements ConnectFourViewInter
    * @param features the features to add
    */
   public void addFeatures(Features features) {
-    for (int row = 0; row < 6; row++) {
-      for (int col = 0; col < 7; col++) {
-        buttons[row][col].addActionListener(e -> {
-          JButton button = (JButton) e.getSource();
-          int column = (int) button.getClientProperty("col");
-          try {
-            features.makeMove(column);
-          } catch (IOException ex) {
-            throw new RuntimeException(ex);
-          }
-        });
+    board.setColumnListener(column -> {
+      try {
+        features.makeMove(column);
+      } catch (IOException ex) {
+        throw new RuntimeException(ex);
       }
-    }
+    });
 
     exitButton.addActionListener(e -> {
       features.exitGame();
     });
+    undoButton.addActionListener(e -> {
+      try {
+        features.undoMove();
+      } catch (IOException ex) {
+        throw new RuntimeException(ex);
+      }
+    });
     restartButton.addActionListener(e -> {
       try {
         features.restartGame();
@@ -121,6 +119,25 @@ public class SwingConnectFourView extends JFrame implements ConnectFourViewInter
         throw new RuntimeException(ex);
       }
     });
+    hintButton.addActionListener(e -> {
+      try {
+        features.requestHint();
+      } catch (IOException ex) {
+        throw new RuntimeException(ex);
+      }
+    });
+  }
+
+  /**
+   * Sizes the game board to the given number of rows and columns, emptying every cell.
+   *
+   * @param rows    the number of rows of the board
+   * @param columns the number of columns of the board
+   */
+  @Override
+  public void setBoardSize(int rows, int columns) {
+    board.setBoardSize(rows, columns);
+    pack();
   }
 
   /**
@@ -132,19 +149,14 @@ public class SwingConnectFourView extends JFrame implements ConnectFourViewInter
    */
   @Override
   public void updateButtonColor(int i, int j, String color) {
+    // only the rectangle of this cell is repainted
     if ("RED".equals(color)) {
-      buttons[i][j].setForeground(java.awt.Color.RED);
-      revalidate();
-      repaint();
+      board.setCell(i, j, Color.RED);
     } else {
       if ("YELLOW".equals(color)) {
-        buttons[i][j].setForeground(java.awt.Color.YELLOW);
-        revalidate();
-        repaint();
+        board.setCell(i, j, Color.YELLOW);
       } else {
-        buttons[i][j].setForeground(java.awt.Color.WHITE);
-        revalidate();
-        repaint();
+        board.setCell(i, j, Color.WHITE);
       }
     }
   }
@@ -154,13 +166,7 @@ public class SwingConnectFourView extends JFrame implements ConnectFourViewInter
    */
   @Override
   public void emptyBoard() {
-    for (int i = 0; i < 6; i++) {
-      for (int j = 0; j < 7; j++) {
-        buttons[i][j].setForeground(java.awt.Color.WHITE);
-        revalidate();
-        repaint();
-      }
-    }
+    board.clear();
   }
 
   /**
@@ -168,14 +174,7 @@ public class SwingConnectFourView extends JFrame implements ConnectFourViewInter
    */
   @Override
   public void startGame() {
-    for (int i = 0; i < 6; i++) {
-      for (int j = 0; j < 7; j++) {
-        buttons[i][j].setForeground(java.awt.Color.WHITE);
-        revalidate();
-        repaint();
-      }
-    }
-
+    board.clear();
   }
 
   /**
@@ -185,8 +184,17 @@ public class SwingConnectFourView extends JFrame implements ConnectFourViewInter
   public void resetLabel() {
     hintLabel.setText("Player RED's turn");
     instructionLabel.setText("Click a row when it is your turn.");
-    revalidate();
-    repaint();
+  }
+
+  /**
+   * Shows the score of every column over the board, as a hint for the player to move.
+   *
+   * @param scores the score of every column from 0 to 1, NaN for a full column, or null to hide
+   *               the hint
+   */
+  @Override
+  public void showHint(double[] scores) {
+    board.setHint(scores);
   }
 
   /**
@@ -208,8 +216,6 @@ public class SwingConnectFourView extends JFrame implements ConnectFourViewInter
   @Override
   public void displayPlayerTurn(String player) throws IOException {
     this.hintLabel.setText("Player " + player + "'s turn");
-    revalidate();
-    repaint();
 
   }
 
@@ -231,8 +237,6 @@ public class SwingConnectFourView extends JFrame implements ConnectFourViewInter
   @Override
   public void displayErrorMessage(String message) throws IOException {
     hintLabel.setText(message);
-    revalidate();
-    repaint();
 
   }
 
@@ -244,8 +248,6 @@ public class SwingConnectFourView extends JFrame implements ConnectFourViewInter
   @Override
   public void displayGameQuit(String gameState) throws IOException {
     hintLabel.setText("Game Quit! ");
-    revalidate();
-    repaint();
 
   }
 
@@ -258,13 +260,8 @@ public class SwingConnectFourView extends JFrame implements ConnectFourViewInter
   public void displayGameOver(String winner) throws IOException {
     if (Objects.equals(winner, "It's a tie!")) {
       hintLabel.setText("Game Over! It's a tie!");
-      revalidate();
-      repaint();
-
     } else {
       hintLabel.setText("Game Over! Winner is " + winner);
-      revalidate();
-      repaint();
     }
   }
 
@@ -274,7 +271,5 @@ public class SwingConnectFourView extends JFrame implements ConnectFourViewInter
   @Override
   public void askPlayAgain() throws IOException {
     instructionLabel.setText("Do you want to play again? Click Restart to play again.");
-    revalidate();
-    repaint();
   }
 }
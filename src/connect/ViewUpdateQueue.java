@@ -0,0 +1,180 @@
+package connect;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * The changes a controller wants to make to a view, collected from any thread and applied
+ * together on the thread of the view, e.g. the Swing event dispatch thread.
+ *
+ * <p>Changes are coalesced while they wait: a cell keeps only its last color, a label or the hint
+ * over the board only its last content, and clearing the board drops the cell changes made before
+ * it. Only one task is handed to the view's thread at a time, and it applies everything queued
+ * until it runs, so a burst of moves, e.g. a replay or two computer players, turns into one batch
+ * of changes and one repaint instead of one per move. While the view's thread is busy painting, the
+ * next batch simply grows, so the updates never come faster than the view can paint them.
+ */
+final class ViewUpdateQueue {
+
+  /**
+   * A change to one of the labels of the view.
+   */
+  interface LabelUpdate {
+
+    void apply(ConnectFourViewInterface view) throws IOException;
+  }
+
+  private final ConnectFourViewInterface view;
+  private final Executor viewThread;
+  private final Object lock = new Object();
+  private Map<Long, String> cells = new LinkedHashMap<>(); // the last color of changed cells
+  private Map<Long, String> spare = new LinkedHashMap<>(); // swapped with cells when applying
+  private boolean cleared;
+  private boolean labelsReset;
+  private LabelUpdate hint;
+  private LabelUpdate instruction;
+  private boolean scoresChanged;
+  private double[] scores;
+  private boolean scheduled;
+
+  /**
+   * Constructor for the ViewUpdateQueue class.
+   *
+   * @param view       the view to update
+   * @param viewThread runs tasks on the thread of the view, e.g.
+   *                   {@link javax.swing.SwingUtilities#invokeLater(Runnable)}
+   */
+  ViewUpdateQueue(ConnectFourViewInterface view, Executor viewThread) {
+    this.view = view;
+    this.viewThread = viewThread;
+  }
+
+  /**
+   * Colors a cell.
+   */
+  void cell(int row, int column, String color) {
+    synchronized (lock) {
+      cells.put(((long) row << 32) | column, color);
+      schedule();
+    }
+  }
+
+  /**
+   * Empties the board, dropping the cell changes that are still waiting.
+   */
+  void clear() {
+    synchronized (lock) {
+      cells.clear();
+      cleared = true;
+      schedule();
+    }
+  }
+
+  /**
+   * Resets both labels, dropping the label changes that are still waiting.
+   */
+  void resetLabels() {
+    synchronized (lock) {
+      labelsReset = true;
+      hint = null;
+      instruction = null;
+      schedule();
+    }
+  }
+
+  /**
+   * Changes the label that shows the turn, the result or an error.
+   */
+  void hint(LabelUpdate update) {
+    synchronized (lock) {
+      hint = update;
+      schedule();
+    }
+  }
+
+  /**
+   * Changes the label that tells the user what to do.
+   */
+  void instruction(LabelUpdate update) {
+    synchronized (lock) {
+      instruction = update;
+      schedule();
+    }
+  }
+
+  /**
+   * Shows the scores of the columns over the board, or hides them if the scores are null.
+   */
+  void scores(double[] scores) {
+    synchronized (lock) {
+      this.scores = scores;
+      scoresChanged = true;
+      schedule();
+    }
+  }
+
+  private void schedule() {
+    if (!scheduled) {
+      scheduled = true;
+      viewThread.execute(this::apply);
+    }
+  }
+
+  /**
+   * Applies every change queued so far, on the thread of the view.
+   */
+  private void apply() {
+    Map<Long, String> changed;
+    boolean clear;
+    boolean reset;
+    LabelUpdate hint;
+    LabelUpdate instruction;
+    boolean rescored;
+    double[] scores;
+    synchronized (lock) {
+      changed = this.cells;
+      this.cells = this.spare;
+      this.spare = changed;
+      clear = this.cleared;
+      reset = this.labelsReset;
+      hint = this.hint;
+      instruction = this.instruction;
+      rescored = this.scoresChanged;
+      scores = this.scores;
+      this.cleared = false;
+      this.labelsReset = false;
+      this.hint = null;
+      this.instruction = null;
+      this.scoresChanged = false;
+      this.scores = null;
+      this.scheduled = false;
+    }
+    // the spare map is only touched again by the next apply, which runs after this one
+    if (clear) {
+      view.emptyBoard();
+    }
+    for (Map.Entry<Long, String> cell : changed.entrySet()) {
+      long key = cell.getKey();
+      view.updateButtonColor((int) (key >>> 32), (int) key, cell.getValue());
+    }
+    changed.clear();
+    if (rescored) {
+      view.showHint(scores);
+    }
+    try {
+      if (reset) {
+        view.resetLabel();
+      }
+      if (hint != null) {
+        hint.apply(view);
+      }
+      if (instruction != null) {
+        instruction.apply(view);
+      }
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+}
@@ -0,0 +1,41 @@
+package connect;
+
+/**
+ * Zobrist keys for Connect Four positions. The key of a position is the XOR of one random-looking
+ * 64-bit number per disc, so it can be updated in constant time when a disc is added or removed.
+ *
+ * <p>The numbers are not drawn from a random generator but computed from the cell and the
+ * player with a fixed mixing function, so that keys are the same in every JVM run (and can be
+ * stored) and no table has to be allocated for each board size.
+ */
+final class Zobrist {
+
+  private Zobrist() {
+    // static helpers only
+  }
+
+  /**
+   * Retrieves the number for a disc of the given player in the given cell.
+   *
+   * <p>The cell is counted from the bottom of the board, so a disc has the same number on boards
+   * with different numbers of rows.
+   *
+   * @param player the player who owns the disc
+   * @param height the height of the disc in its column, 0 for the bottom cell
+   * @param column the column of the disc
+   * @return the number to XOR into the key of the position
+   */
+  static long key(Player player, int height, int column) {
+    long cell = ((long) height << 32) | (column & 0xFFFFFFFFL);
+    return mix(cell * 2 + player.ordinal() + 0x9E3779B97F4A7C15L);
+  }
+
+  /**
+   * The SplitMix64 finalizer.
+   */
+  private static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+}
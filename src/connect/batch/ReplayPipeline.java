@@ -0,0 +1,250 @@
+package connect.batch;
+
+import connect.ConnectFourModel;
+import connect.ConnectFourModels;
+import connect.Player;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Replays files of games given as move strings, one game per line, checks every move against the
+ * rules and writes the outcome of every game, one line per game in the same order.
+ *
+ * <p>A move string lists the columns from 1, e.g. {@code "4453"}. On boards with more than 9
+ * columns the columns are separated by commas, e.g. {@code "10,4,12"}. The outcome line is one
+ * of {@code RED}, {@code YELLOW}, {@code DRAW} or {@code UNFINISHED} followed by the number of
+ * moves, or {@code INVALID} followed by the number of the first bad move and the reason.
+ *
+ * <p>The lines are read in batches, and the batches are replayed on a pool of threads, each with
+ * a model of its own. The calling thread reads the input and writes the outcomes of the batches
+ * in the order they were read, and never lets more than a fixed number of batches be in flight,
+ * so the memory used does not depend on the size of the file.
+ */
+public class ReplayPipeline {
+
+  /**
+   * The default number of games per batch.
+   */
+  public static final int DEFAULT_BATCH_SIZE = 4096;
+
+  private final int rows;
+  private final int columns;
+  private final int threads;
+  private final int batchSize;
+  private final ThreadLocal<ConnectFourModel> models;
+
+  /**
+   * Constructor for the ReplayPipeline class.
+   *
+   * @param rows      the number of rows of the board of every game (must be at least 4)
+   * @param columns   the number of columns of the board of every game (must be at least 4)
+   * @param threads   the number of threads to replay the games on, at least 1
+   * @param batchSize the number of games per batch, at least 1
+   * @throws IllegalArgumentException if the board is too small, or the number of threads or the
+   *                                  batch size is less than 1
+   */
+  public ReplayPipeline(int rows, int columns, int threads, int batchSize)
+      throws IllegalArgumentException {
+    if (rows < 4 || columns < 4) {
+      throw new IllegalArgumentException("The number of rows and columns must be at least 4");
+    }
+    if (threads < 1 || batchSize < 1) {
+      throw new IllegalArgumentException("The number of threads and the batch size must be "
+          + "at least 1");
+    }
+    this.rows = rows;
+    this.columns = columns;
+    this.threads = threads;
+    this.batchSize = batchSize;
+    this.models = ThreadLocal.withInitial(() -> ConnectFourModels.create(rows, columns));
+  }
+
+  /**
+   * Replays every game of the input and writes their outcomes. Neither stream is closed.
+   *
+   * @param in  the move strings, one game per line
+   * @param out where to write the outcomes, one line per game
+   * @return the number of games with each outcome
+   * @throws IOException          if the input cannot be read or the output cannot be written
+   * @throws InterruptedException if the calling thread is interrupted while waiting
+   */
+  public ReplaySummary run(Reader in, Writer out) throws IOException, InterruptedException {
+    long start = System.nanoTime();
+    BufferedReader reader = in instanceof BufferedReader
+        ? (BufferedReader) in : new BufferedReader(in, 1 << 16);
+    ReplaySummary summary = new ReplaySummary();
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    // a few batches per thread keep every thread busy while the oldest batch is written
+    int maxPending = 2 * threads + 1;
+    Deque<Future<Batch>> pending = new ArrayDeque<>();
+    try {
+      String[] lines;
+      while ((lines = readBatch(reader)) != null) {
+        if (pending.size() == maxPending) {
+          write(pending.removeFirst(), out, summary);
+        }
+        String[] batch = lines;
+        pending.addLast(executor.submit(() -> replay(batch)));
+      }
+      while (!pending.isEmpty()) {
+        write(pending.removeFirst(), out, summary);
+      }
+      out.flush();
+    } finally {
+      executor.shutdownNow();
+    }
+    summary.setElapsedNanos(System.nanoTime() - start);
+    return summary;
+  }
+
+  private String[] readBatch(BufferedReader reader) throws IOException {
+    String[] lines = new String[batchSize];
+    int count = 0;
+    String line;
+    while (count < batchSize && (line = reader.readLine()) != null) {
+      lines[count++] = line;
+    }
+    if (count == 0) {
+      return null;
+    }
+    return count == batchSize ? lines : Arrays.copyOf(lines, count);
+  }
+
+  private static void write(Future<Batch> future, Writer out, ReplaySummary summary)
+      throws IOException, InterruptedException {
+    Batch batch;
+    try {
+      batch = future.get();
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("A replay thread failed", e.getCause());
+    }
+    out.write(batch.output.toString());
+    summary.merge(batch.summary);
+  }
+
+  /**
+   * Replays a batch of games on the model of the calling thread.
+   */
+  private Batch replay(String[] lines) {
+    ConnectFourModel model = models.get();
+    Batch batch = new Batch(lines.length);
+    for (String line : lines) {
+      replay(model, line.trim(), batch);
+    }
+    return batch;
+  }
+
+  /**
+   * Replays a single game and appends its outcome to the batch.
+   */
+  private void replay(ConnectFourModel model, String moves, Batch batch) {
+    model.resetBoard();
+    StringBuilder output = batch.output;
+    boolean separated = columns > 9;
+    int count = 0;
+    int i = 0;
+    while (i < moves.length()) {
+      int column = 0;
+      int digits = 0;
+      while (i < moves.length() && Character.isDigit(moves.charAt(i))
+          && (separated || digits == 0)) {
+        column = 10 * column + (moves.charAt(i) - '0');
+        digits++;
+        i++;
+      }
+      count++;
+      String error = null;
+      if (digits == 0 || digits > 9) {
+        error = "Not a column";
+      } else if (separated && i < moves.length() && moves.charAt(i++) != ',') {
+        error = "Not a column";
+      } else if (model.isGameOver()) {
+        error = "The game is already over";
+      } else {
+        try {
+          model.makeMove(column - 1);
+        } catch (IllegalArgumentException e) {
+          error = e.getMessage();
+        }
+      }
+      if (error != null) {
+        output.append("INVALID ").append(count).append(' ').append(error).append('\n');
+        batch.summary.invalid++;
+        return;
+      }
+    }
+
+    Player winner = model.getWinner();
+    if (winner == Player.RED) {
+      output.append("RED ");
+      batch.summary.redWins++;
+    } else if (winner == Player.YELLOW) {
+      output.append("YELLOW ");
+      batch.summary.yellowWins++;
+    } else if (model.isGameOver()) {
+      output.append("DRAW ");
+      batch.summary.draws++;
+    } else {
+      output.append("UNFINISHED ");
+      batch.summary.unfinished++;
+    }
+    output.append(count).append('\n');
+  }
+
+  /**
+   * The outcomes of a batch of games.
+   */
+  private static final class Batch {
+
+    private final StringBuilder output;
+    private final ReplaySummary summary = new ReplaySummary();
+
+    Batch(int games) {
+      this.output = new StringBuilder(games * 8);
+    }
+  }
+
+  /**
+   * Replays a file of move strings and writes the outcomes.
+   *
+   * @param args the input file, the output file ("-" for standard output), the number of rows
+   *             and columns (default 6 and 7) and the number of threads (default: one per
+   *             processor)
+   * @throws IOException          if a file cannot be read or written
+   * @throws InterruptedException if the replay is interrupted
+   */
+  public static void main(String[] args) throws IOException, InterruptedException {
+    if (args.length < 2) {
+      System.err.println("Usage: ReplayPipeline <input> <output|-> [rows] [columns] [threads]");
+      return;
+    }
+    int rows = args.length > 2 ? Integer.parseInt(args[2]) : 6;
+    int columns = args.length > 3 ? Integer.parseInt(args[3]) : 7;
+    int threads = args.length > 4 ? Integer.parseInt(args[4])
+        : Runtime.getRuntime().availableProcessors();
+    ReplayPipeline pipeline = new ReplayPipeline(rows, columns, threads, DEFAULT_BATCH_SIZE);
+    Path input = Paths.get(args[0]);
+    try (Reader in = Files.newBufferedReader(input, StandardCharsets.UTF_8);
+        Writer out = args[1].equals("-")
+            ? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))
+            : Files.newBufferedWriter(Paths.get(args[1]), StandardCharsets.UTF_8)) {
+      ReplaySummary summary = pipeline.run(in, out);
+      System.err.println(summary);
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package connect.batch;
+
+/**
+ * The number of games with each outcome in a replayed file. A single instance is not
+ * thread-safe: every batch is counted on its own and the counts are merged in order.
+ */
+public final class ReplaySummary {
+
+  long redWins;
+  long yellowWins;
+  long draws;
+  long unfinished;
+  long invalid;
+  private long elapsedNanos;
+
+  void merge(ReplaySummary other) {
+    redWins += other.redWins;
+    yellowWins += other.yellowWins;
+    draws += other.draws;
+    unfinished += other.unfinished;
+    invalid += other.invalid;
+  }
+
+  void setElapsedNanos(long elapsedNanos) {
+    this.elapsedNanos = elapsedNanos;
+  }
+
+  public long getGames() {
+    return redWins + yellowWins + draws + unfinished + invalid;
+  }
+
+  public long getRedWins() {
+    return redWins;
+  }
+
+  public long getYellowWins() {
+    return yellowWins;
+  }
+
+  public long getDraws() {
+    return draws;
+  }
+
+  public long getUnfinished() {
+    return unfinished;
+  }
+
+  public long getInvalid() {
+    return invalid;
+  }
+
+  public long getElapsedNanos() {
+    return elapsedNanos;
+  }
+
+  /**
+   * Retrieves the replay speed.
+   *
+   * @return the number of games replayed per second
+   */
+  public double getGamesPerSecond() {
+    return elapsedNanos == 0 ? 0 : getGames() * 1e9 / elapsedNanos;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%d games in %.3f s (%.0f games/s): RED %d, YELLOW %d, DRAW %d, "
+            + "UNFINISHED %d, INVALID %d", getGames(), elapsedNanos / 1e9, getGamesPerSecond(),
+        redWins, yellowWins, draws, unfinished, invalid);
+  }
+}
@@ -0,0 +1,102 @@
+package connect.engine;
+
+/**
+ * The scores of every column of a position, as computed by a {@link HintAnalyzer}.
+ */
+public final class Hint {
+
+  private final double[] scores;
+  private final int column;
+  private final long[] playouts;
+  private final long elapsedNanos;
+
+  /**
+   * Constructor for the Hint class.
+   *
+   * @param scores       the score of every column, from 0 to 1, or NaN for a column that was
+   *                     not scored
+   * @param playouts     the number of playouts of every column
+   * @param elapsedNanos the time the analysis took, in nanoseconds
+   * @throws IllegalArgumentException if there are not as many playout counts as scores
+   */
+  public Hint(double[] scores, long[] playouts, long elapsedNanos)
+      throws IllegalArgumentException {
+    if (playouts.length != scores.length) {
+      throw new IllegalArgumentException("There must be as many playout counts as scores");
+    }
+    this.scores = scores.clone();
+    int best = -1;
+    for (int j = 0; j < scores.length; j++) {
+      if (!Double.isNaN(scores[j]) && (best < 0 || scores[j] > scores[best])) {
+        best = j;
+      }
+    }
+    this.column = best;
+    this.playouts = playouts.clone();
+    this.elapsedNanos = elapsedNanos;
+  }
+
+  /**
+   * Retrieves the score of every column: the estimated chance that the player to move wins
+   * after playing it, counting draws as half a win.
+   *
+   * @return the scores in the order of the columns, from 0 to 1, or NaN for a full column or a
+   *         column that got no playout before the deadline
+   */
+  public double[] getScores() {
+    return scores.clone();
+  }
+
+  /**
+   * Retrieves the column with the highest score.
+   *
+   * @return the best column, or -1 if no column was scored
+   */
+  public int getColumn() {
+    return column;
+  }
+
+  /**
+   * Retrieves the number of playouts, summed over all columns.
+   *
+   * @return the number of playouts
+   */
+  public long getPlayouts() {
+    long total = 0;
+    for (long count : playouts) {
+      total += count;
+    }
+    return total;
+  }
+
+  /**
+   * Retrieves the number of playouts behind the score of a column. A column that wins or loses
+   * right away is scored without any, and a score from few playouts is little more than a
+   * guess.
+   *
+   * @param column the column
+   * @return the number of playouts of the column
+   */
+  public long getPlayouts(int column) {
+    return playouts[column];
+  }
+
+  /**
+   * Retrieves the time the analysis took.
+   *
+   * @return the elapsed time in nanoseconds
+   */
+  public long getElapsedNanos() {
+    return elapsedNanos;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder string = new StringBuilder("Scores:");
+    for (double score : scores) {
+      string.append(Double.isNaN(score) ? " -" : String.format(" %.2f", score));
+    }
+    return string + String.format("%nBest column: %d, %d playouts in %.1f ms", column + 1,
+        getPlayouts(), elapsedNanos / 1e6);
+  }
+}
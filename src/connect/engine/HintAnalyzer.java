@@ -0,0 +1,301 @@
+package connect.engine;
+
+import connect.ConnectFourModel;
+import connect.ConnectFourModels;
+import connect.Player;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Scores every legal column of a position at once, to hint the player to move at a good one.
+ * Every column is scored by its own tasks on a {@link ForkJoinPool}, so the columns are searched
+ * in parallel and a hint takes about as long as scoring one column, not one per column. The
+ * budget is handed out in slices, round after round, so the columns share it fairly even when
+ * there are fewer threads than columns.
+ *
+ * <p>A column is scored by playing it on a copy of the model and running random playouts from
+ * there until the deadline: the score is the share of the playouts won by the player to move,
+ * where a draw counts as half a win. A column that wins right away scores 1, and on boards of up
+ * to 64 columns, a column that lets the opponent win right away scores 0, whatever the
+ * playouts say. The deadline is hard: a playout still going at the deadline is dropped, and a
+ * column that got no playout in time, e.g. because the pool was busy with other hints, is not
+ * scored. The number of playouts of every column is in the {@link Hint}, so callers can tell a
+ * score from a guess.
+ *
+ * <p>Boards of more than {@value #MAX_CELLS} cells are refused, since a single random playout
+ * on them may take longer than any useful budget.
+ *
+ * <p>An analyzer is thread-safe: any number of hints can be computed at once, sharing the
+ * threads of the pool. Call {@link #shutdown()} when it is no longer needed.
+ */
+public class HintAnalyzer {
+
+  /**
+   * The largest number of cells of a board that can be analyzed, e.g. 64 by 64.
+   */
+  public static final int MAX_CELLS = 64 * 64;
+
+  private static final int MAX_TACTICAL_COLUMNS = 64;
+  private static final int MOVES_PER_CLOCK_CHECK = 256;
+  private static final int SLICES = 16;
+  private static final long MIN_SLICE_NANOS = 1_000_000;
+
+  private final ForkJoinPool pool;
+  private final SplittableRandom seeds;
+
+  /**
+   * Creates an analyzer with one thread per available processor.
+   */
+  public HintAnalyzer() {
+    this(Runtime.getRuntime().availableProcessors(), System.nanoTime());
+  }
+
+  /**
+   * Creates an analyzer with the given number of threads.
+   *
+   * @param threads the number of threads of the pool, at least 1
+   * @param seed    the seed of the random playouts
+   * @throws IllegalArgumentException if the number of threads is less than 1
+   */
+  public HintAnalyzer(int threads, long seed) throws IllegalArgumentException {
+    if (threads < 1) {
+      throw new IllegalArgumentException("There must be at least one thread");
+    }
+    this.pool = new ForkJoinPool(threads);
+    this.seeds = new SplittableRandom(seed);
+  }
+
+  /**
+   * Scores every column of the current position of a model, waiting for the result. The model
+   * is only read, and only on the calling thread.
+   *
+   * @param model        the model holding the position to analyze
+   * @param budgetMillis the time to analyze for, in milliseconds
+   * @return the scores of the columns
+   * @throws IllegalArgumentException if the game is over, or the board has more than
+   *                                  {@link #MAX_CELLS} cells
+   */
+  public Hint analyze(ConnectFourModel model, long budgetMillis)
+      throws IllegalArgumentException {
+    return pool.invoke(task(model, budgetMillis));
+  }
+
+  /**
+   * Starts scoring every column of the current position of a model, without waiting. The model
+   * is only read, and only on the calling thread, before this method returns, so the caller may
+   * change it right away.
+   *
+   * @param model        the model holding the position to analyze
+   * @param budgetMillis the time to analyze for, in milliseconds
+   * @return the scores of the columns, once they are computed
+   * @throws IllegalArgumentException if the game is over, or the board has more than
+   *                                  {@link #MAX_CELLS} cells
+   */
+  public CompletableFuture<Hint> analyzeAsync(ConnectFourModel model, long budgetMillis)
+      throws IllegalArgumentException {
+    Analysis analysis = task(model, budgetMillis);
+    return CompletableFuture.supplyAsync(() -> pool.invoke(analysis), pool);
+  }
+
+  /**
+   * Copies the model once per legal column, so that the tasks never touch the caller's model.
+   */
+  private Analysis task(ConnectFourModel model, long budgetMillis) {
+    if (model.isGameOver()) {
+      throw new IllegalArgumentException("The game is over");
+    }
+    if ((long) model.getBoardView().getRows() * model.getBoardView().getColumns() > MAX_CELLS) {
+      throw new IllegalArgumentException("The board is too large for hints");
+    }
+    long start = System.nanoTime();
+    long deadline = start + budgetMillis * 1_000_000L;
+    int columns = model.getBoardView().getColumns();
+    List<Column> tasks = new ArrayList<>();
+    synchronized (seeds) {
+      for (int j = 0; j < columns; j++) {
+        if (model.isLegalMove(j)) {
+          tasks.add(new Column(ConnectFourModels.copyOf(model), j, deadline, seeds.split()));
+        }
+      }
+    }
+    return new Analysis(tasks, columns, start, deadline);
+  }
+
+  /**
+   * Stops the threads of the pool. The analyzer cannot be used afterwards.
+   */
+  public void shutdown() {
+    pool.shutdownNow();
+  }
+
+  /**
+   * Scores the columns in rounds, with one task per column in every round, and gathers their
+   * scores. Every task plays for a slice of the budget only, so that the columns share the
+   * budget fairly even when there are fewer threads than columns.
+   */
+  private static final class Analysis extends RecursiveTask<Hint> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient List<Column> tasks;
+    private final int columns;
+    private final long start;
+    private final long deadline;
+
+    Analysis(List<Column> tasks, int columns, long start, long deadline) {
+      this.tasks = tasks;
+      this.columns = columns;
+      this.start = start;
+      this.deadline = deadline;
+    }
+
+    @Override
+    protected Hint compute() {
+      long slice = Math.max(MIN_SLICE_NANOS, (deadline - start) / SLICES);
+      List<ForkJoinTask<?>> round = new ArrayList<>();
+      do {
+        round.clear();
+        for (Column column : tasks) {
+          if (!column.exact) {
+            round.add(ForkJoinTask.adapt(() -> column.play(slice)));
+          }
+        }
+        invokeAll(round);
+      } while (!round.isEmpty() && System.nanoTime() - deadline < 0);
+      long elapsedNanos = System.nanoTime() - start;
+      double[] scores = new double[columns];
+      Arrays.fill(scores, Double.NaN);
+      long[] playouts = new long[columns];
+      for (Column column : tasks) {
+        scores[column.column] = column.score();
+        playouts[column.column] = column.playouts;
+      }
+      return new Hint(scores, playouts, elapsedNanos);
+    }
+  }
+
+  /**
+   * The score of one column so far, on its own copy of the model.
+   */
+  private static final class Column {
+
+    private final ConnectFourModel model;
+    private final int column;
+    private final long deadline;
+    private final SplittableRandom random;
+    private Player mover; // the player to move, once the column is played
+    private boolean exact; // scored without playouts, so it needs no more
+    private double wins;
+    private long playouts;
+
+    Column(ConnectFourModel model, int column, long deadline, SplittableRandom random) {
+      this.model = model;
+      this.column = column;
+      this.deadline = deadline;
+      this.random = random;
+    }
+
+    double score() {
+      return playouts == 0 && !exact ? Double.NaN : wins / Math.max(1, playouts);
+    }
+
+    /**
+     * Runs playouts for a slice of time, but never past the deadline. The first slice plays
+     * the column, and scores it right away if it wins or loses at once.
+     */
+    void play(long slice) {
+      if (mover == null) {
+        mover = model.getTurn();
+        model.makeMove(column);
+        if (model.isGameOver()) {
+          exact = true;
+          wins = model.getWinner() == mover ? 1 : 0.5;
+          return;
+        }
+        if (opponentWinsNext()) {
+          exact = true;
+          return;
+        }
+      }
+      long until = System.nanoTime() + slice;
+      if (until - deadline > 0) {
+        until = deadline;
+      }
+      int columns = model.getBoardView().getColumns();
+      boolean late = false;
+      while (!late && System.nanoTime() - until < 0) {
+        int moves = 0;
+        while (!model.isGameOver()) {
+          int j = random.nextInt(columns);
+          if (model.isLegalMove(j)) {
+            model.makeMove(j);
+            moves++;
+            if (moves % MOVES_PER_CLOCK_CHECK == 0 && System.nanoTime() - deadline >= 0) {
+              // the playout is dropped, the deadline is hard
+              late = true;
+              break;
+            }
+          }
+        }
+        if (!late) {
+          Player winner = model.getWinner();
+          wins += winner == null ? 0.5 : winner == mover ? 1 : 0;
+          playouts++;
+        }
+        for (int i = 0; i < moves; i++) {
+          model.undoMove();
+        }
+      }
+    }
+
+    /**
+     * Checks whether the opponent can win with its next move, on boards small enough for the
+     * check to be cheap.
+     */
+    private boolean opponentWinsNext() {
+      int columns = model.getBoardView().getColumns();
+      if (columns > MAX_TACTICAL_COLUMNS) {
+        return false;
+      }
+      for (int j = 0; j < columns; j++) {
+        if (model.isLegalMove(j)) {
+          model.makeMove(j);
+          boolean wins = model.getWinner() != null;
+          model.undoMove();
+          if (wins) {
+            return true;
+          }
+        }
+      }
+      return false;
+    }
+  }
+
+  /**
+   * Analyzes a position and prints the score of every column.
+   *
+   * @param args the time to analyze for in milliseconds (default 200), the number of rows and
+   *             columns (default 6 and 7), and optionally the moves leading to the position, as
+   *             column numbers from 1 separated by commas (e.g. "4,4,5,3")
+   */
+  public static void main(String[] args) {
+    long budget = args.length > 0 ? Long.parseLong(args[0]) : 200;
+    int rows = args.length > 1 ? Integer.parseInt(args[1]) : 6;
+    int columns = args.length > 2 ? Integer.parseInt(args[2]) : 7;
+    ConnectFourModel model = ConnectFourModels.create(rows, columns);
+    if (args.length > 3) {
+      for (String move : args[3].split(",")) {
+        model.makeMove(Integer.parseInt(move.trim()) - 1);
+      }
+    }
+    HintAnalyzer analyzer = new HintAnalyzer();
+    System.out.println(analyzer.analyze(model, budget));
+    analyzer.shutdown();
+  }
+}
@@ -0,0 +1,139 @@
+package connect.engine;
+
+import connect.BitboardConnectFourModel;
+import connect.ConnectFourModel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A Connect Four engine that solves a position with several threads in the Lazy SMP style.
+ *
+ * <p>Every thread runs the complete search of a {@link Solver} on the same position, and all of
+ * them share one lock-free {@link TranspositionTable}. The threads do not split the work
+ * between them. Instead, the helper threads try the columns in different orders, so they fill
+ * the table with results that the other threads then find instead of searching. The first thread
+ * to finish gives the answer and the others are stopped.
+ *
+ * <p>The threads are created once and reused for every search. Call {@link #shutdown()} when the
+ * solver is no longer needed.
+ */
+public class LazySmpSolver {
+
+  private final int threads;
+  private final TranspositionTable table;
+  private final ExecutorService executor;
+
+  /**
+   * Creates a solver with one thread per available processor and the default transposition
+   * table size.
+   */
+  public LazySmpSolver() {
+    this(Runtime.getRuntime().availableProcessors(), Solver.DEFAULT_TABLE_BITS);
+  }
+
+  /**
+   * Creates a solver with the given number of threads and a shared transposition table of
+   * {@code 2^tableBits} entries.
+   *
+   * @param threads   the number of search threads, at least 1
+   * @param tableBits the base-2 logarithm of the number of table entries, from 8 to 30
+   * @throws IllegalArgumentException if the number of threads or the table size is out of range
+   */
+  public LazySmpSolver(int threads, int tableBits) throws IllegalArgumentException {
+    if (threads < 1) {
+      throw new IllegalArgumentException("There must be at least one search thread");
+    }
+    this.threads = threads;
+    this.table = new TranspositionTable(tableBits);
+    this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+      Thread thread = new Thread(runnable, "lazy-smp-search");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Solves the current position of a model. The model is only read, never changed.
+   *
+   * @param model the model holding the position to solve
+   * @return the best column, the exact score and the number of nodes each thread visited
+   * @throws IllegalArgumentException if the game is over or the board does not fit in 64 bits
+   * @throws InterruptedException     if the calling thread is interrupted while waiting
+   */
+  public SearchResult solve(ConnectFourModel model)
+      throws IllegalArgumentException, InterruptedException {
+    Position root = Position.of(model);
+    long start = System.nanoTime();
+    AtomicBoolean stop = new AtomicBoolean();
+    List<Solver> solvers = new ArrayList<>();
+    ExecutorCompletionService<Integer> completion = new ExecutorCompletionService<>(executor);
+    List<Future<Integer>> futures = new ArrayList<>();
+    for (int i = 0; i < threads; i++) {
+      Solver solver = new Solver(table, i, stop);
+      solvers.add(solver);
+      Position position = new Position(root);
+      futures.add(completion.submit(() -> solver.score(position)));
+    }
+
+    int score;
+    int finished;
+    try {
+      Future<Integer> first = completion.take();
+      score = first.get();
+      finished = futures.indexOf(first);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("The search failed", e.getCause());
+    } finally {
+      stop.set(true);
+      for (int i = 0; i < threads - 1; i++) {
+        completion.take(); // wait for the other threads to notice the stop flag
+      }
+    }
+
+    long[] threadNodes = new long[threads];
+    for (int i = 0; i < threads; i++) {
+      threadNodes[i] = solvers.get(i).nodes();
+    }
+    // the table now holds the whole tree, so finding the best column is cheap
+    Solver columnSolver = new Solver(table, 0, null);
+    int column = columnSolver.bestColumn(new Position(root), score);
+    threadNodes[finished] += columnSolver.nodes();
+    return new SearchResult(column, score, threadNodes, System.nanoTime() - start);
+  }
+
+  /**
+   * Stops the search threads. The solver cannot be used afterwards.
+   */
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Solves a 6 * 7 position with every available processor and prints the best column and the
+   * number of nodes each thread searched.
+   *
+   * @param args optionally, the moves leading to the position, as digits from 1 to 7
+   *             (e.g. "4453"); the empty board is solved if there are none
+   * @throws InterruptedException if the search is interrupted
+   */
+  public static void main(String[] args) throws InterruptedException {
+    ConnectFourModel model = new BitboardConnectFourModel(6, 7);
+    if (args.length > 0) {
+      for (char c : args[0].toCharArray()) {
+        model.makeMove(c - '1');
+      }
+    }
+    LazySmpSolver solver = new LazySmpSolver();
+    SearchResult result = solver.solve(model);
+    solver.shutdown();
+    System.out.println("Best move: column " + (result.getColumn() + 1)
+        + " (score " + result.getScore() + ")");
+    System.out.println(result);
+  }
+}
@@ -0,0 +1,264 @@
+package connect.engine;
+
+import connect.ConnectFourModel;
+import connect.ConnectFourModels;
+import connect.Player;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A Connect Four computer player that picks its moves by Monte Carlo tree search with UCT
+ * selection. Unlike the {@link Solver}, it works on boards of any size and plays better the
+ * more time and processors it gets.
+ *
+ * <p>The search is parallelized at the root: every thread grows its own tree from its own copy
+ * of the model, with its own random numbers, so the threads share nothing while they search.
+ * At the end the playouts of every column are summed over the threads, and the column tried
+ * most often is chosen. The trees are stored in {@link MctsTree} arenas that are kept between
+ * searches.
+ *
+ * <p>The threads are created once and reused for every search. Call {@link #shutdown()} when the
+ * player is no longer needed. A player runs one search at a time.
+ */
+public class MctsPlayer {
+
+  /**
+   * The default largest number of tree nodes per thread, about 80 MB.
+   */
+  public static final int DEFAULT_MAX_NODES = 1 << 22;
+  private static final double EXPLORATION = 1.4;
+
+  private final int threads;
+  private final MctsTree[] trees;
+  private final ExecutorService executor;
+  private final SplittableRandom seeds;
+
+  /**
+   * Creates a player with one search thread per available processor and the default tree size.
+   */
+  public MctsPlayer() {
+    this(Runtime.getRuntime().availableProcessors(), DEFAULT_MAX_NODES, System.nanoTime());
+  }
+
+  /**
+   * Creates a player with the given number of search threads.
+   *
+   * @param threads  the number of search threads, at least 1
+   * @param maxNodes the largest number of tree nodes of each thread, at least 1
+   * @param seed     the seed of the random playouts
+   * @throws IllegalArgumentException if the number of threads or nodes is less than 1
+   */
+  public MctsPlayer(int threads, int maxNodes, long seed) throws IllegalArgumentException {
+    if (threads < 1) {
+      throw new IllegalArgumentException("There must be at least one search thread");
+    }
+    if (maxNodes < 1) {
+      throw new IllegalArgumentException("The tree must have room for at least one node");
+    }
+    this.threads = threads;
+    this.trees = new MctsTree[threads];
+    for (int i = 0; i < threads; i++) {
+      this.trees[i] = new MctsTree(maxNodes);
+    }
+    this.seeds = new SplittableRandom(seed);
+    this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+      Thread thread = new Thread(runnable, "mcts-search");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Searches the current position of a model for the given time. The model is only read, never
+   * changed.
+   *
+   * @param model        the model holding the position to search
+   * @param budgetMillis the time to search for, in milliseconds
+   * @return the chosen column and the statistics of the search
+   * @throws IllegalArgumentException if the game is over
+   * @throws InterruptedException     if the calling thread is interrupted while waiting
+   */
+  public MctsResult search(ConnectFourModel model, long budgetMillis)
+      throws IllegalArgumentException, InterruptedException {
+    return search(model, budgetMillis, Long.MAX_VALUE);
+  }
+
+  /**
+   * Searches the current position of a model until the time is up or every thread has run the
+   * given number of playouts, whichever comes first. The model is only read, never changed.
+   *
+   * @param model        the model holding the position to search
+   * @param budgetMillis the time to search for, in milliseconds
+   * @param maxPlayouts  the largest number of playouts of each thread
+   * @return the chosen column and the statistics of the search
+   * @throws IllegalArgumentException if the game is over
+   * @throws InterruptedException     if the calling thread is interrupted while waiting
+   */
+  public MctsResult search(ConnectFourModel model, long budgetMillis, long maxPlayouts)
+      throws IllegalArgumentException, InterruptedException {
+    if (model.isGameOver()) {
+      throw new IllegalArgumentException("The game is over");
+    }
+    long start = System.nanoTime();
+    long deadline = start + budgetMillis * 1_000_000L;
+    List<Future<Long>> futures = new ArrayList<>();
+    for (int i = 0; i < threads; i++) {
+      Search search = new Search(trees[i], ConnectFourModels.copyOf(model), seeds.split());
+      futures.add(executor.submit(() -> search.run(deadline, maxPlayouts)));
+    }
+    long[] threadPlayouts = new long[threads];
+    try {
+      for (int i = 0; i < threads; i++) {
+        threadPlayouts[i] = futures.get(i).get();
+      }
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("The search failed", e.getCause());
+    } finally {
+      for (Future<Long> future : futures) {
+        future.cancel(true);
+      }
+    }
+
+    int columns = model.getBoardView().getColumns();
+    long[] columnVisits = new long[columns];
+    double[] columnWins = new double[columns];
+    long nodes = 0;
+    for (MctsTree tree : trees) {
+      nodes += tree.size();
+      int first = tree.firstChild(0);
+      for (int child = first; first >= 0 && child < first + tree.childCount(0); child++) {
+        columnVisits[tree.column(child)] += tree.visits(child);
+        columnWins[tree.column(child)] += tree.wins(child);
+      }
+    }
+    int best = -1;
+    for (int j = 0; j < columns; j++) {
+      if (model.isLegalMove(j) && (best < 0 || columnVisits[j] > columnVisits[best])) {
+        best = j;
+      }
+    }
+    double winRate = columnVisits[best] == 0 ? 0 : columnWins[best] / columnVisits[best];
+    return new MctsResult(best, columnVisits, winRate, threadPlayouts, nodes,
+        System.nanoTime() - start);
+  }
+
+  /**
+   * Stops the search threads. The player cannot be used afterwards.
+   */
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * The search of one thread, on its own tree and its own copy of the model.
+   */
+  private static final class Search {
+
+    private final MctsTree tree;
+    private final ConnectFourModel model;
+    private final SplittableRandom random;
+    private final int columns;
+    private final int[] path;
+    private final Player rootPlayer;
+
+    Search(MctsTree tree, ConnectFourModel model, SplittableRandom random) {
+      this.tree = tree;
+      this.model = model;
+      this.random = random;
+      this.columns = model.getBoardView().getColumns();
+      // a path is never longer than the game, nor than the tree is deep
+      long area = (long) model.getBoardView().getRows() * columns;
+      this.path = new int[(int) Math.min(area, tree.maxNodes()) + 1];
+      this.rootPlayer = model.getTurn();
+    }
+
+    /**
+     * Runs playouts until the deadline or the playout limit.
+     *
+     * @return the number of playouts
+     */
+    long run(long deadline, long maxPlayouts) {
+      tree.clear();
+      tree.expand(0, model);
+      long playouts = 0;
+      while (playouts < maxPlayouts && System.nanoTime() - deadline < 0
+          && !Thread.currentThread().isInterrupted()) {
+        playout();
+        playouts++;
+      }
+      return playouts;
+    }
+
+    /**
+     * Walks down the tree, expands a leaf, plays random moves to the end of the game and
+     * records the result along the path. The model is back at the root afterwards.
+     */
+    private void playout() {
+      int node = 0;
+      int depth = 0;
+      path[0] = 0;
+      while (tree.isExpanded(node) && !model.isGameOver()) {
+        node = tree.select(node, EXPLORATION);
+        model.makeMove(tree.column(node));
+        path[++depth] = node;
+      }
+      // a leaf is expanded on its second visit, so one-off playouts do not fill the tree
+      if (!model.isGameOver() && tree.visits(node) > 0 && tree.expand(node, model)) {
+        node = tree.firstChild(node) + random.nextInt(tree.childCount(node));
+        model.makeMove(tree.column(node));
+        path[++depth] = node;
+      }
+      int moves = depth;
+      while (!model.isGameOver()) {
+        int column = random.nextInt(columns);
+        if (model.isLegalMove(column)) {
+          model.makeMove(column);
+          moves++;
+        }
+      }
+      Player winner = model.getWinner();
+      for (int d = depth; d >= 0; d--) {
+        // the nodes at odd depths were reached by a move of the player to move at the root
+        Player mover = (d & 1) == 1 ? rootPlayer : opponent(rootPlayer);
+        tree.update(path[d], winner == null ? 1 : winner == mover ? 2 : 0);
+      }
+      for (int i = 0; i < moves; i++) {
+        model.undoMove();
+      }
+    }
+
+    private static Player opponent(Player player) {
+      return player == Player.RED ? Player.YELLOW : Player.RED;
+    }
+  }
+
+  /**
+   * Searches a position and prints the chosen column and the search statistics.
+   *
+   * @param args the time to search for in milliseconds (default 1000), the number of rows and
+   *             columns (default 6 and 7), and optionally the moves leading to the position, as
+   *             column numbers from 1 separated by commas (e.g. "4,4,5,3")
+   * @throws InterruptedException if the search is interrupted
+   */
+  public static void main(String[] args) throws InterruptedException {
+    long budget = args.length > 0 ? Long.parseLong(args[0]) : 1000;
+    int rows = args.length > 1 ? Integer.parseInt(args[1]) : 6;
+    int columns = args.length > 2 ? Integer.parseInt(args[2]) : 7;
+    ConnectFourModel model = ConnectFourModels.create(rows, columns);
+    if (args.length > 3) {
+      for (String move : args[3].split(",")) {
+        model.makeMove(Integer.parseInt(move.trim()) - 1);
+      }
+    }
+    MctsPlayer player = new MctsPlayer();
+    MctsResult result = player.search(model, budget);
+    player.shutdown();
+    System.out.println("Best move: column " + (result.getColumn() + 1));
+    System.out.println(result);
+  }
+}
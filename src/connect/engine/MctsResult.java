@@ -0,0 +1,128 @@
+package connect.engine;
+
+import java.util.Arrays;
+
+/**
+ * The result of a Monte Carlo tree search: the chosen column, how often each column was tried,
+ * and how much work the search took.
+ */
+public final class MctsResult {
+
+  private final int column;
+  private final long[] columnVisits;
+  private final double winRate;
+  private final long[] threadPlayouts;
+  private final long playouts;
+  private final long nodes;
+  private final long elapsedNanos;
+
+  /**
+   * Constructor for the MctsResult class.
+   *
+   * @param column         the chosen column
+   * @param columnVisits   the number of playouts that started with each column
+   * @param winRate        the share of the playouts through the chosen column that the player to
+   *                       move won, counting draws as half a win
+   * @param threadPlayouts the number of playouts each search thread ran
+   * @param nodes          the number of tree nodes, summed over all search threads
+   * @param elapsedNanos   the time the search took, in nanoseconds
+   */
+  public MctsResult(int column, long[] columnVisits, double winRate, long[] threadPlayouts,
+      long nodes, long elapsedNanos) {
+    this.column = column;
+    this.columnVisits = columnVisits.clone();
+    this.winRate = winRate;
+    this.threadPlayouts = threadPlayouts.clone();
+    long total = 0;
+    for (long n : threadPlayouts) {
+      total += n;
+    }
+    this.playouts = total;
+    this.nodes = nodes;
+    this.elapsedNanos = elapsedNanos;
+  }
+
+  /**
+   * Retrieves the chosen column, the one tried most often.
+   *
+   * @return the chosen column
+   */
+  public int getColumn() {
+    return column;
+  }
+
+  /**
+   * Retrieves the number of playouts that started with each column.
+   *
+   * @return the number of playouts per column, 0 for full columns
+   */
+  public long[] getColumnVisits() {
+    return columnVisits.clone();
+  }
+
+  /**
+   * Retrieves the estimated chance that the player to move wins after playing the chosen
+   * column.
+   *
+   * @return the win rate of the chosen column, from 0 to 1
+   */
+  public double getWinRate() {
+    return winRate;
+  }
+
+  /**
+   * Retrieves the number of playouts, summed over all search threads.
+   *
+   * @return the number of playouts
+   */
+  public long getPlayouts() {
+    return playouts;
+  }
+
+  /**
+   * Retrieves the number of playouts each search thread ran.
+   *
+   * @return the number of playouts per thread
+   */
+  public long[] getThreadPlayouts() {
+    return threadPlayouts.clone();
+  }
+
+  /**
+   * Retrieves the number of tree nodes, summed over all search threads.
+   *
+   * @return the number of nodes
+   */
+  public long getNodes() {
+    return nodes;
+  }
+
+  /**
+   * Retrieves the time the search took.
+   *
+   * @return the elapsed time, in nanoseconds
+   */
+  public long getElapsedNanos() {
+    return elapsedNanos;
+  }
+
+  /**
+   * Retrieves the search speed.
+   *
+   * @return the number of playouts per second
+   */
+  public double getPlayoutsPerSecond() {
+    return elapsedNanos == 0 ? 0 : playouts * 1e9 / elapsedNanos;
+  }
+
+  @Override
+  public String toString() {
+    String summary = String.format(
+        "column %d, win rate %.3f, %d playouts and %d nodes in %.3f s (%.0f playouts/s)",
+        column, winRate, playouts, nodes, elapsedNanos / 1e9, getPlayoutsPerSecond());
+    if (threadPlayouts.length == 1) {
+      return summary;
+    }
+    return summary + ", per thread " + Arrays.toString(threadPlayouts);
+  }
+}
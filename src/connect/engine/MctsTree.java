@@ -0,0 +1,184 @@
+package connect.engine;
+
+import connect.ConnectFourModel;
+import java.util.Arrays;
+
+/**
+ * The search tree of a Monte Carlo tree search, stored in parallel primitive arrays instead of
+ * one object per node.
+ *
+ * <p>A node is an index into the arrays. The children of a node are allocated together, one per
+ * legal column, so a node only needs the index of its first child and the number of children.
+ * Node 0 is the root. Every node takes 20 bytes, and the arrays only grow up to a fixed number
+ * of nodes; once the tree is full, leaves are no longer expanded and the search simply goes on
+ * with playouts from the existing leaves.
+ *
+ * <p>A tree is used by one search thread only, and is cleared and reused for every search so
+ * that its arrays are allocated once.
+ */
+final class MctsTree {
+
+  private static final int INITIAL_CAPACITY = 1 << 12;
+
+  private final int maxNodes;
+  private int size;
+  private int[] visits;
+  private int[] wins; // twice the number of wins of the player who moved into the node
+  private int[] firstChild; // -1 until the node is expanded
+  private int[] childCount;
+  private int[] column; // the move leading to the node
+
+  /**
+   * Creates an empty tree.
+   *
+   * @param maxNodes the largest number of nodes the tree may grow to, at least 1
+   */
+  MctsTree(int maxNodes) {
+    this.maxNodes = maxNodes;
+    int capacity = Math.min(maxNodes, INITIAL_CAPACITY);
+    this.visits = new int[capacity];
+    this.wins = new int[capacity];
+    this.firstChild = new int[capacity];
+    this.childCount = new int[capacity];
+    this.column = new int[capacity];
+  }
+
+  /**
+   * Removes every node but a fresh root. The arrays are kept for the next search.
+   */
+  void clear() {
+    size = 1;
+    visits[0] = 0;
+    wins[0] = 0;
+    firstChild[0] = -1;
+    childCount[0] = 0;
+    column[0] = -1;
+  }
+
+  int size() {
+    return size;
+  }
+
+  int maxNodes() {
+    return maxNodes;
+  }
+
+  boolean isExpanded(int node) {
+    return firstChild[node] >= 0;
+  }
+
+  int visits(int node) {
+    return visits[node];
+  }
+
+  int column(int node) {
+    return column[node];
+  }
+
+  int firstChild(int node) {
+    return firstChild[node];
+  }
+
+  int childCount(int node) {
+    return childCount[node];
+  }
+
+  /**
+   * Retrieves the number of wins of the player who moved into the node, where a draw counts as
+   * half a win.
+   */
+  double wins(int node) {
+    return wins[node] / 2.0;
+  }
+
+  /**
+   * Adds one child per legal column of the model to a leaf.
+   *
+   * @param node  the leaf to expand
+   * @param model the model, in the position of the leaf
+   * @return false if the tree has no room left for the children
+   */
+  boolean expand(int node, ConnectFourModel model) {
+    int columns = model.getBoardView().getColumns();
+    int count = 0;
+    for (int j = 0; j < columns; j++) {
+      if (model.isLegalMove(j)) {
+        count++;
+      }
+    }
+    if (!reserve(count)) {
+      return false;
+    }
+    int first = size;
+    for (int j = 0; j < columns; j++) {
+      if (model.isLegalMove(j)) {
+        visits[size] = 0;
+        wins[size] = 0;
+        firstChild[size] = -1;
+        childCount[size] = 0;
+        column[size] = j;
+        size++;
+      }
+    }
+    firstChild[node] = first;
+    childCount[node] = count;
+    return true;
+  }
+
+  /**
+   * Makes room for more nodes, growing the arrays if needed.
+   */
+  private boolean reserve(int count) {
+    if (size + count > maxNodes) {
+      return false;
+    }
+    if (size + count > visits.length) {
+      int capacity = (int) Math.min(maxNodes, Math.max(2L * visits.length, size + count));
+      visits = Arrays.copyOf(visits, capacity);
+      wins = Arrays.copyOf(wins, capacity);
+      firstChild = Arrays.copyOf(firstChild, capacity);
+      childCount = Arrays.copyOf(childCount, capacity);
+      column = Arrays.copyOf(column, capacity);
+    }
+    return true;
+  }
+
+  /**
+   * Picks the child with the highest upper confidence bound (UCT). A child that was never
+   * visited is always picked first.
+   *
+   * @param node        an expanded node
+   * @param exploration the weight of the exploration term
+   * @return the selected child
+   */
+  int select(int node, double exploration) {
+    int first = firstChild[node];
+    int end = first + childCount[node];
+    double logVisits = Math.log(visits[node]);
+    int best = first;
+    double bestValue = Double.NEGATIVE_INFINITY;
+    for (int child = first; child < end; child++) {
+      int n = visits[child];
+      if (n == 0) {
+        return child;
+      }
+      double value = wins[child] / (2.0 * n) + exploration * Math.sqrt(logVisits / n);
+      if (value > bestValue) {
+        bestValue = value;
+        best = child;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Records the result of a playout through a node.
+   *
+   * @param node   the node
+   * @param reward 2 if the player who moved into the node won, 1 for a draw and 0 for a loss
+   */
+  void update(int node, int reward) {
+    visits[node]++;
+    wins[node] += reward;
+  }
+}
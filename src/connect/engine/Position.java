@@ -0,0 +1,270 @@
+package connect.engine;
+
+import connect.BoardView;
+import connect.ConnectFourModel;
+import connect.Player;
+
+/**
+ * A compact, mutable position for searching, stored as two bitboards: the discs of the player to
+ * move, and the mask of all discs. Every column takes {@code rows + 1} bits with an always-empty
+ * sentinel bit on top, as in {@link connect.BitboardConnectFourModel}, so the whole board must fit
+ * in 64 bits.
+ */
+final class Position {
+
+  private final int rows;
+  private final int columns;
+  private final int stride;
+  private final long bottomMask;
+  private final long boardMask;
+  private long current; // discs of the player to move
+  private long mask; // all discs
+  private int moves;
+
+  /**
+   * Creates an empty position.
+   *
+   * @param rows    the number of rows of the board
+   * @param columns the number of columns of the board
+   * @throws IllegalArgumentException if the board does not fit in 64 bits
+   */
+  Position(int rows, int columns) throws IllegalArgumentException {
+    if (!fits(rows, columns)) {
+      throw new IllegalArgumentException("The board does not fit in a 64-bit position");
+    }
+    this.rows = rows;
+    this.columns = columns;
+    this.stride = rows + 1;
+    long bottom = 0;
+    for (int j = 0; j < columns; j++) {
+      bottom |= 1L << (j * stride);
+    }
+    this.bottomMask = bottom;
+    this.boardMask = bottom * ((1L << rows) - 1);
+  }
+
+  /**
+   * Creates a copy of a position.
+   *
+   * @param other the position to copy
+   */
+  Position(Position other) {
+    this.rows = other.rows;
+    this.columns = other.columns;
+    this.stride = other.stride;
+    this.bottomMask = other.bottomMask;
+    this.boardMask = other.boardMask;
+    this.current = other.current;
+    this.mask = other.mask;
+    this.moves = other.moves;
+  }
+
+  /**
+   * Checks whether a board of the given size fits in a 64-bit position.
+   *
+   * @param rows    the number of rows of the board
+   * @param columns the number of columns of the board
+   * @return true if the board fits, false otherwise
+   */
+  static boolean fits(int rows, int columns) {
+    return rows >= 4 && columns >= 4 && (rows + 1) * columns <= 64;
+  }
+
+  /**
+   * Reads the current position of a model.
+   *
+   * @param model the model to read
+   * @return the position of the model, with the player to move of the model
+   * @throws IllegalArgumentException if the game is over or the board does not fit in 64 bits
+   */
+  static Position of(ConnectFourModel model) throws IllegalArgumentException {
+    BoardView board = model.getBoardView();
+    Player toMove = model.getTurn();
+    if (toMove == null) {
+      throw new IllegalArgumentException("The game is over");
+    }
+    Position position = new Position(board.getRows(), board.getColumns());
+    for (int j = 0; j < board.getColumns(); j++) {
+      for (int h = 0; h < board.height(j); h++) {
+        long bit = 1L << (j * position.stride + h);
+        position.mask |= bit;
+        position.moves++;
+        if (board.cell(board.getRows() - 1 - h, j) == toMove) {
+          position.current |= bit;
+        }
+      }
+    }
+    return position;
+  }
+
+  int rows() {
+    return rows;
+  }
+
+  int columns() {
+    return columns;
+  }
+
+  int area() {
+    return rows * columns;
+  }
+
+  /**
+   * Retrieves the number of discs on the board.
+   */
+  int moves() {
+    return moves;
+  }
+
+  /**
+   * Retrieves a key that is unique to this position: the discs of the player to move plus the
+   * mask, which marks the top of every column with a bit above the discs.
+   */
+  long key() {
+    return current + mask;
+  }
+
+  /**
+   * Retrieves a key that is the same for this position and its mirror image, which always have
+   * the same score: the smaller of the keys of the two.
+   */
+  long symmetricKey() {
+    long key = key();
+    long mirrored = 0;
+    long columnBits = (1L << stride) - 1;
+    for (int j = 0; j < columns; j++) {
+      mirrored |= ((key >>> (j * stride)) & columnBits) << ((columns - 1 - j) * stride);
+    }
+    return Math.min(key, mirrored);
+  }
+
+  boolean canPlay(int column) {
+    return (mask & topMask(column)) == 0;
+  }
+
+  /**
+   * Plays a move given as a column.
+   */
+  void play(int column) {
+    playMove((mask + bottomMask(column)) & columnMask(column));
+  }
+
+  /**
+   * Plays a move given as the bit of the cell the disc lands in.
+   */
+  void playMove(long move) {
+    current ^= mask;
+    mask |= move;
+    moves++;
+  }
+
+  /**
+   * Takes back a move given as the bit of the cell the disc landed in. It must be the last
+   * move played.
+   */
+  void undoMove(long move) {
+    mask &= ~move;
+    current ^= mask;
+    moves--;
+  }
+
+  /**
+   * Plays a sequence of columns, each given as a digit from 1 to the number of columns, as in
+   * "4453". Stops at the first invalid or winning move.
+   *
+   * @return the number of moves played
+   */
+  int play(String sequence) {
+    for (int i = 0; i < sequence.length(); i++) {
+      int column = sequence.charAt(i) - '1';
+      if (column < 0 || column >= columns || !canPlay(column) || isWinningMove(column)) {
+        return i;
+      }
+      play(column);
+    }
+    return sequence.length();
+  }
+
+  boolean isWinningMove(int column) {
+    return (winningPosition() & possible() & columnMask(column)) != 0;
+  }
+
+  /**
+   * Checks whether the player to move can win with their next move.
+   */
+  boolean canWinNext() {
+    return (winningPosition() & possible()) != 0;
+  }
+
+  /**
+   * Retrieves the moves that do not let the opponent win right after, assuming the player to
+   * move cannot win right away. Returns 0 if every move loses.
+   */
+  long possibleNonLosingMoves() {
+    long possibleMask = possible();
+    long opponentWin = opponentWinningPosition();
+    long forcedMoves = possibleMask & opponentWin;
+    if (forcedMoves != 0) {
+      if ((forcedMoves & (forcedMoves - 1)) != 0) {
+        return 0; // the opponent has two winning moves, one of them cannot be blocked
+      }
+      possibleMask = forcedMoves;
+    }
+    return possibleMask & ~(opponentWin >>> 1); // never play right below an opponent's win
+  }
+
+  /**
+   * Scores a move for move ordering: the number of winning cells it creates.
+   */
+  int moveScore(long move) {
+    return Long.bitCount(computeWinningPosition(current | move, mask));
+  }
+
+  long columnMask(int column) {
+    return ((1L << rows) - 1) << (column * stride);
+  }
+
+  private long topMask(int column) {
+    return (1L << (rows - 1)) << (column * stride);
+  }
+
+  private long bottomMask(int column) {
+    return 1L << (column * stride);
+  }
+
+  private long possible() {
+    return (mask + bottomMask) & boardMask;
+  }
+
+  private long winningPosition() {
+    return computeWinningPosition(current, mask);
+  }
+
+  private long opponentWinningPosition() {
+    return computeWinningPosition(current ^ mask, mask);
+  }
+
+  /**
+   * Retrieves the empty cells, reachable or not, that would complete four in a row for the
+   * owner of {@code position}.
+   */
+  private long computeWinningPosition(long position, long mask) {
+    // vertical
+    long r = (position << 1) & (position << 2) & (position << 3);
+    r |= lines(position, stride); // horizontal
+    r |= lines(position, stride - 1); // diagonal
+    r |= lines(position, stride + 1); // anti-diagonal
+    return r & (boardMask ^ mask);
+  }
+
+  private static long lines(long position, int shift) {
+    long r = 0;
+    long p = (position << shift) & (position << 2 * shift);
+    r |= p & (position << 3 * shift);
+    r |= p & (position >>> shift);
+    p = (position >>> shift) & (position >>> 2 * shift);
+    r |= p & (position << shift);
+    r |= p & (position >>> 3 * shift);
+    return r;
+  }
+}
@@ -0,0 +1,118 @@
+package connect.engine;
+
+import java.util.Arrays;
+
+/**
+ * The result of analyzing a position: the best column, its exact score, and how much work the
+ * search took.
+ *
+ * <p>Scores follow the usual solver convention. A positive score means the player to move wins,
+ * a negative score means they lose and 0 means a draw with best play. The sooner the game is
+ * won, the larger the score: winning with the last disc of the player to move scores 1, and
+ * every disc the winner has left over adds 1.
+ */
+public final class SearchResult {
+
+  private final int column;
+  private final int score;
+  private final long nodes;
+  private final long elapsedNanos;
+  private final long[] threadNodes;
+
+  /**
+   * Constructor for the SearchResult class.
+   *
+   * @param column       the best column
+   * @param score        the score of the position with best play
+   * @param nodes        the number of positions the search visited
+   * @param elapsedNanos the time the search took, in nanoseconds
+   */
+  public SearchResult(int column, int score, long nodes, long elapsedNanos) {
+    this(column, score, new long[] {nodes}, elapsedNanos);
+  }
+
+  /**
+   * Constructor for the SearchResult class, for a search run by several threads.
+   *
+   * @param column       the best column
+   * @param score        the score of the position with best play
+   * @param threadNodes  the number of positions each search thread visited
+   * @param elapsedNanos the time the search took, in nanoseconds
+   */
+  public SearchResult(int column, int score, long[] threadNodes, long elapsedNanos) {
+    this.column = column;
+    this.score = score;
+    this.threadNodes = threadNodes.clone();
+    long total = 0;
+    for (long n : threadNodes) {
+      total += n;
+    }
+    this.nodes = total;
+    this.elapsedNanos = elapsedNanos;
+  }
+
+  /**
+   * Retrieves the best column for the player to move.
+   *
+   * @return the best column
+   */
+  public int getColumn() {
+    return column;
+  }
+
+  /**
+   * Retrieves the score of the position with best play, from the point of view of the player
+   * to move.
+   *
+   * @return the score of the position
+   */
+  public int getScore() {
+    return score;
+  }
+
+  /**
+   * Retrieves the number of positions the search visited, summed over all search threads.
+   *
+   * @return the number of nodes
+   */
+  public long getNodes() {
+    return nodes;
+  }
+
+  /**
+   * Retrieves the number of positions each search thread visited.
+   *
+   * @return the number of nodes per thread, with one element for a single-threaded search
+   */
+  public long[] getThreadNodes() {
+    return threadNodes.clone();
+  }
+
+  /**
+   * Retrieves the time the search took.
+   *
+   * @return the elapsed time, in nanoseconds
+   */
+  public long getElapsedNanos() {
+    return elapsedNanos;
+  }
+
+  /**
+   * Retrieves the search speed.
+   *
+   * @return the number of nodes visited per second
+   */
+  public double getNodesPerSecond() {
+    return elapsedNanos == 0 ? 0 : nodes * 1e9 / elapsedNanos;
+  }
+
+  @Override
+  public String toString() {
+    String summary = String.format("column %d, score %d, %d nodes in %.3f s (%.0f nodes/s)",
+        column, score, nodes, elapsedNanos / 1e9, getNodesPerSecond());
+    if (threadNodes.length == 1) {
+      return summary;
+    }
+    return summary + ", per thread " + Arrays.toString(threadNodes);
+  }
+}
@@ -0,0 +1,323 @@
+package connect.engine;
+
+import connect.BitboardConnectFourModel;
+import connect.ConnectFourModel;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A Connect Four engine that solves a position exactly: it returns the best column for the
+ * player to move together with the score of the position under perfect play.
+ *
+ * <p>The search is a negamax with alpha-beta pruning, run as a sequence of null-window searches
+ * that narrow down the score. Moves are tried center columns first, and the more winning cells
+ * a move creates the earlier it is tried. Moves that let the opponent win right away are never
+ * searched, and a fixed-size {@link TranspositionTable} keyed by the position remembers upper
+ * and lower bounds of scores already computed.
+ *
+ * <p>The board must fit in 64 bits, i.e. {@code (rows + 1) * columns <= 64}, which covers the
+ * classic 6 * 7 board. A solver is not thread-safe; use one solver per thread, or
+ * {@link LazySmpSolver} to search with several threads.
+ */
+public class Solver {
+
+  /**
+   * The default size of the transposition table, 2^23 entries of 8 bytes each (64 MB).
+   */
+  public static final int DEFAULT_TABLE_BITS = 23;
+
+  private final TranspositionTable table;
+  private final int variant; // 0 for the main search, helper threads get other move orders
+  private final AtomicBoolean stop; // set by another thread to abort the search, or null
+  private long nodes;
+  // scratch space for move ordering, one row per number of discs on the board
+  private int[] order = new int[0];
+  private long[][] moveBuffer = new long[0][];
+  private int[][] scoreBuffer = new int[0][];
+
+  /**
+   * Creates a solver with the default transposition table size.
+   */
+  public Solver() {
+    this(DEFAULT_TABLE_BITS);
+  }
+
+  /**
+   * Creates a solver with a transposition table of {@code 2^tableBits} entries.
+   *
+   * @param tableBits the base-2 logarithm of the number of table entries, from 8 to 30
+   * @throws IllegalArgumentException if the table size is out of range
+   */
+  public Solver(int tableBits) throws IllegalArgumentException {
+    this(new TranspositionTable(tableBits), 0, null);
+  }
+
+  /**
+   * Creates a solver that shares a transposition table with other solvers.
+   *
+   * @param table   the transposition table
+   * @param variant 0 for the usual move order, any other number for a different order of the
+   *                columns on ties, so that helper threads search the tree in another order
+   * @param stop    a flag that aborts the search with a {@link SearchAbortedException} when
+   *                set, or null if the search cannot be aborted
+   */
+  Solver(TranspositionTable table, int variant, AtomicBoolean stop) {
+    this.table = table;
+    this.variant = variant;
+    this.stop = stop;
+  }
+
+  /**
+   * Solves the current position of a model. The model is only read, never changed.
+   *
+   * @param model the model holding the position to solve
+   * @return the best column for the player to move and the exact score of the position
+   * @throws IllegalArgumentException if the game is over or the board does not fit in 64 bits
+   */
+  public SearchResult solve(ConnectFourModel model) throws IllegalArgumentException {
+    return solve(Position.of(model));
+  }
+
+  /**
+   * Solves a position.
+   */
+  SearchResult solve(Position position) {
+    long start = System.nanoTime();
+    nodes = 0;
+    int score = score(position);
+    int column = bestColumn(position, score);
+    return new SearchResult(column, score, nodes, System.nanoTime() - start);
+  }
+
+  /**
+   * Sizes the scratch space of the search for the board of the given position.
+   */
+  private void prepare(Position position) {
+    if (order.length != position.columns() || moveBuffer.length != position.area() + 1) {
+      order = columnOrder(position.columns());
+      if (variant != 0) {
+        // keep the center column first and shuffle the rest
+        Random random = new Random(variant);
+        for (int i = order.length - 1; i > 1; i--) {
+          int k = 1 + random.nextInt(i);
+          int swap = order[i];
+          order[i] = order[k];
+          order[k] = swap;
+        }
+      }
+      moveBuffer = new long[position.area() + 1][position.columns()];
+      scoreBuffer = new int[position.area() + 1][position.columns()];
+    }
+  }
+
+  /**
+   * Computes the exact score of a position by narrowing the score range with null-window
+   * searches.
+   */
+  int score(Position position) {
+    prepare(position);
+    int area = position.area();
+    if (position.canWinNext()) {
+      return (area + 1 - position.moves()) / 2;
+    }
+    int min = -(area - position.moves()) / 2;
+    int max = (area + 1 - position.moves()) / 2;
+    while (min < max) {
+      int med = min + (max - min) / 2;
+      // look for wins and losses close to the current bounds first, they are cheaper to prove
+      if (med <= 0 && min / 2 < med) {
+        med = min / 2;
+      } else if (med >= 0 && max / 2 > med) {
+        med = max / 2;
+      }
+      int r = negamax(position, med, med + 1);
+      if (r <= med) {
+        max = r;
+      } else {
+        min = r;
+      }
+    }
+    return min;
+  }
+
+  /**
+   * Finds a column that reaches the given score of the position.
+   */
+  int bestColumn(Position position, int score) {
+    prepare(position);
+    for (int column : order) {
+      if (position.canPlay(column) && position.isWinningMove(column)) {
+        return column;
+      }
+    }
+    int area = position.area();
+    int fallback = -1;
+    for (int column : order) {
+      if (!position.canPlay(column)) {
+        continue;
+      }
+      if (fallback < 0) {
+        fallback = column;
+      }
+      Position child = new Position(position);
+      child.play(column);
+      // the column is best if the opponent scores at most -score after it
+      int childScore;
+      if (child.moves() == area) {
+        childScore = 0;
+      } else if (child.canWinNext()) {
+        childScore = (area + 1 - child.moves()) / 2;
+      } else {
+        childScore = negamax(child, -score, -score + 1);
+      }
+      if (childScore <= -score) {
+        return column;
+      }
+    }
+    return fallback;
+  }
+
+  /**
+   * Searches a position within the window ({@code alpha}, {@code beta}), assuming nobody has
+   * won yet and the player to move cannot win with their next move.
+   *
+   * @return the exact score if it is inside the window, otherwise a bound on the score that
+   *     is outside the window on the same side as the score
+   */
+  int negamax(Position position, int alpha, int beta) {
+    nodes++;
+    if (stop != null && (nodes & 0xFFF) == 0 && stop.get()) {
+      throw new SearchAbortedException();
+    }
+    int area = position.area();
+    long next = position.possibleNonLosingMoves();
+    if (next == 0) {
+      return -(area - position.moves()) / 2; // every move lets the opponent win
+    }
+    if (position.moves() >= area - 2) {
+      return 0; // nobody can win with the last two discs
+    }
+    int min = -(area - 2 - position.moves()) / 2; // the opponent cannot win right away
+    if (alpha < min) {
+      alpha = min;
+      if (alpha >= beta) {
+        return alpha;
+      }
+    }
+    int max = (area - 1 - position.moves()) / 2; // we cannot win right away
+    int minScore = minScore(area);
+    int maxScore = maxScore(area);
+    long key = position.symmetricKey();
+    int stored = table.get(key);
+    if (stored != 0) {
+      if (stored > maxScore - minScore + 1) {
+        min = stored + 2 * minScore - maxScore - 2; // a lower bound
+        if (alpha < min) {
+          alpha = min;
+          if (alpha >= beta) {
+            return alpha;
+          }
+        }
+      } else {
+        max = stored + minScore - 1; // an upper bound
+      }
+    }
+    if (beta > max) {
+      beta = max;
+      if (alpha >= beta) {
+        return beta;
+      }
+    }
+
+    long[] moves = moveBuffer[position.moves()];
+    int[] scores = scoreBuffer[position.moves()];
+    int count = 0;
+    for (int i = order.length - 1; i >= 0; i--) {
+      long move = next & position.columnMask(order[i]);
+      if (move != 0) {
+        // insertion sort by decreasing score, keeping center columns first on ties
+        int score = position.moveScore(move);
+        int k = count++;
+        while (k > 0 && scores[k - 1] > score) {
+          moves[k] = moves[k - 1];
+          scores[k] = scores[k - 1];
+          k--;
+        }
+        moves[k] = move;
+        scores[k] = score;
+      }
+    }
+    for (int i = count - 1; i >= 0; i--) {
+      position.playMove(moves[i]);
+      int score = -negamax(position, -beta, -alpha);
+      position.undoMove(moves[i]);
+      if (score >= beta) {
+        table.put(key, score + maxScore - 2 * minScore + 2);
+        return score;
+      }
+      if (score > alpha) {
+        alpha = score;
+      }
+    }
+    table.put(key, alpha - minScore + 1);
+    return alpha;
+  }
+
+  /**
+   * Retrieves the number of positions visited by the last search.
+   */
+  long nodes() {
+    return nodes;
+  }
+
+  /**
+   * Thrown inside a search when another thread asked it to stop. It carries no stack trace,
+   * since it only unwinds the recursion.
+   */
+  static final class SearchAbortedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    SearchAbortedException() {
+      super("The search was aborted", null, false, false);
+    }
+  }
+
+  static int minScore(int area) {
+    return -area / 2 + 3;
+  }
+
+  static int maxScore(int area) {
+    return (area + 1) / 2 - 3;
+  }
+
+  /**
+   * Orders the columns from the center outwards, e.g. 3, 2, 4, 1, 5, 0, 6 for 7 columns.
+   */
+  static int[] columnOrder(int columns) {
+    int[] order = new int[columns];
+    for (int i = 0; i < columns; i++) {
+      order[i] = columns / 2 + (1 - 2 * (i % 2)) * (i + 1) / 2;
+    }
+    return order;
+  }
+
+  /**
+   * Solves a 6 * 7 position and prints the best column and the search speed.
+   *
+   * @param args optionally, the moves leading to the position, as digits from 1 to 7
+   *             (e.g. "4453"); the empty board is solved if there are none
+   */
+  public static void main(String[] args) {
+    ConnectFourModel model = new BitboardConnectFourModel(6, 7);
+    if (args.length > 0) {
+      for (char c : args[0].toCharArray()) {
+        model.makeMove(c - '1');
+      }
+    }
+    SearchResult result = new Solver().solve(model);
+    System.out.println("Best move: column " + (result.getColumn() + 1)
+        + " (score " + result.getScore() + ")");
+    System.out.println(result);
+  }
+}
@@ -0,0 +1,89 @@
+package connect.engine;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-size transposition table mapping position keys to small values, with one {@code long}
+ * per entry and no chaining: a new entry simply replaces the old one in its slot.
+ *
+ * <p>Keys are first scrambled by a bijective mixing function. The low bits of the mixed key pick
+ * the slot and the remaining high bits are stored next to the value, so an entry identifies its
+ * key exactly even though the key itself is never stored.
+ *
+ * <p>Because key and value share a single word, the table can be shared by several search
+ * threads without any locking: a reader sees either a whole old entry or a whole new one, and an
+ * entry written for another key simply fails the key check.
+ */
+final class TranspositionTable {
+
+  private static final int VALUE_BITS = 8;
+  private static final long VALUE_MASK = (1L << VALUE_BITS) - 1;
+
+  private final int indexBits;
+  private final long indexMask;
+  private final AtomicLongArray entries;
+
+  /**
+   * Creates an empty table.
+   *
+   * @param indexBits the base-2 logarithm of the number of entries, from 8 to 30
+   * @throws IllegalArgumentException if the size is out of range
+   */
+  TranspositionTable(int indexBits) throws IllegalArgumentException {
+    if (indexBits < VALUE_BITS || indexBits > 30) {
+      throw new IllegalArgumentException("The table size must be between 2^8 and 2^30 entries");
+    }
+    this.indexBits = indexBits;
+    this.indexMask = (1L << indexBits) - 1;
+    this.entries = new AtomicLongArray(1 << indexBits);
+  }
+
+  /**
+   * Stores a value for a key, replacing whatever was in its slot.
+   *
+   * @param key   the key of the position
+   * @param value the value, from 1 to 255
+   */
+  void put(long key, int value) {
+    long h = mix(key);
+    // opaque accesses are atomic and cost no more than plain ones, the search needs no ordering
+    entries.setOpaque((int) (h & indexMask), ((h >>> indexBits) << VALUE_BITS) | value);
+  }
+
+  /**
+   * Retrieves the value stored for a key.
+   *
+   * @param key the key of the position
+   * @return the value, or 0 if the key is not in the table
+   */
+  int get(long key) {
+    long h = mix(key);
+    long entry = entries.getOpaque((int) (h & indexMask));
+    if ((entry >>> VALUE_BITS) != (h >>> indexBits)) {
+      return 0;
+    }
+    return (int) (entry & VALUE_MASK);
+  }
+
+  /**
+   * Removes every entry.
+   */
+  void clear() {
+    for (int i = 0; i < entries.length(); i++) {
+      entries.setOpaque(i, 0L);
+    }
+  }
+
+  /**
+   * The finalizer of MurmurHash3, a bijection on 64-bit values.
+   */
+  private static long mix(long key) {
+    long h = key;
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+}
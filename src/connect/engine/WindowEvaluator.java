@@ -0,0 +1,222 @@
+package connect.engine;
+
+import connect.BoardView;
+import connect.ConnectFourModel;
+import connect.ModelListener;
+import connect.MoveEvent;
+import connect.Player;
+import java.util.Arrays;
+
+/**
+ * A static evaluator for depth-limited search, which scores a position from its open
+ * four-in-a-row windows: a window that holds discs of only one player counts for that player,
+ * the more so the more discs it holds, and a window that holds discs of both players counts for
+ * neither.
+ *
+ * <p>The evaluator keeps the number of discs of each player in every window, and a move only
+ * updates the at most 16 windows of its cell, 4 in each direction, along with the running score,
+ * so scoring a position takes constant time instead of a scan of the board. A complete window is
+ * counted too, which tells the winner just as cheaply. The windows of a cell follow from its row
+ * and column, so no list of windows is kept: a window is known by its direction and its first
+ * cell, and its counts take one byte, the red discs in the low four bits and the yellow discs in
+ * the high four. The evaluator thus takes 4 bytes per cell, about as much as the board of a
+ * model, on any board size that {@link connect.ConnectFourModelImpl} accepts.
+ *
+ * <p>The evaluator can follow a model as a {@link ModelListener}, see {@link #attach}, or be
+ * driven directly by a search through {@link #play} and {@link #unplay}. An evaluator is not
+ * thread-safe; every search thread needs its own.
+ */
+public final class WindowEvaluator implements ModelListener {
+
+  /**
+   * The weight of a window by the number of discs of its only player. A complete window is
+   * weighted far above anything else.
+   */
+  private static final int[] WEIGHTS = {0, 1, 8, 64, 1 << 20};
+
+  /**
+   * The steps from one cell of a window to the next, as rows and columns: across, down, down
+   * and to the right, and down and to the left.
+   */
+  private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+
+  private static final int YELLOW_SHIFT = 4;
+
+  private final int rows;
+  private final int columns;
+  private final byte[][] counts; // by direction and first cell, the discs of every window
+  private long score; // the weights of the red windows minus those of the yellow windows
+  private int redFours;
+  private int yellowFours;
+
+  /**
+   * Creates an evaluator of an empty board.
+   *
+   * @param rows    the number of rows of the board, at least 4
+   * @param columns the number of columns of the board, at least 4
+   * @throws IllegalArgumentException if the board is smaller than 4 by 4, or has more than
+   *                                  {@code Integer.MAX_VALUE} cells
+   */
+  public WindowEvaluator(int rows, int columns) throws IllegalArgumentException {
+    if (rows < 4 || columns < 4) {
+      throw new IllegalArgumentException("The number of rows and columns must be at least 4");
+    }
+    if ((long) rows * columns > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("The board cannot have more than " + Integer.MAX_VALUE
+          + " cells");
+    }
+    this.rows = rows;
+    this.columns = columns;
+    this.counts = new byte[DIRECTIONS.length][rows * columns];
+  }
+
+  /**
+   * Creates an evaluator of the current position of a model, which then follows every change
+   * to the model as one of its listeners.
+   *
+   * @param model the model to follow
+   * @return the evaluator
+   * @throws IllegalArgumentException if the board is smaller than 4 by 4, or has more than
+   *                                  {@code Integer.MAX_VALUE} cells
+   */
+  public static WindowEvaluator attach(ConnectFourModel model) throws IllegalArgumentException {
+    BoardView board = model.getBoardView();
+    WindowEvaluator evaluator = new WindowEvaluator(board.getRows(), board.getColumns());
+    // only the cells that hold a disc are read, which the heights of the columns tell
+    for (int j = 0; j < board.getColumns(); j++) {
+      for (int h = 0; h < board.height(j); h++) {
+        int row = board.getRows() - 1 - h;
+        evaluator.play(row, j, board.cell(row, j));
+      }
+    }
+    model.addModelListener(evaluator);
+    return evaluator;
+  }
+
+  /**
+   * Adds a disc to the board.
+   *
+   * @param row    the row of the disc, where row 0 is the top of the board
+   * @param column the column of the disc
+   * @param player the player whose disc it is
+   */
+  public void play(int row, int column, Player player) {
+    int fours = update(row, column, player == Player.RED ? 0 : YELLOW_SHIFT, 1);
+    if (player == Player.RED) {
+      redFours += fours;
+    } else {
+      yellowFours += fours;
+    }
+  }
+
+  /**
+   * Takes a disc off the board.
+   *
+   * @param row    the row of the disc, where row 0 is the top of the board
+   * @param column the column of the disc
+   * @param player the player whose disc it is
+   */
+  public void unplay(int row, int column, Player player) {
+    int fours = update(row, column, player == Player.RED ? 0 : YELLOW_SHIFT, -1);
+    if (player == Player.RED) {
+      redFours -= fours;
+    } else {
+      yellowFours -= fours;
+    }
+  }
+
+  /**
+   * Changes the number of discs of one player in every window of a cell, replacing the weights
+   * of those windows in the score.
+   *
+   * @param shift  where the count of the player is in the counts of a window
+   * @return the number of windows that became complete, or stopped being complete
+   */
+  private int update(int row, int column, int shift, int change) {
+    int fours = 0;
+    for (int d = 0; d < DIRECTIONS.length; d++) {
+      int down = DIRECTIONS[d][0];
+      int across = DIRECTIONS[d][1];
+      byte[] windows = counts[d];
+      // the cell is the k-th of the window that starts k steps back
+      for (int k = 0; k < 4; k++) {
+        int firstRow = row - k * down;
+        int firstColumn = column - k * across;
+        int lastRow = firstRow + 3 * down;
+        int lastColumn = firstColumn + 3 * across;
+        if (firstRow < 0 || lastRow >= rows || Math.min(firstColumn, lastColumn) < 0
+            || Math.max(firstColumn, lastColumn) >= columns) {
+          continue;
+        }
+        int w = firstRow * columns + firstColumn;
+        int before = windows[w];
+        int after = before + (change << shift);
+        windows[w] = (byte) after;
+        score += weight(after) - weight(before);
+        if (((change > 0 ? after : before) >>> shift & 0xF) == 4) {
+          fours++;
+        }
+      }
+    }
+    return fours;
+  }
+
+  /**
+   * Retrieves the weight of a window from its counts, positive for red and negative for yellow.
+   */
+  private static long weight(int counts) {
+    int r = counts & 0xF;
+    int y = counts >>> YELLOW_SHIFT;
+    if (y == 0) {
+      return WEIGHTS[r];
+    }
+    return r == 0 ? -WEIGHTS[y] : 0;
+  }
+
+  /**
+   * Empties the board.
+   */
+  public void clear() {
+    for (byte[] windows : counts) {
+      Arrays.fill(windows, (byte) 0);
+    }
+    score = 0;
+    redFours = 0;
+    yellowFours = 0;
+  }
+
+  /**
+   * Retrieves the score of the position for a player: the weights of the windows only that
+   * player has discs in, minus the weights of the windows only the other player has discs in.
+   *
+   * @param player the player to score the position for
+   * @return the score, positive if the position favors the player
+   */
+  public long evaluate(Player player) {
+    return player == Player.RED ? score : -score;
+  }
+
+  /**
+   * Retrieves the player with four in a row, in constant time.
+   *
+   * @return the player with a complete window, or null if there is none
+   */
+  public Player getWinner() {
+    return redFours > 0 ? Player.RED : yellowFours > 0 ? Player.YELLOW : null;
+  }
+
+  @Override
+  public void moveMade(MoveEvent event) {
+    play(event.getRow(), event.getColumn(), event.getPlayer());
+  }
+
+  @Override
+  public void moveUndone(MoveEvent event) {
+    unplay(event.getRow(), event.getColumn(), event.getPlayer());
+  }
+
+  @Override
+  public void boardReset() {
+    clear();
+  }
+}
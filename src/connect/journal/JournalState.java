@@ -0,0 +1,270 @@
+package connect.journal;
+
+import connect.ConnectFourModel;
+import connect.ConnectFourModels;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * The games of a journal as the lists of their moves, which is all a snapshot needs to hold.
+ * Records are applied to the lists without replaying them on a model, which makes compacting a
+ * journal cheap, and models are only built once, when the games are recovered.
+ *
+ * <p>A snapshot file starts with the magic number {@code "C4SN"}, a version number, the
+ * generation of the last journal file it covers, the largest game id ever used and the number
+ * of games. Every game is then:
+ * <pre>
+ *   game     8 bytes  the id of the game
+ *   rows     2 bytes
+ *   columns  2 bytes
+ *   moves    4 bytes  the number of moves
+ *   columns  the moves, packed with just enough bits for the number of columns, e.g. 3 bits
+ *            per move on a board of 7 columns, padded to a whole byte
+ * </pre>
+ * and the file ends with the CRC-32 of everything before it. The board of a game follows from
+ * its moves, and keeping the moves rather than the discs lets the recovered games be undone.
+ */
+final class JournalState {
+
+  static final int SNAPSHOT_MAGIC = 0x4334534e; // "C4SN"
+  static final int SNAPSHOT_VERSION = 1;
+
+  private final Map<Long, Game> games = new HashMap<>();
+  private long maxGameId = -1;
+  private long generation = -1; // the generation of the last journal file applied
+
+  /**
+   * The moves of one game.
+   */
+  private static final class Game {
+
+    final int rows;
+    final int columns;
+    int[] moves;
+    int count;
+
+    Game(int rows, int columns, int capacity) {
+      this.rows = rows;
+      this.columns = columns;
+      this.moves = new int[Math.max(8, capacity)];
+    }
+  }
+
+  long maxGameId() {
+    return maxGameId;
+  }
+
+  long generation() {
+    return generation;
+  }
+
+  void setGeneration(long generation) {
+    this.generation = generation;
+  }
+
+  int size() {
+    return games.size();
+  }
+
+  /**
+   * Applies one journal record.
+   *
+   * @param position the offset of the record in its file, for error messages
+   * @throws IOException if the record does not belong to a game, or has an unknown type
+   */
+  void apply(long id, byte type, int value, long position) throws IOException {
+    maxGameId = Math.max(maxGameId, id);
+    if (type == MoveJournal.NEW) {
+      games.put(id, new Game(value >>> 16, value & 0xFFFF, 0));
+      return;
+    }
+    if (type == MoveJournal.END) {
+      games.remove(id);
+      return;
+    }
+    Game game = games.get(id);
+    if (game == null) {
+      throw new IOException("The record at offset " + position + " belongs to no game");
+    }
+    switch (type) {
+      case MoveJournal.MOVE:
+        if (game.count == game.moves.length) {
+          game.moves = Arrays.copyOf(game.moves, 2 * game.count);
+        }
+        game.moves[game.count++] = value;
+        break;
+      case MoveJournal.UNDO:
+        if (game.count == 0) {
+          throw new IOException("The record at offset " + position + " undoes no move");
+        }
+        game.count--;
+        break;
+      case MoveJournal.RESET:
+        game.count = 0;
+        break;
+      default:
+        throw new IOException("Unknown record type " + type + " at offset " + position);
+    }
+  }
+
+  /**
+   * Builds a model for every game by replaying its moves.
+   *
+   * @return the models, by game id
+   * @throws IOException if the moves of a game cannot be replayed
+   */
+  Map<Long, ConnectFourModel> models() throws IOException {
+    Map<Long, ConnectFourModel> models = new HashMap<>();
+    for (Map.Entry<Long, Game> entry : games.entrySet()) {
+      Game game = entry.getValue();
+      try {
+        ConnectFourModel model = ConnectFourModels.create(game.rows, game.columns);
+        for (int i = 0; i < game.count; i++) {
+          model.makeMove(game.moves[i]);
+        }
+        models.put(entry.getKey(), model);
+      } catch (IllegalArgumentException e) {
+        throw new IOException("Game " + entry.getKey() + " cannot be replayed: "
+            + e.getMessage(), e);
+      }
+    }
+    return models;
+  }
+
+  /**
+   * Retrieves the number of bits a move takes in a snapshot.
+   */
+  private static int bitsPerMove(int columns) {
+    return Math.max(1, 32 - Integer.numberOfLeadingZeros(columns - 1));
+  }
+
+  /**
+   * Writes a snapshot of the games, replacing the file atomically once it is on the disk, so
+   * that a crash leaves either the old snapshot or the new one.
+   *
+   * @param path the snapshot file
+   * @throws IOException if the snapshot cannot be written
+   */
+  void write(Path path) throws IOException {
+    Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+    try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      CheckedOutputStream checked = new CheckedOutputStream(
+          new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16), new CRC32());
+      DataOutputStream out = new DataOutputStream(checked);
+      out.writeInt(SNAPSHOT_MAGIC);
+      out.writeInt(SNAPSHOT_VERSION);
+      out.writeLong(generation);
+      out.writeLong(maxGameId);
+      out.writeLong(games.size());
+      for (Map.Entry<Long, Game> entry : games.entrySet()) {
+        Game game = entry.getValue();
+        out.writeLong(entry.getKey());
+        out.writeShort(game.rows);
+        out.writeShort(game.columns);
+        out.writeInt(game.count);
+        writeMoves(out, game, bitsPerMove(game.columns));
+      }
+      out.writeInt((int) checked.getChecksum().getValue());
+      out.flush();
+      channel.force(true);
+    }
+    Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  private static void writeMoves(OutputStream out, Game game, int bits) throws IOException {
+    long buffer = 0;
+    int buffered = 0;
+    for (int i = 0; i < game.count; i++) {
+      buffer = (buffer << bits) | game.moves[i];
+      buffered += bits;
+      while (buffered >= 8) {
+        buffered -= 8;
+        out.write((int) (buffer >>> buffered));
+      }
+    }
+    if (buffered > 0) {
+      out.write((int) (buffer << (8 - buffered)));
+    }
+  }
+
+  /**
+   * Reads a snapshot.
+   *
+   * @param path the snapshot file
+   * @return the games of the snapshot
+   * @throws IOException if the file cannot be read, or is not a valid snapshot
+   */
+  static JournalState read(Path path) throws IOException {
+    JournalState state = new JournalState();
+    try (InputStream file = Files.newInputStream(path)) {
+      CheckedInputStream checked = new CheckedInputStream(
+          new BufferedInputStream(file, 1 << 16), new CRC32());
+      DataInputStream in = new DataInputStream(checked);
+      if (in.readInt() != SNAPSHOT_MAGIC) {
+        throw new IOException("Not a journal snapshot");
+      }
+      int version = in.readInt();
+      if (version != SNAPSHOT_VERSION) {
+        throw new IOException("Unsupported snapshot version " + version);
+      }
+      state.generation = in.readLong();
+      state.maxGameId = in.readLong();
+      long count = in.readLong();
+      for (long g = 0; g < count; g++) {
+        long id = in.readLong();
+        int rows = in.readUnsignedShort();
+        int columns = in.readUnsignedShort();
+        int moves = in.readInt();
+        if (moves < 0 || columns < 1 || (long) moves > (long) rows * columns) {
+          throw new IOException("Corrupt snapshot: game " + id + " has " + moves + " moves");
+        }
+        Game game = new Game(rows, columns, moves);
+        readMoves(in, game, moves, bitsPerMove(columns));
+        state.games.put(id, game);
+      }
+      int computed = (int) checked.getChecksum().getValue();
+      if (in.readInt() != computed) {
+        throw new IOException("Corrupt snapshot: wrong checksum");
+      }
+    } catch (EOFException e) {
+      throw new IOException("Corrupt snapshot: the file is cut short", e);
+    }
+    return state;
+  }
+
+  private static void readMoves(DataInputStream in, Game game, int moves, int bits)
+      throws IOException {
+    long buffer = 0;
+    int buffered = 0;
+    int mask = (1 << bits) - 1;
+    for (int i = 0; i < moves; i++) {
+      while (buffered < bits) {
+        buffer = (buffer << 8) | in.readUnsignedByte();
+        buffered += 8;
+      }
+      buffered -= bits;
+      game.moves[i] = (int) (buffer >>> buffered) & mask;
+    }
+    game.count = moves;
+  }
+}
@@ -0,0 +1,632 @@
+package connect.journal;
+
+import connect.ConnectFourModel;
+import connect.ConnectFourModels;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only journal of the changes made to many games, so that the games can be rebuilt
+ * after a crash or a restart. Every game has an id chosen by the caller, and every change is one
+ * record of 16 bytes:
+ * <pre>
+ *   game      8 bytes  the id of the game
+ *   value     4 bytes  the column of a move, or the rows (high half) and columns of a new game
+ *   type      1 byte   1 = new game, 2 = move, 3 = undo, 4 = reset, 5 = end of the game
+ *   checksum  3 bytes  the low 24 bits of the CRC-32 of the first 13 bytes
+ * </pre>
+ * after a file header of the magic number {@code "C4MJ"}, a version number and the generation of
+ * the file.
+ *
+ * <p>Appending a record only copies it into a buffer and returns its sequence number. A
+ * background thread writes the buffer to the file and forces it to the disk, and
+ * {@link #await(long)} blocks until a given record is durable. While one force is in progress,
+ * the records appended by every other thread pile up in the buffer and are forced together by
+ * the next one (group commit), so the number of moves per second is bounded by the bandwidth of
+ * the disk rather than by the latency of a force.
+ *
+ * <p>So that the journal does not grow forever, it is compacted in the background. Once the file
+ * is larger than a given size, it is renamed to {@code <file>.compacting} and a new file of the
+ * next generation takes its place, which only takes a moment of the flushing thread. Another
+ * thread then applies the renamed file to the last snapshot of the games, writes the result as
+ * the new snapshot {@code <file>.snapshot} (see {@link JournalState}) and deletes the renamed
+ * file. The records of games that ended are dropped, and a game that is still going is only the
+ * list of its moves, bit-packed, whatever the number of records that built it. Appending never
+ * waits for a compaction.
+ *
+ * <p>Opening an existing journal recovers the games: the snapshot is read, then the files not
+ * covered by it are replayed, so the time it takes is bounded by the size of the snapshot and
+ * of the recent records. The games that were not ended can be retrieved with
+ * {@link #recovered()}. A record that is cut short or fails its checksum, as left by a crash in
+ * the middle of a write, ends the journal, and the file is truncated there before new records
+ * are appended. A crash in the middle of a rotation or a compaction leaves files that the next
+ * opening sorts out, using the generations to tell what the snapshot already covers.
+ */
+public class MoveJournal implements Closeable {
+
+  static final int MAGIC = 0x43344d4a; // "C4MJ"
+  static final int VERSION = 2;
+  static final int HEADER_BYTES = 16;
+  static final int RECORD_BYTES = 16;
+  static final byte NEW = 1;
+  static final byte MOVE = 2;
+  static final byte UNDO = 3;
+  static final byte RESET = 4;
+  static final byte END = 5;
+
+  /**
+   * The default size of the file above which it is compacted, 64 MB.
+   */
+  public static final long DEFAULT_COMPACTION_BYTES = 64L << 20;
+
+  private static final int INITIAL_BUFFER = 1 << 16;
+
+  private final Path path;
+  private final Path next;
+  private final Path compacting;
+  private final Path snapshot;
+  private final long compactionBytes;
+  private FileChannel channel; // only used by the flusher once the journal is open
+  private long generation; // the generation of the current file
+  private long fileBytes; // the size of the current file
+  private final Map<Long, ConnectFourModel> recovered;
+  private final long maxGameId;
+  private final Thread flusher;
+  private Thread compactor; // the thread of the last compaction
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition hasRecords = lock.newCondition();
+  private final Condition flushed = lock.newCondition();
+  private ByteBuffer pending = ByteBuffer.allocate(INITIAL_BUFFER); // appended, not written
+  private ByteBuffer writing = ByteBuffer.allocate(INITIAL_BUFFER); // being written by flusher
+  private final CRC32 crc = new CRC32();
+  private long appended; // the sequence number of the last record appended
+  private long durable; // the sequence number of the last record forced to the disk
+  private long syncs;
+  private IOException failure;
+  private boolean closed;
+  private boolean compactionRunning;
+  private boolean compactionRequested;
+  private long rotations; // the number of files handed to a compaction
+  private long compacted; // the rotation whose compaction was the last to finish
+  private IOException compactionFailure;
+
+  /**
+   * Opens a journal that is compacted above the default size, creating the file if it does
+   * not exist and recovering the games of an existing one.
+   *
+   * @param path the file of the journal
+   * @throws IOException if the file cannot be read or written, is not a journal, or holds
+   *                     changes that cannot be replayed
+   */
+  public MoveJournal(Path path) throws IOException {
+    this(path, DEFAULT_COMPACTION_BYTES);
+  }
+
+  /**
+   * Opens a journal, creating the file if it does not exist and recovering the games of an
+   * existing one. The snapshot and the files of a compaction are kept next to the file.
+   *
+   * @param path            the file of the journal
+   * @param compactionBytes the size of the file above which it is compacted
+   * @throws IOException if the file cannot be read or written, is not a journal, or holds
+   *                     changes that cannot be replayed
+   */
+  public MoveJournal(Path path, long compactionBytes) throws IOException {
+    this.path = path;
+    this.next = sibling(path, ".next");
+    this.compacting = sibling(path, ".compacting");
+    this.snapshot = sibling(path, ".snapshot");
+    this.compactionBytes = compactionBytes;
+    if (!Files.exists(path) && Files.exists(next)) {
+      Files.move(next, path, StandardCopyOption.ATOMIC_MOVE); // a rotation cut short
+    }
+    Files.deleteIfExists(next);
+    JournalState state = Files.exists(snapshot) ? JournalState.read(snapshot)
+        : new JournalState();
+    boolean compact = false;
+    if (Files.exists(compacting)) {
+      try (FileChannel old = FileChannel.open(compacting, StandardOpenOption.READ)) {
+        if (readHeader(old) <= state.generation()) {
+          Files.delete(compacting); // the snapshot was written, the file not yet deleted
+        } else {
+          replay(old, state);
+          compact = true;
+        }
+      }
+    }
+    this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+        StandardOpenOption.WRITE);
+    try {
+      if (channel.size() == 0) {
+        this.generation = state.generation() + 1;
+        writeHeader(channel, generation);
+      } else {
+        this.generation = readHeader(channel);
+        channel.truncate(replay(channel, state));
+      }
+      channel.position(channel.size());
+      this.fileBytes = channel.size();
+      this.recovered = Collections.unmodifiableMap(state.models());
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+    this.maxGameId = state.maxGameId();
+    this.flusher = new Thread(this::flush, "move-journal");
+    this.flusher.setDaemon(true);
+    this.flusher.start();
+    if (compact) {
+      startCompaction(0); // the files of a compaction that did not finish
+    }
+  }
+
+  private static Path sibling(Path path, String suffix) {
+    return path.resolveSibling(path.getFileName() + suffix);
+  }
+
+  private static void writeHeader(FileChannel channel, long generation) throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+    header.putInt(MAGIC).putInt(VERSION).putLong(generation).flip();
+    writeFully(channel, header, 0);
+    channel.force(true);
+  }
+
+  /**
+   * Reads the header of a journal file.
+   *
+   * @return the generation of the file
+   */
+  private static long readHeader(FileChannel channel) throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+    if (channel.read(header, 0) < HEADER_BYTES || header.getInt(0) != MAGIC) {
+      throw new IOException("Not a move journal");
+    }
+    if (header.getInt(4) != VERSION) {
+      throw new IOException("Unsupported journal version " + header.getInt(4));
+    }
+    return header.getLong(8);
+  }
+
+  /**
+   * Reads the records of a journal file and applies them to the games.
+   *
+   * @return the offset of the end of the last good record
+   */
+  private static long replay(FileChannel channel, JournalState state) throws IOException {
+    long generation = readHeader(channel);
+    CRC32 crc = new CRC32();
+    ByteBuffer buffer = ByteBuffer.allocate(RECORD_BYTES * 4096);
+    long position = HEADER_BYTES;
+    long end = channel.size();
+    try {
+      while (position < end) {
+        buffer.clear();
+        channel.read(buffer, position);
+        buffer.flip();
+        while (buffer.remaining() >= RECORD_BYTES) {
+          int start = buffer.position();
+          if (checksum(crc, buffer, start) != (buffer.getInt(start + 12) & 0xFFFFFF)) {
+            return position; // a torn or corrupt record ends the journal
+          }
+          state.apply(buffer.getLong(start), buffer.get(start + 12), buffer.getInt(start + 8),
+              position);
+          buffer.position(start + RECORD_BYTES);
+          position += RECORD_BYTES;
+        }
+        if (buffer.remaining() > 0 && position + buffer.remaining() == end) {
+          return position; // a record cut short by a crash
+        }
+      }
+      return position;
+    } finally {
+      state.setGeneration(generation);
+    }
+  }
+
+  /**
+   * Computes the checksum of the record at the given position of a buffer.
+   */
+  static int checksum(CRC32 crc, ByteBuffer buffer, int start) {
+    crc.reset();
+    ByteBuffer record = buffer.duplicate();
+    record.position(start).limit(start + 13);
+    crc.update(record);
+    return (int) crc.getValue() & 0xFFFFFF;
+  }
+
+  private static void writeFully(FileChannel channel, ByteBuffer buffer, long position)
+      throws IOException {
+    while (buffer.hasRemaining()) {
+      position += channel.write(buffer, position);
+    }
+  }
+
+  /**
+   * Retrieves the games rebuilt from the journal when it was opened, by id. Games that were
+   * ended are not included.
+   *
+   * @return the recovered games, which the caller may go on playing
+   */
+  public Map<Long, ConnectFourModel> recovered() {
+    return recovered;
+  }
+
+  /**
+   * Retrieves the largest game id found in the journal when it was opened, so that new games
+   * can be given ids that were never used.
+   *
+   * @return the largest id, or -1 if the journal was empty
+   */
+  public long maxGameId() {
+    return maxGameId;
+  }
+
+  /**
+   * Records the start of a game.
+   *
+   * @param game    the id of the game
+   * @param rows    the number of rows of the board, from 4 to 65535
+   * @param columns the number of columns of the board, from 4 to 65535
+   * @return the sequence number of the record
+   * @throws IllegalArgumentException if the board is too large for the journal
+   * @throws IllegalStateException    if the journal is closed
+   */
+  public long newGame(long game, int rows, int columns)
+      throws IllegalArgumentException, IllegalStateException {
+    if (rows > 0xFFFF || columns > 0xFFFF) {
+      throw new IllegalArgumentException("The board is too large for the journal");
+    }
+    return append(game, NEW, (rows << 16) | columns);
+  }
+
+  /**
+   * Records a move accepted by a game.
+   *
+   * @param game   the id of the game
+   * @param column the column of the move
+   * @return the sequence number of the record
+   * @throws IllegalStateException if the journal is closed
+   */
+  public long move(long game, int column) throws IllegalStateException {
+    return append(game, MOVE, column);
+  }
+
+  /**
+   * Records a move taken back.
+   *
+   * @param game the id of the game
+   * @return the sequence number of the record
+   * @throws IllegalStateException if the journal is closed
+   */
+  public long undo(long game) throws IllegalStateException {
+    return append(game, UNDO, 0);
+  }
+
+  /**
+   * Records the board of a game being cleared.
+   *
+   * @param game the id of the game
+   * @return the sequence number of the record
+   * @throws IllegalStateException if the journal is closed
+   */
+  public long reset(long game) throws IllegalStateException {
+    return append(game, RESET, 0);
+  }
+
+  /**
+   * Records the end of a game, which is then no longer recovered.
+   *
+   * @param game the id of the game
+   * @return the sequence number of the record
+   * @throws IllegalStateException if the journal is closed
+   */
+  public long endGame(long game) throws IllegalStateException {
+    return append(game, END, 0);
+  }
+
+  private long append(long game, byte type, int value) throws IllegalStateException {
+    lock.lock();
+    try {
+      if (closed) {
+        throw new IllegalStateException("The journal is closed");
+      }
+      if (pending.remaining() < RECORD_BYTES) {
+        ByteBuffer bigger = ByteBuffer.allocate(2 * pending.capacity());
+        pending.flip();
+        bigger.put(pending);
+        pending = bigger;
+      }
+      int start = pending.position();
+      pending.putLong(game).putInt(value).put(type);
+      pending.put((byte) 0).put((byte) 0).put((byte) 0);
+      pending.putInt(start + 12, (type << 24) | checksum(crc, pending, start));
+      if (appended == durable) {
+        hasRecords.signal();
+      }
+      return ++appended;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Waits until a record, and every record appended before it, is on the disk.
+   *
+   * @param sequence the sequence number of the record
+   * @throws IOException          if the journal could not be written
+   * @throws InterruptedException if the thread is interrupted while waiting
+   */
+  public void await(long sequence) throws IOException, InterruptedException {
+    lock.lock();
+    try {
+      while (durable < sequence && failure == null) {
+        flushed.await();
+      }
+      if (durable < sequence) {
+        throw new IOException("The journal cannot be written", failure);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Retrieves the sequence number of the last record appended.
+   *
+   * @return the number of records appended since the journal was opened
+   */
+  public long appended() {
+    lock.lock();
+    try {
+      return appended;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Retrieves the number of times the journal was forced to the disk, which is much smaller
+   * than the number of records when many threads append at once.
+   *
+   * @return the number of forces since the journal was opened
+   */
+  public long syncs() {
+    lock.lock();
+    try {
+      return syncs;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Writes a snapshot of every game and drops the records it covers, without waiting for the
+   * file to grow above the compaction size, and waits until it is done. Appending goes on in
+   * the meantime.
+   *
+   * @throws IOException          if the snapshot cannot be written
+   * @throws InterruptedException if the thread is interrupted while waiting
+   */
+  public void snapshot() throws IOException, InterruptedException {
+    lock.lock();
+    try {
+      if (closed) {
+        throw new IllegalStateException("The journal is closed");
+      }
+      // the records appended so far are only covered by a rotation that comes after this one
+      long wanted = rotations + 1;
+      compactionRequested = true;
+      hasRecords.signal();
+      while (compacted < wanted && compactionFailure == null && failure == null) {
+        flushed.await();
+      }
+      if (compacted < wanted) {
+        throw new IOException("The snapshot cannot be written",
+            compactionFailure != null ? compactionFailure : failure);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Writes and forces the records appended so far, over and over, until the journal is closed,
+   * and starts a compaction whenever the file is large enough.
+   */
+  private void flush() {
+    while (true) {
+      long upTo;
+      lock.lock();
+      try {
+        while (appended == durable && !closed
+            && !(compactionRequested && !compactionRunning && compactionFailure == null)) {
+          hasRecords.awaitUninterruptibly();
+        }
+        if (appended == durable && closed) {
+          return; // closed, and everything is on the disk
+        }
+        ByteBuffer full = pending;
+        pending = writing;
+        writing = full;
+        upTo = appended;
+      } finally {
+        lock.unlock();
+      }
+      boolean rotate;
+      try {
+        writing.flip();
+        boolean wrote = writing.hasRemaining(); // false if only woken up for a compaction
+        while (writing.hasRemaining()) {
+          fileBytes += channel.write(writing);
+        }
+        if (wrote) {
+          channel.force(false);
+        }
+        writing.clear();
+        lock.lock();
+        try {
+          durable = upTo;
+          if (wrote) {
+            syncs++;
+          }
+          flushed.signalAll();
+          rotate = !compactionRunning && compactionFailure == null
+              && (compactionRequested || fileBytes >= compactionBytes);
+          if (rotate) {
+            compactionRunning = true;
+            compactionRequested = false;
+          }
+        } finally {
+          lock.unlock();
+        }
+        if (rotate) {
+          rotate();
+        }
+      } catch (IOException e) {
+        lock.lock();
+        try {
+          failure = e;
+          closed = true;
+          flushed.signalAll();
+        } finally {
+          lock.unlock();
+        }
+        return;
+      }
+    }
+  }
+
+  /**
+   * Hands the current file, whose records are all on the disk, to a compaction, and goes on
+   * with a new file of the next generation.
+   */
+  private void rotate() throws IOException {
+    FileChannel created = FileChannel.open(next, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      writeHeader(created, generation + 1);
+      created.position(HEADER_BYTES);
+      Files.move(path, compacting, StandardCopyOption.ATOMIC_MOVE);
+      Files.move(next, path, StandardCopyOption.ATOMIC_MOVE);
+      syncDirectory(path);
+    } catch (IOException e) {
+      created.close();
+      throw e;
+    }
+    channel.close();
+    channel = created;
+    generation++;
+    fileBytes = HEADER_BYTES;
+    long rotation;
+    lock.lock();
+    try {
+      rotation = ++rotations;
+    } finally {
+      lock.unlock();
+    }
+    startCompaction(rotation);
+  }
+
+  /**
+   * Forces the renaming of files in a directory to the disk, where the platform allows it.
+   */
+  private static void syncDirectory(Path file) {
+    Path directory = file.toAbsolutePath().getParent();
+    try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+      dir.force(true);
+    } catch (IOException e) {
+      // not every platform can open a directory; the renames are then as durable as it makes them
+    }
+  }
+
+  /**
+   * Starts compacting the renamed file into the snapshot on a thread of its own.
+   *
+   * @param rotation the rotation that renamed the file, or 0 for a file left by an earlier run
+   */
+  private void startCompaction(long rotation) {
+    lock.lock();
+    try {
+      compactionRunning = true;
+    } finally {
+      lock.unlock();
+    }
+    compactor = new Thread(() -> compact(rotation), "move-journal-compaction");
+    compactor.setDaemon(true);
+    compactor.start();
+  }
+
+  /**
+   * Applies the renamed file to the snapshot, writes the new snapshot and deletes the file.
+   */
+  private void compact(long rotation) {
+    IOException error = null;
+    try {
+      JournalState state = Files.exists(snapshot) ? JournalState.read(snapshot)
+          : new JournalState();
+      try (FileChannel old = FileChannel.open(compacting, StandardOpenOption.READ)) {
+        replay(old, state);
+      }
+      state.write(snapshot);
+      syncDirectory(snapshot);
+      Files.delete(compacting);
+    } catch (IOException e) {
+      error = e; // the files are left as they are, and the next opening tries again
+    }
+    lock.lock();
+    try {
+      compactionRunning = false;
+      if (error != null) {
+        compactionFailure = error;
+      } else {
+        compacted = Math.max(compacted, rotation);
+      }
+      flushed.signalAll();
+      hasRecords.signal();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Writes and forces the records appended so far, and closes the file. Records can no longer
+   * be appended.
+   *
+   * @throws IOException if the records cannot be written
+   */
+  @Override
+  public void close() throws IOException {
+    lock.lock();
+    try {
+      closed = true;
+      hasRecords.signal();
+    } finally {
+      lock.unlock();
+    }
+    try {
+      flusher.join(TimeUnit.MINUTES.toMillis(1));
+      Thread last = compactor;
+      if (last != null) {
+        last.join(TimeUnit.MINUTES.toMillis(1));
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    channel.close();
+    if (failure != null) {
+      throw new IOException("The journal cannot be written", failure);
+    }
+  }
+}
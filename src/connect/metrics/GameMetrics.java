@@ -0,0 +1,210 @@
+package connect.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Counters and latency histograms of the games played in this process: moves, illegal moves,
+ * calls to {@code getWinner}, games started and finished, and the time spent in the model, the
+ * controller and the view. The models are measured by wrapping them in an
+ * {@link InstrumentedConnectFourModel}, and the controller and the view record their own times.
+ *
+ * <p>Every counter is a {@link LongAdder} and every histogram a {@link LatencyHistogram}, so
+ * recording is thread-safe and costs a few nanoseconds even when many games record at once,
+ * e.g. on the event loops of the game server. Nothing is recorded by the models themselves, so
+ * games that are not instrumented, such as the playouts of the search engines, pay nothing.
+ *
+ * <p>{@link #global()} is the instance shared by the whole process, which is registered with
+ * the platform MBean server so that JMX clients can read it.
+ */
+public final class GameMetrics implements GameMetricsMXBean {
+
+  /**
+   * The name the global instance is registered under.
+   */
+  public static final String OBJECT_NAME = "connect:type=GameMetrics";
+
+  private final LongAdder movesMade = new LongAdder();
+  private final LongAdder illegalMoves = new LongAdder();
+  private final LongAdder winnerCalls = new LongAdder();
+  private final LongAdder gamesStarted = new LongAdder();
+  private final LongAdder gamesFinished = new LongAdder();
+  private final LongAdder activeGames = new LongAdder();
+  private final LatencyHistogram modelMoves = new LatencyHistogram();
+  private final LatencyHistogram controllerMoves = new LatencyHistogram();
+  private final LatencyHistogram paints = new LatencyHistogram();
+
+  /**
+   * Retrieves the instance shared by the whole process, registering it with the platform MBean
+   * server the first time.
+   *
+   * @return the global metrics
+   */
+  public static GameMetrics global() {
+    return Global.INSTANCE;
+  }
+
+  /**
+   * Holds the global instance, so that it is only created and registered when first used.
+   */
+  private static final class Global {
+
+    private static final GameMetrics INSTANCE = new GameMetrics();
+
+    static {
+      try {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(OBJECT_NAME);
+        if (!server.isRegistered(name)) {
+          server.registerMBean(INSTANCE, name);
+        }
+      } catch (JMException e) {
+        // the metrics are still recorded, they just cannot be read over JMX
+      }
+    }
+  }
+
+  /**
+   * Records a move accepted by a model.
+   *
+   * @param nanos the time the model took, in nanoseconds
+   */
+  public void moveMade(long nanos) {
+    movesMade.increment();
+    modelMoves.record(nanos);
+  }
+
+  /**
+   * Records a move rejected by a model.
+   */
+  public void illegalMove() {
+    illegalMoves.increment();
+  }
+
+  /**
+   * Records a call to {@code getWinner}.
+   */
+  public void winnerCalled() {
+    winnerCalls.increment();
+  }
+
+  /**
+   * Records the first move of a game.
+   */
+  public void gameStarted() {
+    gamesStarted.increment();
+    activeGames.increment();
+  }
+
+  /**
+   * Records the end of a game that was started, with a win or a draw.
+   */
+  public void gameFinished() {
+    gamesFinished.increment();
+    activeGames.decrement();
+  }
+
+  /**
+   * Records the undoing of the move that finished a game, which makes the game active again.
+   */
+  public void gameResumed() {
+    gamesFinished.decrement();
+    activeGames.increment();
+  }
+
+  /**
+   * Records a game that was started and cleared before it ended.
+   */
+  public void gameAbandoned() {
+    activeGames.decrement();
+  }
+
+  /**
+   * Records the handling of a move by a controller.
+   *
+   * @param nanos the time the controller took, in nanoseconds
+   */
+  public void controllerMove(long nanos) {
+    controllerMoves.record(nanos);
+  }
+
+  /**
+   * Records the painting of the board.
+   *
+   * @param nanos the time the view took, in nanoseconds
+   */
+  public void paint(long nanos) {
+    paints.record(nanos);
+  }
+
+  @Override
+  public long getMovesMade() {
+    return movesMade.sum();
+  }
+
+  @Override
+  public long getIllegalMoves() {
+    return illegalMoves.sum();
+  }
+
+  @Override
+  public long getWinnerCalls() {
+    return winnerCalls.sum();
+  }
+
+  @Override
+  public long getGamesStarted() {
+    return gamesStarted.sum();
+  }
+
+  @Override
+  public long getGamesFinished() {
+    return gamesFinished.sum();
+  }
+
+  @Override
+  public long getActiveGames() {
+    return activeGames.sum();
+  }
+
+  @Override
+  public LatencySnapshot getModelMoveLatency() {
+    return LatencySnapshot.of(modelMoves);
+  }
+
+  @Override
+  public LatencySnapshot getControllerMoveLatency() {
+    return LatencySnapshot.of(controllerMoves);
+  }
+
+  @Override
+  public LatencySnapshot getPaintLatency() {
+    return LatencySnapshot.of(paints);
+  }
+
+  @Override
+  public void reset() {
+    movesMade.reset();
+    illegalMoves.reset();
+    winnerCalls.reset();
+    gamesStarted.reset();
+    gamesFinished.reset();
+    modelMoves.reset();
+    controllerMoves.reset();
+    paints.reset();
+  }
+
+  @Override
+  public String toString() {
+    return "Moves: " + getMovesMade() + " (" + getIllegalMoves() + " illegal)\n"
+        + "Games: " + getGamesStarted() + " started, " + getGamesFinished() + " finished, "
+        + getActiveGames() + " active\n"
+        + "getWinner calls: " + getWinnerCalls() + "\n"
+        + "Model moves: " + getModelMoveLatency() + "\n"
+        + "Controller moves: " + getControllerMoveLatency() + "\n"
+        + "Paints: " + getPaintLatency();
+  }
+}
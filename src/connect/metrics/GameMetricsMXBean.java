@@ -0,0 +1,61 @@
+package connect.metrics;
+
+/**
+ * The management interface of {@link GameMetrics}, which JMX clients such as JConsole or
+ * VisualVM show under the name {@value GameMetrics#OBJECT_NAME}.
+ */
+public interface GameMetricsMXBean {
+
+  /**
+   * Retrieves the number of moves accepted by the models.
+   */
+  long getMovesMade();
+
+  /**
+   * Retrieves the number of moves the models rejected, e.g. into a full column.
+   */
+  long getIllegalMoves();
+
+  /**
+   * Retrieves the number of calls to {@link connect.ConnectFourModel#getWinner()}.
+   */
+  long getWinnerCalls();
+
+  /**
+   * Retrieves the number of games in which a first move was made.
+   */
+  long getGamesStarted();
+
+  /**
+   * Retrieves the number of games that ended with a win or a draw.
+   */
+  long getGamesFinished();
+
+  /**
+   * Retrieves the number of games that were started and are neither finished nor abandoned,
+   * e.g. by a reset in the middle of the game.
+   */
+  long getActiveGames();
+
+  /**
+   * Retrieves the time the models took to accept a move, including the listeners they notify.
+   */
+  LatencySnapshot getModelMoveLatency();
+
+  /**
+   * Retrieves the time the controller took to handle a move of the user on its game thread,
+   * from taking the move to queuing the changes for the view.
+   */
+  LatencySnapshot getControllerMoveLatency();
+
+  /**
+   * Retrieves the time the view took to paint the board.
+   */
+  LatencySnapshot getPaintLatency();
+
+  /**
+   * Sets every counter and histogram back to zero. The number of active games is kept, since
+   * those games are still being played.
+   */
+  void reset();
+}
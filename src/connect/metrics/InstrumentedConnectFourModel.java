@@ -0,0 +1,175 @@
+package connect.metrics;
+
+import connect.BoardView;
+import connect.ConnectFourModel;
+import connect.ModelListener;
+import connect.Player;
+
+/**
+ * A model that passes every call on to another model and records what happens in a
+ * {@link GameMetrics}: the time every move takes, the moves that are rejected, the calls to
+ * {@link #getWinner()}, and the games that are started, finished or abandoned.
+ *
+ * <p>A game is started by its first move and finished by the move that wins or fills the board.
+ * A game that is cleared before it is finished counts as abandoned, and taking back the move
+ * that finished a game makes it active again.
+ *
+ * <p>Like the models it wraps, an instrumented model is not thread-safe; the metrics it records
+ * to may be shared by any number of models on any number of threads.
+ */
+public class InstrumentedConnectFourModel implements ConnectFourModel {
+
+  private final ConnectFourModel model;
+  private final GameMetrics metrics;
+  private boolean started; // a move was made since the board was last cleared
+  private boolean finished; // the game was counted as finished
+
+  /**
+   * Constructor for the InstrumentedConnectFourModel class. The game of the model, if it is
+   * not empty, is counted as started.
+   *
+   * @param model   the model to pass the calls on to
+   * @param metrics the metrics to record to
+   * @throws IllegalArgumentException if the model or the metrics are null
+   */
+  public InstrumentedConnectFourModel(ConnectFourModel model, GameMetrics metrics)
+      throws IllegalArgumentException {
+    if (model == null || metrics == null) {
+      throw new IllegalArgumentException("The model and the metrics cannot be null");
+    }
+    this.model = model;
+    this.metrics = metrics;
+    if (model.getMoveHistory().length > 0) {
+      start();
+      finishIfOver();
+    }
+  }
+
+  /**
+   * Retrieves the model the calls are passed on to.
+   *
+   * @return the wrapped model
+   */
+  public ConnectFourModel unwrap() {
+    return model;
+  }
+
+  @Override
+  public void initializeBoard() {
+    abandon();
+    model.initializeBoard();
+  }
+
+  @Override
+  public void makeMove(int column) throws IllegalArgumentException {
+    long start = System.nanoTime();
+    try {
+      model.makeMove(column);
+    } catch (IllegalArgumentException e) {
+      metrics.illegalMove();
+      throw e;
+    }
+    metrics.moveMade(System.nanoTime() - start);
+    if (!started) {
+      start();
+    }
+    finishIfOver();
+  }
+
+  @Override
+  public void undoMove() throws IllegalStateException {
+    model.undoMove();
+    if (finished && !model.isGameOver()) {
+      // the finishing move was taken back, so the game goes on
+      finished = false;
+      metrics.gameResumed();
+    }
+  }
+
+  private void start() {
+    started = true;
+    metrics.gameStarted();
+  }
+
+  private void finishIfOver() {
+    if (!finished && model.isGameOver()) {
+      finished = true;
+      metrics.gameFinished();
+    }
+  }
+
+  private void abandon() {
+    if (started && !finished) {
+      metrics.gameAbandoned();
+    }
+    started = false;
+    finished = false;
+  }
+
+  @Override
+  public Player getTurn() {
+    return model.getTurn();
+  }
+
+  @Override
+  public boolean isGameOver() {
+    return model.isGameOver();
+  }
+
+  @Override
+  public boolean isLegalMove(int column) {
+    return model.isLegalMove(column);
+  }
+
+  @Override
+  public int[] getLegalMoves() {
+    return model.getLegalMoves();
+  }
+
+  @Override
+  public Player getWinner() {
+    metrics.winnerCalled();
+    return model.getWinner();
+  }
+
+  @Override
+  public long getPositionKey() {
+    return model.getPositionKey();
+  }
+
+  @Override
+  public int[] getMoveHistory() {
+    return model.getMoveHistory();
+  }
+
+  @Override
+  public void resetBoard() {
+    abandon();
+    model.resetBoard();
+  }
+
+  @Override
+  public Player[][] getBoardState() {
+    return model.getBoardState();
+  }
+
+  @Override
+  public BoardView getBoardView() {
+    return model.getBoardView();
+  }
+
+  @Override
+  public void addModelListener(ModelListener listener) throws IllegalArgumentException {
+    model.addModelListener(listener);
+  }
+
+  @Override
+  public void removeModelListener(ModelListener listener) {
+    model.removeModelListener(listener);
+  }
+
+  @Override
+  public String toString() {
+    return model.toString();
+  }
+}
@@ -0,0 +1,126 @@
+package connect.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of latencies with logarithmic buckets: every power of two is split into 16
+ * buckets, so any percentile is accurate to about 6 percent whatever the range of the values,
+ * and recording a value takes constant time and no allocation.
+ *
+ * <p>The histogram is thread-safe. Every bucket is a {@link LongAdder}, which spreads concurrent
+ * updates over several cells instead of making the threads fight over one counter, so many
+ * threads can record at once at little more cost than one. Reading sums the cells, so a
+ * percentile read while values are being recorded may miss the latest ones.
+ */
+public final class LatencyHistogram {
+
+  private static final int SUB_BITS = 4;
+  private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+  private final LongAdder[] counts = new LongAdder[(64 - SUB_BITS + 1) * SUB_BUCKETS];
+  private final LongAdder total = new LongAdder();
+  private final LongAdder sum = new LongAdder();
+  private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+  /**
+   * Constructor for the LatencyHistogram class. The histogram starts empty.
+   */
+  public LatencyHistogram() {
+    for (int i = 0; i < counts.length; i++) {
+      counts[i] = new LongAdder();
+    }
+  }
+
+  /**
+   * Records a value.
+   *
+   * @param nanos the latency, in nanoseconds
+   */
+  public void record(long nanos) {
+    long value = Math.max(0, nanos);
+    counts[bucket(value)].increment();
+    total.increment();
+    sum.add(value);
+    max.accumulate(value);
+  }
+
+  /**
+   * Retrieves the number of values recorded.
+   */
+  public long count() {
+    return total.sum();
+  }
+
+  /**
+   * Retrieves the largest value recorded, in nanoseconds, or 0 if nothing was recorded.
+   */
+  public long max() {
+    return max.get();
+  }
+
+  /**
+   * Retrieves the mean of the values recorded, in nanoseconds, or 0 if nothing was recorded.
+   */
+  public double mean() {
+    long count = total.sum();
+    return count == 0 ? 0 : (double) sum.sum() / count;
+  }
+
+  /**
+   * Retrieves a percentile.
+   *
+   * @param percent the percentile, from 0 to 100
+   * @return the upper bound of the bucket holding that percentile, in nanoseconds, or 0 if
+   *         nothing was recorded
+   */
+  public long percentile(double percent) {
+    long[] snapshot = new long[counts.length];
+    long recorded = 0;
+    for (int i = 0; i < counts.length; i++) {
+      snapshot[i] = counts[i].sum();
+      recorded += snapshot[i];
+    }
+    long rank = (long) Math.ceil(recorded * percent / 100);
+    long largest = max.get();
+    long seen = 0;
+    for (int i = 0; i < snapshot.length; i++) {
+      seen += snapshot[i];
+      if (seen >= Math.max(1, rank)) {
+        return Math.min(largest, upperBound(i));
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Empties the histogram. Values recorded while it is being reset may or may not be kept.
+   */
+  public void reset() {
+    for (LongAdder count : counts) {
+      count.reset();
+    }
+    total.reset();
+    sum.reset();
+    max.reset();
+  }
+
+  private static int bucket(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+    return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+  }
+
+  private static long upperBound(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+    long sub = bucket % SUB_BUCKETS;
+    long width = 1L << (exponent - SUB_BITS);
+    return (1L << exponent) + (sub + 1) * width - 1;
+  }
+}
@@ -0,0 +1,81 @@
+package connect.metrics;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * A summary of a {@link LatencyHistogram} at one point in time, as shown by the
+ * {@link GameMetricsMXBean}. JMX clients see it as a composite value with one item per getter.
+ * All the latencies are in microseconds.
+ */
+public final class LatencySnapshot {
+
+  private final long count;
+  private final double mean;
+  private final double p50;
+  private final double p99;
+  private final double p999;
+  private final double max;
+
+  /**
+   * Constructor for the LatencySnapshot class.
+   *
+   * @param count the number of values recorded
+   * @param mean  the mean latency
+   * @param p50   the median latency
+   * @param p99   the 99th percentile
+   * @param p999  the 99.9th percentile
+   * @param max   the largest latency
+   */
+  @ConstructorProperties({"count", "mean", "p50", "p99", "p999", "max"})
+  public LatencySnapshot(long count, double mean, double p50, double p99, double p999,
+      double max) {
+    this.count = count;
+    this.mean = mean;
+    this.p50 = p50;
+    this.p99 = p99;
+    this.p999 = p999;
+    this.max = max;
+  }
+
+  /**
+   * Summarizes a histogram of latencies in nanoseconds.
+   *
+   * @param histogram the histogram
+   * @return the summary, in microseconds
+   */
+  public static LatencySnapshot of(LatencyHistogram histogram) {
+    return new LatencySnapshot(histogram.count(), histogram.mean() / 1e3,
+        histogram.percentile(50) / 1e3, histogram.percentile(99) / 1e3,
+        histogram.percentile(99.9) / 1e3, histogram.max() / 1e3);
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public double getMean() {
+    return mean;
+  }
+
+  public double getP50() {
+    return p50;
+  }
+
+  public double getP99() {
+    return p99;
+  }
+
+  public double getP999() {
+    return p999;
+  }
+
+  public double getMax() {
+    return max;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%d values, mean %.1f us, p50 %.1f us, p99 %.1f us, p99.9 %.1f us, "
+        + "max %.1f us", count, mean, p50, p99, p999, max);
+  }
+}
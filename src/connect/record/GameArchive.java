@@ -0,0 +1,145 @@
+package connect.record;
+
+import connect.ConnectFourModelImpl;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Random access to the games of a file written by {@link GameRecordWriter}. The file is
+ * memory-mapped, and the index at its end gives the offset of every game, so fetching a game by
+ * id reads only that game and its index entry, however large the file is.
+ *
+ * <p>A single mapping cannot exceed 2 GB, so larger files are mapped in segments of 1 GB. Each
+ * segment overlaps the next by the size of the largest record, so every record and every index
+ * entry lies entirely within the segment it starts in.
+ *
+ * <p>An archive can be read by several threads at once.
+ */
+public class GameArchive implements Closeable {
+
+  private static final int SEGMENT_BITS = 30;
+  private static final long SEGMENT_SIZE = 1L << SEGMENT_BITS;
+
+  private final FileChannel channel;
+  private final MappedByteBuffer[] segments;
+  private final long count;
+  private final long indexOffset;
+
+  /**
+   * Opens an archive.
+   *
+   * @param path the file to open
+   * @throws IOException if the file cannot be read, is not of a supported version, or has no
+   *                     valid index because its writer was not closed
+   */
+  public GameArchive(Path path) throws IOException {
+    this.channel = FileChannel.open(path, StandardOpenOption.READ);
+    try {
+      long size = channel.size();
+      if (size < GameRecordFormat.FILE_HEADER_BYTES + 1 + GameRecordFormat.TRAILER_BYTES) {
+        throw new IOException("The archive has no index");
+      }
+      int segmentCount = (int) ((size + SEGMENT_SIZE - 1) >>> SEGMENT_BITS);
+      this.segments = new MappedByteBuffer[segmentCount];
+      for (int i = 0; i < segmentCount; i++) {
+        long start = (long) i << SEGMENT_BITS;
+        long length = Math.min(size - start, SEGMENT_SIZE + GameRecordFormat.MAX_RECORD_BYTES);
+        this.segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+      }
+      ByteBuffer header = slice(0);
+      if (header.getInt() != GameRecordFormat.MAGIC) {
+        throw new IOException("Not a game record file");
+      }
+      int version = header.get() & 0xFF;
+      if (version != GameRecordFormat.VERSION) {
+        throw new IOException("Unsupported game record version " + version);
+      }
+      ByteBuffer trailer = slice(size - GameRecordFormat.TRAILER_BYTES);
+      this.count = trailer.getLong();
+      this.indexOffset = trailer.getLong();
+      if (trailer.getInt() != GameRecordFormat.MAGIC || count < 0
+          || indexOffset + 8 * count != size - GameRecordFormat.TRAILER_BYTES) {
+        throw new IOException("The archive has no index");
+      }
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Retrieves the number of games in the archive.
+   *
+   * @return the number of games
+   */
+  public long size() {
+    return count;
+  }
+
+  /**
+   * Reads a game.
+   *
+   * @param id the id of the game, from 0 to {@code size() - 1}
+   * @return the record of the game
+   * @throws IllegalArgumentException if there is no game with that id
+   * @throws IOException              if the record is corrupt
+   */
+  public GameRecord get(long id) throws IllegalArgumentException, IOException {
+    if (id < 0 || id >= count) {
+      throw new IllegalArgumentException("There is no game with id " + id);
+    }
+    long offset = slice(indexOffset + 8 * id).getLong();
+    if (offset < GameRecordFormat.FILE_HEADER_BYTES || offset >= indexOffset) {
+      throw new IOException("Corrupt index entry for game " + id);
+    }
+    ByteBuffer record = slice(offset);
+    int rows = record.get() & 0xFF;
+    int columns = record.get() & 0xFF;
+    int result = record.get() & 0xFF;
+    int moves = record.getShort() & 0xFFFF;
+    byte[] packed = new byte[GameRecordFormat.packedLength(columns, moves)];
+    if (packed.length > record.remaining()) {
+      throw new IOException("Corrupt record for game " + id);
+    }
+    record.get(packed);
+    return GameRecordFormat.record(rows, columns, result,
+        GameRecordFormat.unpack(columns, packed, moves));
+  }
+
+  /**
+   * Replays a game on a new model, reading only that game from the file.
+   *
+   * @param id the id of the game, from 0 to {@code size() - 1}
+   * @return a model in the final position of the game
+   * @throws IllegalArgumentException if there is no game with that id, or a move is illegal
+   * @throws IOException              if the record is corrupt
+   */
+  public ConnectFourModelImpl replay(long id) throws IllegalArgumentException, IOException {
+    return get(id).replay();
+  }
+
+  /**
+   * Creates a buffer of its own positioned at the given offset of the file, so that threads
+   * never share a buffer position.
+   */
+  private ByteBuffer slice(long offset) {
+    ByteBuffer buffer = segments[(int) (offset >>> SEGMENT_BITS)].duplicate();
+    buffer.position((int) (offset & (SEGMENT_SIZE - 1)));
+    return buffer;
+  }
+
+  /**
+   * Closes the file. The mapped segments are released once they are garbage collected.
+   *
+   * @throws IOException if the file cannot be closed
+   */
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
@@ -0,0 +1,173 @@
+package connect.record;
+
+import connect.ConnectFourModel;
+import connect.ConnectFourModelImpl;
+import connect.GameStatus;
+import connect.Player;
+import java.util.Arrays;
+
+/**
+ * A stored Connect Four game: the size of the board, the columns of the moves in the order they
+ * were made, and how the game ended. Records are immutable.
+ */
+public final class GameRecord {
+
+  /**
+   * The largest number of rows or columns a record can store.
+   */
+  public static final int MAX_SIZE = 255;
+
+  private final int rows;
+  private final int columns;
+  private final int[] moves;
+  private final GameStatus status;
+  private final Player winner;
+
+  /**
+   * Constructor for the GameRecord class. The moves are not checked against the rules; that
+   * happens when the game is replayed.
+   *
+   * @param rows    the number of rows of the board, from 4 to {@link #MAX_SIZE}
+   * @param columns the number of columns of the board, from 4 to {@link #MAX_SIZE}
+   * @param moves   the column of every move, in order
+   * @param status  how the game ended, or {@link GameStatus#IN_PROGRESS} if it did not
+   * @param winner  the winner if the status is {@link GameStatus#WON}, null otherwise
+   * @throws IllegalArgumentException if the board size is out of range, there are more moves
+   *                                  than cells, a column is out of bounds, or the winner does
+   *                                  not match the status
+   */
+  public GameRecord(int rows, int columns, int[] moves, GameStatus status, Player winner)
+      throws IllegalArgumentException {
+    if (rows < 4 || columns < 4 || rows > MAX_SIZE || columns > MAX_SIZE) {
+      throw new IllegalArgumentException("The number of rows and columns must be between 4 and "
+          + MAX_SIZE);
+    }
+    if (moves.length > rows * columns) {
+      throw new IllegalArgumentException("There are more moves than cells");
+    }
+    for (int move : moves) {
+      if (move < 0 || move >= columns) {
+        throw new IllegalArgumentException("The column is out of bounds");
+      }
+    }
+    if ((status == GameStatus.WON) != (winner != null)) {
+      throw new IllegalArgumentException("There must be a winner if and only if the game is won");
+    }
+    this.rows = rows;
+    this.columns = columns;
+    this.moves = moves.clone();
+    this.status = status;
+    this.winner = winner;
+  }
+
+  /**
+   * Creates a record of the moves made on a model so far.
+   *
+   * @param model the model to record
+   * @return a record of the game of the model
+   * @throws IllegalArgumentException if the board is larger than {@link #MAX_SIZE}
+   */
+  public static GameRecord of(ConnectFourModel model) throws IllegalArgumentException {
+    GameStatus status;
+    if (model.getWinner() != null) {
+      status = GameStatus.WON;
+    } else if (model.isGameOver()) {
+      status = GameStatus.DRAW;
+    } else {
+      status = GameStatus.IN_PROGRESS;
+    }
+    return new GameRecord(model.getBoardView().getRows(), model.getBoardView().getColumns(),
+        model.getMoveHistory(), status, model.getWinner());
+  }
+
+  public int getRows() {
+    return rows;
+  }
+
+  public int getColumns() {
+    return columns;
+  }
+
+  /**
+   * Retrieves the columns of the moves, in the order they were made.
+   *
+   * @return a copy of the moves
+   */
+  public int[] getMoves() {
+    return moves.clone();
+  }
+
+  /**
+   * Retrieves the number of moves of the game.
+   *
+   * @return the number of moves
+   */
+  public int getMoveCount() {
+    return moves.length;
+  }
+
+  public GameStatus getStatus() {
+    return status;
+  }
+
+  public Player getWinner() {
+    return winner;
+  }
+
+  /**
+   * Replays the game on a new model.
+   *
+   * @return a model in the final position of the game
+   * @throws IllegalArgumentException if a move is illegal
+   */
+  public ConnectFourModelImpl replay() throws IllegalArgumentException {
+    ConnectFourModelImpl model = new ConnectFourModelImpl(rows, columns);
+    replayInto(model);
+    return model;
+  }
+
+  /**
+   * Resets a model and replays the game on it.
+   *
+   * @param model a model with the same board size as the record
+   * @throws IllegalArgumentException if the board size differs, or a move is illegal
+   */
+  public void replayInto(ConnectFourModel model) throws IllegalArgumentException {
+    if (model.getBoardView().getRows() != rows || model.getBoardView().getColumns() != columns) {
+      throw new IllegalArgumentException("The board size does not match the record");
+    }
+    model.resetBoard();
+    for (int move : moves) {
+      model.makeMove(move);
+    }
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (!(o instanceof GameRecord)) {
+      return false;
+    }
+    GameRecord other = (GameRecord) o;
+    return rows == other.rows && columns == other.columns && status == other.status
+        && winner == other.winner && Arrays.equals(moves, other.moves);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * (31 * rows + columns) + Arrays.hashCode(moves);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder string = new StringBuilder();
+    string.append(rows).append('x').append(columns).append(' ');
+    for (int i = 0; i < moves.length; i++) {
+      if (i > 0 && columns > 9) {
+        string.append(','); // columns above 9 take more than one digit
+      }
+      string.append(moves[i] + 1);
+    }
+    string.append(' ').append(status == GameStatus.WON ? winner + " wins" : status);
+    return string.toString();
+  }
+}
@@ -0,0 +1,121 @@
+package connect.record;
+
+import connect.GameStatus;
+import connect.Player;
+import java.io.IOException;
+
+/**
+ * The layout of a game record file, shared by the writer, the reader and the archive.
+ *
+ * <p>A file starts with the magic number {@code "C4GR"} and a version byte, followed by the
+ * records. Every record is:
+ * <pre>
+ *   rows      1 byte
+ *   columns   1 byte
+ *   result    1 byte   0 = in progress, 1 = red won, 2 = yellow won, 3 = draw
+ *   moves     2 bytes  the number of moves, big-endian
+ *   columns   one nibble per move (two moves per byte, first move in the high nibble) on
+ *             boards of up to 16 columns, one byte per move on wider boards
+ * </pre>
+ * A classic 6 * 7 game therefore takes 5 bytes plus half a byte per move. A zero byte where the
+ * next record would start ends the records. It is followed by the index, the offset of every
+ * record from the start of the file as an 8-byte number, and a trailer with the number of
+ * records, the offset of the index and the magic number again.
+ */
+final class GameRecordFormat {
+
+  static final int MAGIC = 0x43344752; // "C4GR"
+  static final int VERSION = 1;
+  static final int FILE_HEADER_BYTES = 5;
+  static final int RECORD_HEADER_BYTES = 5;
+  static final int END_OF_RECORDS = 0;
+  static final int TRAILER_BYTES = 20;
+  static final int MAX_RECORD_BYTES =
+      RECORD_HEADER_BYTES + GameRecord.MAX_SIZE * GameRecord.MAX_SIZE;
+
+  private GameRecordFormat() {
+    // constants and static helpers only
+  }
+
+  static int result(GameRecord record) {
+    switch (record.getStatus()) {
+      case WON:
+        return record.getWinner() == Player.RED ? 1 : 2;
+      case DRAW:
+        return 3;
+      default:
+        return 0;
+    }
+  }
+
+  static GameStatus status(int result) throws IOException {
+    switch (result) {
+      case 0:
+        return GameStatus.IN_PROGRESS;
+      case 1:
+      case 2:
+        return GameStatus.WON;
+      case 3:
+        return GameStatus.DRAW;
+      default:
+        throw new IOException("Corrupt record: unknown result " + result);
+    }
+  }
+
+  static Player winner(int result) {
+    return result == 1 ? Player.RED : result == 2 ? Player.YELLOW : null;
+  }
+
+  /**
+   * Retrieves the number of bytes the moves of a record take.
+   */
+  static int packedLength(int columns, int moves) {
+    return columns <= 16 ? (moves + 1) / 2 : moves;
+  }
+
+  /**
+   * Packs the moves into bytes, one nibble or one byte per move.
+   */
+  static byte[] pack(int columns, int[] moves) {
+    byte[] packed = new byte[packedLength(columns, moves.length)];
+    if (columns > 16) {
+      for (int i = 0; i < moves.length; i++) {
+        packed[i] = (byte) moves[i];
+      }
+      return packed;
+    }
+    for (int i = 0; i < moves.length; i++) {
+      packed[i >>> 1] |= (byte) ((i & 1) == 0 ? moves[i] << 4 : moves[i]);
+    }
+    return packed;
+  }
+
+  /**
+   * Unpacks moves packed by {@link #pack(int, int[])}.
+   */
+  static int[] unpack(int columns, byte[] packed, int count) {
+    int[] moves = new int[count];
+    if (columns > 16) {
+      for (int i = 0; i < count; i++) {
+        moves[i] = packed[i] & 0xFF;
+      }
+      return moves;
+    }
+    for (int i = 0; i < count; i++) {
+      int b = packed[i >>> 1] & 0xFF;
+      moves[i] = (i & 1) == 0 ? b >>> 4 : b & 0x0F;
+    }
+    return moves;
+  }
+
+  /**
+   * Creates a record from its decoded fields, turning invalid data into an IOException.
+   */
+  static GameRecord record(int rows, int columns, int result, int[] moves) throws IOException {
+    try {
+      return new GameRecord(rows, columns, moves, status(result), winner(result));
+    } catch (IllegalArgumentException e) {
+      throw new IOException("Corrupt record: " + e.getMessage(), e);
+    }
+  }
+}
@@ -0,0 +1,83 @@
+package connect.record;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Reads the game records of a file written by {@link GameRecordWriter} one after another, from
+ * the first to the last. Only the record being read is kept in memory, and the index at the end
+ * of the file is never read, so the records of a file whose writer was never closed can still
+ * be read.
+ */
+public class GameRecordReader implements Closeable {
+
+  private final DataInputStream in;
+  private boolean done;
+
+  /**
+   * Creates a reader that reads from a stream. The stream is closed when the reader is closed.
+   *
+   * @param in the stream to read from
+   * @throws IOException if the file header cannot be read or is not a game record header
+   */
+  public GameRecordReader(InputStream in) throws IOException {
+    this.in = new DataInputStream(new BufferedInputStream(in, 1 << 16));
+    if (this.in.readInt() != GameRecordFormat.MAGIC) {
+      throw new IOException("Not a game record file");
+    }
+    int version = this.in.readUnsignedByte();
+    if (version != GameRecordFormat.VERSION) {
+      throw new IOException("Unsupported game record version " + version);
+    }
+  }
+
+  /**
+   * Creates a reader that reads from a file.
+   *
+   * @param path the file to read from
+   * @throws IOException if the file cannot be opened or is not a game record file
+   */
+  public GameRecordReader(Path path) throws IOException {
+    this(Files.newInputStream(path));
+  }
+
+  /**
+   * Reads the next record.
+   *
+   * @return the next record, or null if there are no more records
+   * @throws IOException if the record cannot be read or is corrupt
+   */
+  public GameRecord next() throws IOException {
+    if (done) {
+      return null;
+    }
+    int rows = in.read();
+    if (rows == -1 || rows == GameRecordFormat.END_OF_RECORDS) {
+      // a file whose writer was never closed ends without the end marker
+      done = true;
+      return null;
+    }
+    try {
+      int columns = in.readUnsignedByte();
+      int result = in.readUnsignedByte();
+      int count = in.readUnsignedShort();
+      byte[] packed = new byte[GameRecordFormat.packedLength(columns, count)];
+      in.readFully(packed);
+      return GameRecordFormat.record(rows, columns, result,
+          GameRecordFormat.unpack(columns, packed, count));
+    } catch (EOFException e) {
+      throw new IOException("Corrupt record: the file ends inside a record", e);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    in.close();
+  }
+}
@@ -0,0 +1,164 @@
+package connect.record;
+
+import connect.ConnectFourModel;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes game records one after another to a stream, in the format described in
+ * {@link GameRecordFormat}. Closing the writer appends the index of the records, so that the
+ * file can be opened as a {@link GameArchive}.
+ *
+ * <p>Only the record being written is kept in memory. The offsets for the index are spooled to a
+ * temporary file until the writer is closed, so any number of games can be written.
+ */
+public class GameRecordWriter implements Closeable {
+
+  private final DataOutputStream out;
+  private final Path indexFile;
+  private final DataOutputStream index;
+  private long position;
+  private long count;
+  private boolean closed;
+
+  /**
+   * Creates a writer that writes to a stream. The stream is closed when the writer is closed.
+   *
+   * @param out the stream to write to
+   * @throws IOException if the file header cannot be written
+   */
+  public GameRecordWriter(OutputStream out) throws IOException {
+    this.out = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+    Path indexFile = null;
+    DataOutputStream index = null;
+    try {
+      indexFile = Files.createTempFile("connect-four-index", ".tmp");
+      index = new DataOutputStream(
+          new BufferedOutputStream(Files.newOutputStream(indexFile), 1 << 16));
+      this.out.writeInt(GameRecordFormat.MAGIC);
+      this.out.writeByte(GameRecordFormat.VERSION);
+    } catch (IOException | RuntimeException e) {
+      discard(this.out, index, indexFile, e);
+      throw e;
+    }
+    this.indexFile = indexFile;
+    this.index = index;
+    this.position = GameRecordFormat.FILE_HEADER_BYTES;
+  }
+
+  /**
+   * Creates a writer that writes to a new file, replacing any file of the same name.
+   *
+   * @param path the file to write to
+   * @throws IOException if the file cannot be created
+   */
+  public GameRecordWriter(Path path) throws IOException {
+    this(Files.newOutputStream(path));
+  }
+
+  /**
+   * Writes the game played on a model so far.
+   *
+   * @param model the model whose game to write
+   * @return the id of the game, i.e. the number of games written before it
+   * @throws IOException if the record cannot be written
+   */
+  public long write(ConnectFourModel model) throws IOException {
+    return write(GameRecord.of(model));
+  }
+
+  /**
+   * Writes a game record.
+   *
+   * @param record the record to write
+   * @return the id of the game, i.e. the number of games written before it
+   * @throws IOException if the record cannot be written, in which case the writer is closed
+   *                     without an index, or the writer is closed
+   */
+  public long write(GameRecord record) throws IOException {
+    if (closed) {
+      throw new IOException("The writer is closed");
+    }
+    byte[] packed = GameRecordFormat.pack(record.getColumns(), record.getMoves());
+    try {
+      index.writeLong(position);
+      out.writeByte(record.getRows());
+      out.writeByte(record.getColumns());
+      out.writeByte(GameRecordFormat.result(record));
+      out.writeShort(record.getMoveCount());
+      out.write(packed);
+    } catch (IOException e) {
+      // the record may be half written, so the writer cannot go on
+      closed = true;
+      discard(out, index, indexFile, e);
+      throw e;
+    }
+    position += GameRecordFormat.RECORD_HEADER_BYTES + packed.length;
+    return count++;
+  }
+
+  /**
+   * Retrieves the number of games written so far.
+   *
+   * @return the number of games
+   */
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * Ends the records, appends the index and the trailer, and closes the stream.
+   *
+   * @throws IOException if the index cannot be written
+   */
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      index.close();
+      out.writeByte(GameRecordFormat.END_OF_RECORDS);
+      long indexOffset = position + 1;
+      Files.copy(indexFile, out);
+      out.writeLong(count);
+      out.writeLong(indexOffset);
+      out.writeInt(GameRecordFormat.MAGIC);
+      out.close();
+    } catch (IOException | RuntimeException e) {
+      discard(out, index, indexFile, e);
+      throw e;
+    } finally {
+      Files.deleteIfExists(indexFile);
+    }
+  }
+
+  /**
+   * Closes the streams and deletes the index file after a failure, adding any further failure
+   * to the first one.
+   */
+  private static void discard(Closeable out, Closeable index, Path indexFile, Exception failure) {
+    for (Closeable stream : new Closeable[] {index, out}) {
+      try {
+        if (stream != null) {
+          stream.close();
+        }
+      } catch (IOException e) {
+        failure.addSuppressed(e);
+      }
+    }
+    try {
+      if (indexFile != null) {
+        Files.deleteIfExists(indexFile);
+      }
+    } catch (IOException e) {
+      failure.addSuppressed(e);
+    }
+  }
+}
@@ -0,0 +1,472 @@
+package connect.server;
+
+import connect.ModelPool;
+import connect.journal.MoveJournal;
+import connect.metrics.GameMetrics;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A server that hosts many Connect Four games at once over non-blocking sockets, one game per
+ * connection, speaking the line protocol described in {@link Session}.
+ *
+ * <p>The server runs a fixed number of event loops, typically one per processor. Each loop is a
+ * thread with its own {@link Selector} and serves its connections from start to end, so a
+ * session is never touched by two threads. The first loop also accepts new connections and hands
+ * them to the loops in turn. No thread ever blocks on a single client, so the number of sessions
+ * is bounded by memory and file handles rather than by threads. The models of closed sessions
+ * go back to a {@link ModelPool}, so new sessions mostly reuse them instead of creating new ones.
+ * The moves and games of every session are recorded in {@link GameMetrics#global()}.
+ *
+ * <p>A server can write every change to its games to a {@link MoveJournal}, and then only sends
+ * the responses once the changes are on the disk. A loop first runs the commands of every
+ * connection that is ready, then waits once for all of their changes, so a single force of the
+ * journal covers many commands of many connections. The games that were in progress when the
+ * server stopped are recovered from the journal, and clients can go on with them with the
+ * {@code RESUME} command.
+ */
+public class GameServer implements Closeable {
+
+  private static final int BUFFER_SIZE = 1024;
+  private static final int MAX_LINE = 256;
+  private static final int MAX_IDLE_MODELS = 4096;
+
+  private final InetSocketAddress address;
+  private final int rows;
+  private final int columns;
+  private final EventLoop[] loops;
+  private final AtomicInteger sessions = new AtomicInteger();
+  private final ModelPool pool = new ModelPool(MAX_IDLE_MODELS);
+  private final GameMetrics metrics = GameMetrics.global();
+  private final SessionJournal journal;
+  private ServerSocketChannel server;
+  private int nextLoop;
+
+  /**
+   * Constructor for the GameServer class. The server does not listen until it is started.
+   *
+   * @param address the address to listen on, with port 0 for any free port
+   * @param loops   the number of event loop threads, at least 1
+   * @param rows    the number of rows of the board of a new session
+   * @param columns the number of columns of the board of a new session
+   * @throws IllegalArgumentException if there are no loops, or the board is too small or too
+   *                                  large
+   */
+  public GameServer(InetSocketAddress address, int loops, int rows, int columns)
+      throws IllegalArgumentException {
+    this(address, loops, rows, columns, null);
+  }
+
+  /**
+   * Constructor for the GameServer class, with a journal that makes the games survive a
+   * restart. The server does not listen until it is started, and does not close the journal.
+   *
+   * @param address the address to listen on, with port 0 for any free port
+   * @param loops   the number of event loop threads, at least 1
+   * @param rows    the number of rows of the board of a new session
+   * @param columns the number of columns of the board of a new session
+   * @param journal the journal to write the changes to the games to, or null for none
+   * @throws IllegalArgumentException if there are no loops, or the board is too small or too
+   *                                  large
+   */
+  public GameServer(InetSocketAddress address, int loops, int rows, int columns,
+      MoveJournal journal) throws IllegalArgumentException {
+    if (loops < 1) {
+      throw new IllegalArgumentException("There must be at least one event loop");
+    }
+    if (rows < 4 || columns < 4 || rows > Session.MAX_SIZE || columns > Session.MAX_SIZE) {
+      throw new IllegalArgumentException("The number of rows and columns must be between 4 and "
+          + Session.MAX_SIZE);
+    }
+    this.address = address;
+    this.rows = rows;
+    this.columns = columns;
+    this.loops = new EventLoop[loops];
+    this.journal = new SessionJournal(journal);
+  }
+
+  /**
+   * Starts listening and starts the event loop threads.
+   *
+   * @throws IOException if the address cannot be bound
+   */
+  public void start() throws IOException {
+    server = ServerSocketChannel.open();
+    server.bind(address, 4096);
+    server.configureBlocking(false);
+    for (int i = 0; i < loops.length; i++) {
+      loops[i] = new EventLoop(Selector.open());
+    }
+    server.register(loops[0].selector, SelectionKey.OP_ACCEPT);
+    for (int i = 0; i < loops.length; i++) {
+      loops[i].thread = new Thread(loops[i], "game-server-" + i);
+      loops[i].thread.setDaemon(true);
+      loops[i].thread.start();
+    }
+  }
+
+  /**
+   * Retrieves the port the server listens on, which is useful when it was started on port 0.
+   *
+   * @return the local port
+   * @throws IOException if the port cannot be read
+   */
+  public int getPort() throws IOException {
+    return ((InetSocketAddress) server.getLocalAddress()).getPort();
+  }
+
+  /**
+   * Retrieves the number of open sessions.
+   *
+   * @return the number of connected clients
+   */
+  public int getSessionCount() {
+    return sessions.get();
+  }
+
+  /**
+   * Retrieves the number of games recovered from the journal that no client has resumed yet.
+   *
+   * @return the number of games waiting to be resumed
+   */
+  public int getRecoveredGameCount() {
+    return journal.recoveredCount();
+  }
+
+  /**
+   * Stops accepting connections, closes every session and stops the event loops, waiting until
+   * they are done, so that a journal can be closed afterwards. The games in progress are not
+   * ended in the journal.
+   *
+   * @throws IOException if the listening socket cannot be closed
+   */
+  @Override
+  public void close() throws IOException {
+    for (EventLoop loop : loops) {
+      if (loop != null) {
+        loop.running = false;
+        loop.selector.wakeup();
+      }
+    }
+    if (server != null) {
+      server.close();
+    }
+    for (EventLoop loop : loops) {
+      if (loop != null && loop.thread != null && loop.thread != Thread.currentThread()) {
+        try {
+          loop.thread.join();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          break;
+        }
+      }
+    }
+  }
+
+  /**
+   * Accepts every pending connection and hands each to the next event loop.
+   */
+  private void accept() throws IOException {
+    SocketChannel channel;
+    while ((channel = server.accept()) != null) {
+      channel.configureBlocking(false);
+      channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+      EventLoop loop = loops[nextLoop];
+      nextLoop = (nextLoop + 1) % loops.length;
+      loop.adopt(channel);
+    }
+  }
+
+  /**
+   * The state of one connection: its game, the bytes of the line being read and the bytes of
+   * the responses not yet sent.
+   */
+  private final class Connection {
+
+    private final SocketChannel channel;
+    private final Session session;
+    private final ByteBuffer in = ByteBuffer.allocate(BUFFER_SIZE);
+    private ByteBuffer out = ByteBuffer.allocate(BUFFER_SIZE);
+    private final StringBuilder line = new StringBuilder();
+    private boolean open = true; // false once the connection should be closed
+
+    /**
+     * Starts the game of a new connection.
+     *
+     * @throws IllegalStateException if the journal is closed, so the game cannot be started
+     */
+    Connection(SocketChannel channel) throws IllegalStateException {
+      this.session = new Session(pool, metrics, journal, rows, columns);
+      this.channel = channel;
+    }
+
+    /**
+     * Reads what the client sent and answers every complete line.
+     *
+     * @return false if the connection should be closed
+     */
+    boolean read() throws IOException {
+      int n = channel.read(in);
+      if (n < 0) {
+        return false;
+      }
+      in.flip();
+      while (in.hasRemaining()) {
+        char c = (char) (in.get() & 0xFF);
+        if (c == '\n') {
+          respond(session.handle(line.toString()));
+          line.setLength(0);
+          if (session.isClosing()) {
+            break;
+          }
+        } else if (c != '\r') {
+          if (line.length() == MAX_LINE) {
+            respond("ERROR The line is too long");
+            return false;
+          }
+          line.append(c);
+        }
+      }
+      in.clear();
+      return !session.isClosing();
+    }
+
+    private void respond(String response) {
+      byte[] bytes = (response + "\n").getBytes(StandardCharsets.US_ASCII);
+      if (out.remaining() < bytes.length) {
+        ByteBuffer bigger = ByteBuffer.allocate(Math.max(2 * out.capacity(),
+            out.position() + bytes.length));
+        out.flip();
+        bigger.put(out);
+        out = bigger;
+      }
+      out.put(bytes);
+    }
+
+    /**
+     * Sends as much of the pending responses as the socket takes.
+     *
+     * @return true if everything was sent
+     */
+    boolean write() throws IOException {
+      out.flip();
+      channel.write(out);
+      boolean done = !out.hasRemaining();
+      out.compact();
+      return done;
+    }
+  }
+
+  /**
+   * An event loop thread with its own selector.
+   */
+  private final class EventLoop implements Runnable {
+
+    private final Selector selector;
+    private final Queue<SocketChannel> adopted = new ConcurrentLinkedQueue<>();
+    private final List<SelectionKey> waiting = new ArrayList<>(); // for the journal
+    private long lastSequence; // the last change of this loop written to the journal
+    private volatile boolean running = true;
+    private Thread thread;
+
+    EventLoop(Selector selector) {
+      this.selector = selector;
+    }
+
+    /**
+     * Hands a new connection to this loop, from any thread.
+     */
+    void adopt(SocketChannel channel) {
+      adopted.add(channel);
+      selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+      try {
+        while (running) {
+          selector.select();
+          SocketChannel channel;
+          while ((channel = adopted.poll()) != null) {
+            open(channel);
+          }
+          Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+          while (keys.hasNext()) {
+            SelectionKey key = keys.next();
+            keys.remove();
+            handle(key);
+          }
+          if (!waiting.isEmpty()) {
+            respondWhenDurable();
+          }
+        }
+      } catch (IOException e) {
+        // the selector failed, which leaves nothing to serve
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        for (SelectionKey key : selector.keys()) {
+          if (key.isValid() && key.attachment() instanceof Connection) {
+            close(key, false);
+          }
+        }
+        try {
+          selector.close();
+        } catch (IOException e) {
+          // closing anyway
+        }
+      }
+    }
+
+    /**
+     * Starts serving a new connection, or closes it right away if its game cannot be started,
+     * e.g. because the journal is closed.
+     */
+    private void open(SocketChannel channel) {
+      try {
+        Connection connection = new Connection(channel);
+        try {
+          channel.register(selector, SelectionKey.OP_READ, connection);
+        } catch (IOException | RuntimeException e) {
+          connection.session.close(true);
+          throw e;
+        }
+        sessions.incrementAndGet();
+      } catch (IOException | RuntimeException e) {
+        try {
+          channel.close();
+        } catch (IOException suppressed) {
+          // the connection is gone either way
+        }
+      }
+    }
+
+    private void handle(SelectionKey key) {
+      try {
+        if (!key.isValid()) {
+          return;
+        }
+        if (key.isAcceptable()) {
+          accept();
+          return;
+        }
+        Connection connection = (Connection) key.attachment();
+        if (key.isReadable()) {
+          connection.open = connection.read();
+          if (journal.isDurable()) {
+            // the responses are held back until the journal has the changes they report
+            lastSequence = Math.max(lastSequence, connection.session.lastSequence());
+            waiting.add(key);
+            return;
+          }
+        }
+        send(key);
+      } catch (IOException | RuntimeException e) {
+        // a failure of one connection, e.g. of its session, must not stop the loop
+        if (key.isValid() && key.attachment() instanceof Connection) {
+          close(key, true);
+        }
+      }
+    }
+
+    /**
+     * Waits until the changes made by the commands of this round are durable, and then sends
+     * their responses.
+     */
+    private void respondWhenDurable() throws InterruptedException {
+      try {
+        journal.await(lastSequence);
+      } catch (IOException e) {
+        // the changes may be lost, so the clients must not be told they were made
+        for (SelectionKey key : waiting) {
+          if (key.isValid()) {
+            close(key, false);
+          }
+        }
+        waiting.clear();
+        return;
+      }
+      for (SelectionKey key : waiting) {
+        try {
+          send(key);
+        } catch (IOException e) {
+          if (key.isValid()) {
+            close(key, true);
+          }
+        }
+      }
+      waiting.clear();
+    }
+
+    /**
+     * Sends the responses waiting for a connection, and closes it once the last one is sent.
+     */
+    private void send(SelectionKey key) throws IOException {
+      if (!key.isValid()) {
+        return;
+      }
+      Connection connection = (Connection) key.attachment();
+      boolean open = connection.open;
+      boolean sent = connection.write();
+      if (!open && sent) {
+        close(key, true);
+      } else if (open) {
+        // a client that does not read its responses is not read from either, so the
+        // responses waiting for it never take more than one buffer of commands
+        key.interestOps(sent ? SelectionKey.OP_READ : SelectionKey.OP_WRITE);
+      } else {
+        key.interestOps(SelectionKey.OP_WRITE); // finish sending the last response first
+      }
+    }
+
+    private void close(SelectionKey key, boolean ended) {
+      key.cancel();
+      ((Connection) key.attachment()).session.close(ended);
+      try {
+        key.channel().close();
+      } catch (IOException e) {
+        // the connection is gone either way
+      }
+      sessions.decrementAndGet();
+    }
+  }
+
+  /**
+   * Runs a server until the process is stopped.
+   *
+   * @param args the port (default 4444), the number of event loops (default: one per
+   *             processor), the number of rows and columns of a new game (default 6 and 7),
+   *             and optionally the file of the journal that makes the games survive a restart
+   * @throws IOException if the port cannot be bound, or the journal cannot be opened
+   */
+  public static void main(String[] args) throws IOException {
+    int port = args.length > 0 ? Integer.parseInt(args[0]) : 4444;
+    int loops = args.length > 1 ? Integer.parseInt(args[1])
+        : Runtime.getRuntime().availableProcessors();
+    int rows = args.length > 2 ? Integer.parseInt(args[2]) : 6;
+    int columns = args.length > 3 ? Integer.parseInt(args[3]) : 7;
+    // the journal stays open until the process is stopped
+    MoveJournal journal = args.length > 4 ? new MoveJournal(Paths.get(args[4])) : null;
+    GameServer server = new GameServer(new InetSocketAddress(port), loops, rows, columns,
+        journal);
+    server.start();
+    System.out.println("Listening on port " + server.getPort() + " with " + loops
+        + " event loops" + (journal == null ? ""
+        : ", " + server.getRecoveredGameCount() + " games recovered from the journal"));
+  }
+}
@@ -0,0 +1,230 @@
+package connect.server;
+
+import connect.journal.MoveJournal;
+import connect.metrics.LatencyHistogram;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+/**
+ * A load generator for the {@link GameServer}. It opens many sessions from a single thread with
+ * non-blocking sockets, and every session plays random games as fast as the server answers: it
+ * sends a move, waits for the response and sends the next move, starting a new game whenever
+ * one ends. The time from sending a move to receiving its response is recorded for every move.
+ *
+ * <p>Run {@link #main(String[])} to start a server and a client in the same process over the
+ * loopback interface, which needs nothing else to be running.
+ */
+public class LoadTestClient {
+
+  private final InetSocketAddress server;
+  private final int sessions;
+  private final int rows;
+  private final int columns;
+  private final SplittableRandom random;
+
+  /**
+   * Constructor for the LoadTestClient class.
+   *
+   * @param server   the address of the server
+   * @param sessions the number of sessions to open
+   * @param rows     the number of rows of the board the server starts new sessions on
+   * @param columns  the number of columns of the board the server starts new sessions on
+   * @param seed     the seed of the random moves
+   */
+  public LoadTestClient(InetSocketAddress server, int sessions, int rows, int columns,
+      long seed) {
+    this.server = server;
+    this.sessions = sessions;
+    this.rows = rows;
+    this.columns = columns;
+    this.random = new SplittableRandom(seed);
+  }
+
+  /**
+   * Opens the sessions, plays for the given time and closes the sessions.
+   *
+   * @param durationMillis how long to play, in milliseconds, not counting the time to connect
+   * @return the number of moves and their latencies
+   * @throws IOException if a connection fails
+   */
+  public LoadTestResult run(long durationMillis) throws IOException {
+    LatencyHistogram latencies = new LatencyHistogram();
+    long[] counts = new long[2]; // games and errors
+    List<Client> clients = new ArrayList<>();
+    try (Selector selector = Selector.open()) {
+      for (int i = 0; i < sessions; i++) {
+        SocketChannel channel = SocketChannel.open();
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        Client client = new Client(channel);
+        clients.add(client);
+        channel.connect(server);
+        channel.register(selector, SelectionKey.OP_CONNECT, client);
+      }
+      // wait until every session is connected, so that the connections are not measured
+      int connected = 0;
+      while (connected < sessions) {
+        selector.select();
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+          SelectionKey key = keys.next();
+          keys.remove();
+          if (((SocketChannel) key.channel()).finishConnect()) {
+            key.interestOps(0);
+            connected++;
+          }
+        }
+      }
+
+      long start = System.nanoTime();
+      long end = start + durationMillis * 1_000_000L;
+      for (Client client : clients) {
+        client.channel.keyFor(selector).interestOps(SelectionKey.OP_READ);
+        client.sendMove();
+      }
+      while (System.nanoTime() - end < 0) {
+        selector.select(Math.max(1, (end - System.nanoTime()) / 1_000_000L));
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+          SelectionKey key = keys.next();
+          keys.remove();
+          ((Client) key.attachment()).read(latencies, counts);
+        }
+      }
+      long elapsed = System.nanoTime() - start;
+      return new LoadTestResult(sessions, counts[0], counts[1], elapsed,
+          latencies.count(), latencies.percentile(50), latencies.percentile(99),
+          latencies.percentile(99.9), latencies.max());
+    } finally {
+      for (Client client : clients) {
+        client.channel.close();
+      }
+    }
+  }
+
+  /**
+   * One session of the load test. It keeps the heights of the columns so that it only plays
+   * legal moves.
+   */
+  private final class Client {
+
+    private final SocketChannel channel;
+    private final int[] heights = new int[columns];
+    private final ByteBuffer in = ByteBuffer.allocate(256);
+    private final StringBuilder line = new StringBuilder();
+    private int column;
+    private long sentAt;
+
+    Client(SocketChannel channel) {
+      this.channel = channel;
+    }
+
+    void sendMove() throws IOException {
+      do {
+        column = random.nextInt(columns);
+      } while (heights[column] == rows);
+      sentAt = System.nanoTime();
+      send("MOVE " + column + "\n");
+    }
+
+    private void send(String command) throws IOException {
+      // the commands are tiny and there is one at a time, so they always fit in the socket
+      channel.write(ByteBuffer.wrap(command.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    void read(LatencyHistogram latencies, long[] counts) throws IOException {
+      if (channel.read(in) < 0) {
+        throw new IOException("The server closed a session");
+      }
+      in.flip();
+      while (in.hasRemaining()) {
+        char c = (char) in.get();
+        if (c != '\n') {
+          line.append(c);
+          continue;
+        }
+        String response = line.toString();
+        line.setLength(0);
+        if (response.startsWith("MOVED")) {
+          latencies.record(System.nanoTime() - sentAt);
+          heights[column]++;
+          if (response.contains(" WON") || response.endsWith(" DRAW")) {
+            counts[0]++;
+            Arrays.fill(heights, 0);
+            send("NEW\n");
+          } else {
+            sendMove();
+          }
+        } else if (response.startsWith("READY")) {
+          sendMove();
+        } else {
+          counts[1]++;
+          sendMove();
+        }
+      }
+      in.clear();
+    }
+  }
+
+  /**
+   * Starts a server on the loopback interface, runs a load test against it and prints the
+   * results.
+   *
+   * @param args the number of sessions (default 2000), the number of seconds to play (default
+   *             10), the number of server event loops (default: one per processor), and
+   *             "journal" to have the server write every move to a journal in a temporary
+   *             directory, which is deleted with the snapshots of the journal at the end
+   * @throws IOException if the server cannot be started or a connection fails
+   */
+  public static void main(String[] args) throws IOException {
+    int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+    long seconds = args.length > 1 ? Long.parseLong(args[1]) : 10;
+    int loops = args.length > 2 ? Integer.parseInt(args[2])
+        : Runtime.getRuntime().availableProcessors();
+    Path directory = args.length > 3 && args[3].equals("journal")
+        ? Files.createTempDirectory("connect-four-journal") : null;
+    try (MoveJournal journal = directory == null ? null
+            : new MoveJournal(directory.resolve("moves.log"));
+        GameServer server = new GameServer(
+            new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), loops, 6, 7, journal)) {
+      server.start();
+      InetSocketAddress address =
+          new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort());
+      LoadTestClient client = new LoadTestClient(address, sessions, 6, 7, System.nanoTime());
+      LoadTestResult result = client.run(seconds * 1000);
+      System.out.println(result);
+      System.out.printf("%.0f sessions and %.0f moves/s per core%n",
+          (double) sessions / Runtime.getRuntime().availableProcessors(),
+          result.getMovesPerSecond() / Runtime.getRuntime().availableProcessors());
+      if (journal != null) {
+        System.out.printf("%d journal records in %d forces%n", journal.appended(),
+            journal.syncs());
+      }
+    } finally {
+      if (directory != null) {
+        // the journal leaves its snapshot, and after a crash its other files, next to it
+        try (Stream<Path> files = Files.list(directory)) {
+          for (Path file : (Iterable<Path>) files::iterator) {
+            Files.delete(file);
+          }
+        }
+        Files.delete(directory);
+      }
+    }
+  }
+}
@@ -0,0 +1,97 @@
+package connect.server;
+
+/**
+ * The results of a load test of the {@link GameServer}: how many moves the sessions made and how
+ * long the server took to answer them.
+ */
+public final class LoadTestResult {
+
+  private final int sessions;
+  private final long games;
+  private final long errors;
+  private final long elapsedNanos;
+  private final long moves;
+  private final long p50Nanos;
+  private final long p99Nanos;
+  private final long p999Nanos;
+  private final long maxNanos;
+
+  /**
+   * Constructor for the LoadTestResult class.
+   *
+   * @param sessions     the number of concurrent sessions
+   * @param games        the number of games finished
+   * @param errors       the number of error responses
+   * @param elapsedNanos the time the sessions played, in nanoseconds
+   * @param moves        the number of moves answered
+   * @param p50Nanos     the median move latency, in nanoseconds
+   * @param p99Nanos     the 99th percentile of the move latency, in nanoseconds
+   * @param p999Nanos    the 99.9th percentile of the move latency, in nanoseconds
+   * @param maxNanos     the largest move latency, in nanoseconds
+   */
+  public LoadTestResult(int sessions, long games, long errors, long elapsedNanos, long moves,
+      long p50Nanos, long p99Nanos, long p999Nanos, long maxNanos) {
+    this.sessions = sessions;
+    this.games = games;
+    this.errors = errors;
+    this.elapsedNanos = elapsedNanos;
+    this.moves = moves;
+    this.p50Nanos = p50Nanos;
+    this.p99Nanos = p99Nanos;
+    this.p999Nanos = p999Nanos;
+    this.maxNanos = maxNanos;
+  }
+
+  public int getSessions() {
+    return sessions;
+  }
+
+  public long getGames() {
+    return games;
+  }
+
+  public long getErrors() {
+    return errors;
+  }
+
+  public long getMoves() {
+    return moves;
+  }
+
+  public long getElapsedNanos() {
+    return elapsedNanos;
+  }
+
+  public long getP50Nanos() {
+    return p50Nanos;
+  }
+
+  public long getP99Nanos() {
+    return p99Nanos;
+  }
+
+  public long getP999Nanos() {
+    return p999Nanos;
+  }
+
+  public long getMaxNanos() {
+    return maxNanos;
+  }
+
+  /**
+   * Retrieves the throughput of the server.
+   *
+   * @return the number of moves answered per second
+   */
+  public double getMovesPerSecond() {
+    return elapsedNanos == 0 ? 0 : moves * 1e9 / elapsedNanos;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%d sessions, %d moves and %d games in %.3f s (%.0f moves/s), "
+            + "%d errors, move latency p50 %.1f us, p99 %.1f us, p99.9 %.1f us, max %.1f us",
+        sessions, moves, games, elapsedNanos / 1e9, getMovesPerSecond(), errors,
+        p50Nanos / 1e3, p99Nanos / 1e3, p999Nanos / 1e3, maxNanos / 1e3);
+  }
+}
@@ -0,0 +1,275 @@
+package connect.server;
+
+import connect.ConnectFourModel;
+import connect.ModelPool;
+import connect.Player;
+import connect.metrics.GameMetrics;
+import connect.metrics.InstrumentedConnectFourModel;
+
+/**
+ * The game of one client connection, and the line protocol it speaks. Every command is one line
+ * and gets exactly one line back:
+ * <pre>
+ *   NEW [rows columns]  READY rows columns     starts a new game, by default on the same board
+ *   MOVE column         MOVED column player status [winner]
+ *   UNDO                UNDONE column
+ *   BOARD               BOARD rows columns moves   the moves as columns separated by commas
+ *   GAME                GAME id                    the id of the game, to resume it later
+ *   RESUME id           READY rows columns         goes on with a game recovered from the
+ *                                                  journal after the server restarted
+ *   QUIT                BYE                        the server then closes the connection
+ * </pre>
+ * Columns count from 0, as in {@link ConnectFourModel#makeMove(int)}, and the status is one of
+ * {@code IN_PROGRESS}, {@code WON} or {@code DRAW}. A command that fails, e.g. a move into a full
+ * column, gets {@code ERROR} and the message of the model's exception back, and leaves the game
+ * unchanged.
+ *
+ * <p>When the server has a journal, every change to the game is written to it through the
+ * {@link SessionJournal}, and the largest sequence number written so far is available from
+ * {@link #lastSequence()}, so that the response can wait until the change is durable. A change
+ * is written to the journal before it is made to the game, so a change the journal refuses,
+ * e.g. because it is closed, gets {@code ERROR} back and leaves the game unchanged too. A game
+ * that ends because its client quits or goes away is ended in the journal too, but not a game
+ * that is only closed because the server shuts down, so that it can be resumed.
+ *
+ * <p>The models of the sessions are instrumented, so the moves and games of every session are
+ * recorded in the {@link GameMetrics} of the server. A session is only ever used by the event
+ * loop thread that owns its connection.
+ */
+final class Session {
+
+  /**
+   * The largest number of rows or columns a client can ask for.
+   */
+  static final int MAX_SIZE = 64;
+
+  private final ModelPool pool;
+  private final GameMetrics metrics;
+  private final SessionJournal journal;
+  private ConnectFourModel model;
+  private long id;
+  private long lastSequence;
+  private boolean closing;
+
+  /**
+   * Creates a session with an empty board.
+   *
+   * @param pool    the pool to take models from and give them back to
+   * @param metrics the metrics to record the games to
+   * @param journal the ids of the games and the journal to write their changes to
+   * @param rows    the number of rows of the first game
+   * @param columns the number of columns of the first game
+   * @throws IllegalStateException if the journal is closed, in which case the model goes back
+   *                               to the pool
+   */
+  Session(ModelPool pool, GameMetrics metrics, SessionJournal journal, int rows, int columns)
+      throws IllegalStateException {
+    this.pool = pool;
+    this.metrics = metrics;
+    this.journal = journal;
+    this.model = acquire(rows, columns);
+    try {
+      this.id = journal.newId();
+      this.lastSequence = journal.newGame(id, rows, columns);
+    } catch (RuntimeException e) {
+      pool.release(model);
+      throw e;
+    }
+  }
+
+  /**
+   * Takes a model from the pool. The models are given back instrumented, so a model only needs
+   * wrapping the first time it is used.
+   */
+  private ConnectFourModel acquire(int rows, int columns) {
+    return instrument(pool.acquire(rows, columns));
+  }
+
+  private ConnectFourModel instrument(ConnectFourModel next) {
+    return next instanceof InstrumentedConnectFourModel ? next
+        : new InstrumentedConnectFourModel(next, metrics);
+  }
+
+  /**
+   * Gives the model of the session back to the pool, once the connection is closed.
+   *
+   * @param ended true if the game is over for good, false if the server is only shutting down
+   *              and the game should be recovered from the journal when it restarts
+   */
+  void close(boolean ended) {
+    if (model != null) {
+      if (ended) {
+        try {
+          lastSequence = journal.endGame(id);
+        } catch (IllegalStateException e) {
+          // the journal is closed, so the game stays in it and is recovered on restart
+        }
+      }
+      pool.release(model);
+      model = null;
+    }
+  }
+
+  /**
+   * Retrieves the sequence number of the last change written to the journal, or 0 if there is
+   * no journal.
+   */
+  long lastSequence() {
+    return lastSequence;
+  }
+
+  /**
+   * Checks whether the client asked to close the connection.
+   */
+  boolean isClosing() {
+    return closing;
+  }
+
+  /**
+   * Runs one command.
+   *
+   * @param line the command, without the line break
+   * @return the response, without the line break
+   */
+  String handle(String line) {
+    String[] words = line.trim().split(" +");
+    try {
+      switch (words[0]) {
+        case "MOVE":
+          return move(words);
+        case "UNDO":
+          return undo(words);
+        case "NEW":
+          return newGame(words);
+        case "BOARD":
+          return board(words);
+        case "GAME":
+          arguments(words, 0);
+          return "GAME " + id;
+        case "RESUME":
+          return resume(words);
+        case "QUIT":
+          closing = true;
+          return "BYE";
+        default:
+          return "ERROR Unknown command";
+      }
+    } catch (IllegalArgumentException | IllegalStateException e) {
+      return "ERROR " + e.getMessage();
+    }
+  }
+
+  private String move(String[] words) {
+    arguments(words, 1);
+    int column = number(words[1]);
+    if (model.isGameOver()) {
+      throw new IllegalStateException("The game is over");
+    }
+    if (!model.isLegalMove(column)) {
+      // the model rejects the move with its own message, and counts it as illegal
+      model.makeMove(column);
+    }
+    Player player = model.getTurn();
+    // the change is only applied once the journal has taken it, so that a journal that fails
+    // leaves the game as the client is told it is
+    lastSequence = journal.move(id, column);
+    model.makeMove(column);
+    Player winner = model.getWinner();
+    if (winner != null) {
+      return "MOVED " + column + " " + player + " WON " + winner;
+    }
+    return "MOVED " + column + " " + player + (model.isGameOver() ? " DRAW" : " IN_PROGRESS");
+  }
+
+  private String undo(String[] words) {
+    arguments(words, 0);
+    int[] history = model.getMoveHistory();
+    if (history.length == 0) {
+      throw new IllegalStateException("There is no move to undo");
+    }
+    lastSequence = journal.undo(id);
+    model.undoMove();
+    return "UNDONE " + history[history.length - 1];
+  }
+
+  private String newGame(String[] words) {
+    if (words.length == 3) {
+      int rows = number(words[1]);
+      int columns = number(words[2]);
+      if (rows > MAX_SIZE || columns > MAX_SIZE) {
+        throw new IllegalArgumentException("The number of rows and columns must be at most "
+            + MAX_SIZE);
+      }
+      ConnectFourModel next = acquire(rows, columns);
+      try {
+        // a new game record replaces the old game in the journal
+        lastSequence = journal.newGame(id, rows, columns);
+      } catch (IllegalStateException e) {
+        pool.release(next);
+        throw e;
+      }
+      pool.release(model);
+      model = next;
+    } else if (words.length == 1) {
+      lastSequence = journal.reset(id);
+      model.resetBoard();
+    } else {
+      throw new IllegalArgumentException("NEW takes either no arguments or rows and columns");
+    }
+    return "READY " + model.getBoardView().getRows() + " " + model.getBoardView().getColumns();
+  }
+
+  private String resume(String[] words) {
+    arguments(words, 1);
+    long resumed;
+    try {
+      resumed = Long.parseLong(words[1]);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Not a number: " + words[1]);
+    }
+    ConnectFourModel recovered = journal.resume(resumed);
+    if (recovered == null) {
+      throw new IllegalArgumentException("There is no game " + resumed + " to resume");
+    }
+    try {
+      lastSequence = journal.endGame(id);
+    } catch (IllegalStateException e) {
+      journal.giveBack(resumed, recovered);
+      throw e;
+    }
+    pool.release(model);
+    model = instrument(recovered);
+    id = resumed;
+    return "READY " + model.getBoardView().getRows() + " " + model.getBoardView().getColumns();
+  }
+
+  private String board(String[] words) {
+    arguments(words, 0);
+    StringBuilder response = new StringBuilder("BOARD ");
+    response.append(model.getBoardView().getRows()).append(' ')
+        .append(model.getBoardView().getColumns()).append(' ');
+    int[] history = model.getMoveHistory();
+    for (int i = 0; i < history.length; i++) {
+      if (i > 0) {
+        response.append(',');
+      }
+      response.append(history[i]);
+    }
+    return response.toString();
+  }
+
+  private static void arguments(String[] words, int count) {
+    if (words.length != count + 1) {
+      throw new IllegalArgumentException(words[0] + " takes " + count + " argument"
+          + (count == 1 ? "" : "s"));
+    }
+  }
+
+  private static int number(String word) {
+    try {
+      return Integer.parseInt(word);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Not a number: " + word);
+    }
+  }
+}
@@ -0,0 +1,106 @@
+package connect.server;
+
+import connect.ConnectFourModel;
+import connect.journal.MoveJournal;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The ids of the games of a server, and the {@link MoveJournal} their changes are written to, if
+ * the server has one. The games recovered from the journal when the server started are kept
+ * here until a client resumes them.
+ *
+ * <p>Without a journal, games still get ids, but nothing is written and every sequence number
+ * is 0. A session journal is shared by every event loop.
+ */
+final class SessionJournal {
+
+  private final MoveJournal journal;
+  private final AtomicLong nextId;
+  private final Map<Long, ConnectFourModel> recovered;
+
+  /**
+   * Creates a session journal.
+   *
+   * @param journal the journal to write to, or null to write nothing
+   */
+  SessionJournal(MoveJournal journal) {
+    this.journal = journal;
+    this.nextId = new AtomicLong(journal == null ? 0 : journal.maxGameId() + 1);
+    this.recovered = journal == null ? new ConcurrentHashMap<>()
+        : new ConcurrentHashMap<>(journal.recovered());
+  }
+
+  /**
+   * Checks whether the changes are written to a journal, in which case the responses to them
+   * must wait until they are durable.
+   */
+  boolean isDurable() {
+    return journal != null;
+  }
+
+  /**
+   * Gives out an id that no other game, not even one in the journal, has.
+   */
+  long newId() {
+    return nextId.getAndIncrement();
+  }
+
+  /**
+   * Takes a recovered game, which can then not be resumed again.
+   *
+   * @return the game, or null if there is no recovered game with that id
+   */
+  ConnectFourModel resume(long id) {
+    return recovered.remove(id);
+  }
+
+  /**
+   * Puts back a recovered game that could not be resumed after all, so that it can be resumed
+   * again.
+   */
+  void giveBack(long id, ConnectFourModel game) {
+    recovered.put(id, game);
+  }
+
+  /**
+   * Retrieves the number of recovered games that were not resumed yet.
+   */
+  int recoveredCount() {
+    return recovered.size();
+  }
+
+  long newGame(long id, int rows, int columns) {
+    return journal == null ? 0 : journal.newGame(id, rows, columns);
+  }
+
+  long move(long id, int column) {
+    return journal == null ? 0 : journal.move(id, column);
+  }
+
+  long undo(long id) {
+    return journal == null ? 0 : journal.undo(id);
+  }
+
+  long reset(long id) {
+    return journal == null ? 0 : journal.reset(id);
+  }
+
+  long endGame(long id) {
+    return journal == null ? 0 : journal.endGame(id);
+  }
+
+  /**
+   * Waits until the changes up to a sequence number are durable.
+   *
+   * @throws IOException          if the journal could not be written
+   * @throws InterruptedException if the thread is interrupted while waiting
+   */
+  void await(long sequence) throws IOException, InterruptedException {
+    if (journal != null && sequence > 0) {
+      journal.await(sequence);
+    }
+  }
+}
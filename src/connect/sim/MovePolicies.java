@@ -0,0 +1,101 @@
+package connect.sim;
+
+import connect.ConnectFourModel;
+import connect.Player;
+import java.util.SplittableRandom;
+
+/**
+ * Ready-made move policies for simulated games.
+ */
+public final class MovePolicies {
+
+  private MovePolicies() {
+    // static factory methods only
+  }
+
+  /**
+   * Retrieves a policy that plays a uniformly random legal column.
+   *
+   * @return the random policy
+   */
+  public static MovePolicy random() {
+    return MovePolicies::randomMove;
+  }
+
+  /**
+   * Retrieves a policy that wins right away when it can, never plays a move that lets the
+   * opponent win right after unless every move does, and otherwise plays a random column.
+   *
+   * @return the greedy policy
+   */
+  public static MovePolicy greedy() {
+    return MovePolicies::greedyMove;
+  }
+
+  /**
+   * Retrieves a policy by name, as used on the command line.
+   *
+   * @param name "random" or "greedy"
+   * @return the policy with that name
+   * @throws IllegalArgumentException if there is no policy with that name
+   */
+  public static MovePolicy byName(String name) throws IllegalArgumentException {
+    switch (name) {
+      case "random":
+        return random();
+      case "greedy":
+        return greedy();
+      default:
+        throw new IllegalArgumentException("Unknown policy: " + name);
+    }
+  }
+
+  private static int randomMove(ConnectFourModel model, SplittableRandom random) {
+    int columns = model.getBoardView().getColumns();
+    while (true) {
+      int column = random.nextInt(columns);
+      if (model.isLegalMove(column)) {
+        return column;
+      }
+    }
+  }
+
+  private static int greedyMove(ConnectFourModel model, SplittableRandom random) {
+    int columns = model.getBoardView().getColumns();
+    Player me = model.getTurn();
+    int start = random.nextInt(columns);
+    int safe = -1;
+    for (int k = 0; k < columns; k++) {
+      int column = (start + k) % columns;
+      if (!model.isLegalMove(column)) {
+        continue;
+      }
+      model.makeMove(column);
+      boolean wins = model.getWinner() == me;
+      boolean losing = !wins && !model.isGameOver() && opponentCanWin(model, columns);
+      model.undoMove();
+      if (wins) {
+        return column;
+      }
+      if (!losing && safe < 0) {
+        safe = column;
+      }
+    }
+    return safe >= 0 ? safe : randomMove(model, random);
+  }
+
+  private static boolean opponentCanWin(ConnectFourModel model, int columns) {
+    Player opponent = model.getTurn();
+    for (int column = 0; column < columns; column++) {
+      if (model.isLegalMove(column)) {
+        model.makeMove(column);
+        boolean wins = model.getWinner() == opponent;
+        model.undoMove();
+        if (wins) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,20 @@
+package connect.sim;
+
+import connect.ConnectFourModel;
+import java.util.SplittableRandom;
+
+/**
+ * Chooses the moves of a player in simulated games.
+ */
+public interface MovePolicy {
+
+  /**
+   * Chooses a move for the player to move. The model may be changed while choosing, e.g. by
+   * trying moves and taking them back, but must be left in the position it was given in.
+   *
+   * @param model  the game, which is not over
+   * @param random the random numbers to use, owned by the calling thread
+   * @return a legal column for the player to move
+   */
+  int chooseMove(ConnectFourModel model, SplittableRandom random);
+}
@@ -0,0 +1,133 @@
+package connect.sim;
+
+import connect.ConnectFourModel;
+import connect.ConnectFourModels;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Plays many games between two move policies without any user interface, spread over a pool of
+ * threads, and collects win, draw and game-length statistics.
+ *
+ * <p>Every thread plays its share of the games on a single model of its own, resetting it
+ * between games, and keeps its own statistics, so the threads share nothing while they play.
+ * Only Connect Four model classes are used, so no Swing classes are loaded.
+ */
+public class SelfPlaySimulator {
+
+  private final int rows;
+  private final int columns;
+  private final int threads;
+  private final MovePolicy red;
+  private final MovePolicy yellow;
+
+  /**
+   * Constructor for the SelfPlaySimulator class.
+   *
+   * @param rows    the number of rows of the board (must be at least 4)
+   * @param columns the number of columns of the board (must be at least 4)
+   * @param threads the number of threads to play the games on
+   * @param red     the policy of the red player, who moves first
+   * @param yellow  the policy of the yellow player
+   * @throws IllegalArgumentException if the board is too small or too large, there are no
+   *                                  threads, or a policy is null
+   */
+  public SelfPlaySimulator(int rows, int columns, int threads, MovePolicy red,
+      MovePolicy yellow) throws IllegalArgumentException {
+    if (rows < 4 || columns < 4) {
+      throw new IllegalArgumentException("The number of rows and columns must be at least 4");
+    }
+    if ((long) rows * columns > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("The board cannot have more than " + Integer.MAX_VALUE
+          + " cells");
+    }
+    if (threads < 1) {
+      throw new IllegalArgumentException("There must be at least one thread");
+    }
+    if (red == null || yellow == null) {
+      throw new IllegalArgumentException("The policies cannot be null");
+    }
+    this.rows = rows;
+    this.columns = columns;
+    this.threads = threads;
+    this.red = red;
+    this.yellow = yellow;
+  }
+
+  /**
+   * Plays the given number of games. The same seed and number of threads always give the same
+   * statistics.
+   *
+   * @param games the number of games to play
+   * @param seed  the seed of the random numbers
+   * @return the statistics of all games
+   * @throws InterruptedException if the calling thread is interrupted while waiting
+   */
+  public SimulationStats run(long games, long seed) throws InterruptedException {
+    long start = System.nanoTime();
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    SplittableRandom seeds = new SplittableRandom(seed);
+    List<Future<SimulationStats>> futures = new ArrayList<>();
+    try {
+      for (int i = 0; i < threads; i++) {
+        long share = games / threads + (i < games % threads ? 1 : 0);
+        SplittableRandom random = seeds.split();
+        futures.add(executor.submit(() -> play(share, random)));
+      }
+      SimulationStats total = new SimulationStats((long) rows * columns);
+      for (Future<SimulationStats> future : futures) {
+        total.merge(future.get());
+      }
+      total.setElapsedNanos(System.nanoTime() - start);
+      return total;
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("A simulation thread failed", e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Plays games on the calling thread.
+   */
+  private SimulationStats play(long games, SplittableRandom random) {
+    ConnectFourModel model = ConnectFourModels.create(rows, columns);
+    SimulationStats stats = new SimulationStats((long) rows * columns);
+    for (long game = 0; game < games; game++) {
+      model.resetBoard();
+      int moves = 0;
+      while (!model.isGameOver()) {
+        MovePolicy policy = moves % 2 == 0 ? red : yellow;
+        model.makeMove(policy.chooseMove(model, random));
+        moves++;
+      }
+      stats.record(model.getWinner(), moves);
+    }
+    return stats;
+  }
+
+  /**
+   * Runs a simulation from the command line and prints the statistics.
+   *
+   * @param args the number of games (default 1000000), the number of threads (default: one
+   *             per processor), the number of rows and columns (default 6 and 7), and the
+   *             policies of red and yellow, "random" or "greedy" (default random)
+   * @throws InterruptedException if the simulation is interrupted
+   */
+  public static void main(String[] args) throws InterruptedException {
+    long games = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000;
+    int threads = args.length > 1 ? Integer.parseInt(args[1])
+        : Runtime.getRuntime().availableProcessors();
+    int rows = args.length > 2 ? Integer.parseInt(args[2]) : 6;
+    int columns = args.length > 3 ? Integer.parseInt(args[3]) : 7;
+    MovePolicy red = MovePolicies.byName(args.length > 4 ? args[4] : "random");
+    MovePolicy yellow = MovePolicies.byName(args.length > 5 ? args[5] : "random");
+    SelfPlaySimulator simulator = new SelfPlaySimulator(rows, columns, threads, red, yellow);
+    System.out.print(simulator.run(games, System.nanoTime()));
+  }
+}
@@ -0,0 +1,175 @@
+package connect.sim;
+
+import connect.Player;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Win, draw and game-length statistics of a batch of simulated games. A single instance is not
+ * thread-safe: every simulation thread fills its own instance, and they are merged at the end.
+ *
+ * <p>The games of up to {@value #DENSE_LENGTHS} moves are counted in an array, and the longer
+ * games, which only huge boards have, in a map holding only the lengths that were seen, so the
+ * statistics stay small whatever the size of the board.
+ */
+public final class SimulationStats {
+
+  private static final int DENSE_LENGTHS = 1024;
+
+  private final long[] lengths; // number of games per number of moves, for the short games
+  private final Map<Integer, Long> longGames = new TreeMap<>(); // the same for the long games
+  private long totalMoves;
+  private long redWins;
+  private long yellowWins;
+  private long draws;
+  private long elapsedNanos;
+
+  /**
+   * Creates empty statistics for games on a board with the given number of cells.
+   *
+   * @param area the number of cells of the board, i.e. the longest possible game
+   * @throws IllegalArgumentException if the area is negative
+   */
+  public SimulationStats(long area) throws IllegalArgumentException {
+    if (area < 0) {
+      throw new IllegalArgumentException("The area cannot be negative");
+    }
+    this.lengths = new long[(int) Math.min(area + 1, DENSE_LENGTHS)];
+  }
+
+  /**
+   * Records a finished game.
+   *
+   * @param winner the winner, or null for a draw
+   * @param moves  the number of moves of the game
+   */
+  void record(Player winner, int moves) {
+    if (winner == Player.RED) {
+      redWins++;
+    } else if (winner == Player.YELLOW) {
+      yellowWins++;
+    } else {
+      draws++;
+    }
+    if (moves < lengths.length) {
+      lengths[moves]++;
+    } else {
+      longGames.merge(moves, 1L, Long::sum);
+    }
+    totalMoves += moves;
+  }
+
+  /**
+   * Adds the games of other statistics to these.
+   *
+   * @param other the statistics to add, for the same board size
+   */
+  void merge(SimulationStats other) {
+    redWins += other.redWins;
+    yellowWins += other.yellowWins;
+    draws += other.draws;
+    for (int i = 0; i < lengths.length; i++) {
+      lengths[i] += other.lengths[i];
+    }
+    other.longGames.forEach((moves, count) -> longGames.merge(moves, count, Long::sum));
+    totalMoves += other.totalMoves;
+  }
+
+  void setElapsedNanos(long elapsedNanos) {
+    this.elapsedNanos = elapsedNanos;
+  }
+
+  public long getGames() {
+    return redWins + yellowWins + draws;
+  }
+
+  public long getRedWins() {
+    return redWins;
+  }
+
+  public long getYellowWins() {
+    return yellowWins;
+  }
+
+  public long getDraws() {
+    return draws;
+  }
+
+  /**
+   * Retrieves the number of games that lasted the given number of moves.
+   *
+   * @param moves the number of moves
+   * @return the number of games of that length
+   */
+  public long getGamesOfLength(int moves) {
+    if (moves < 0) {
+      return 0;
+    }
+    return moves < lengths.length ? lengths[moves] : longGames.getOrDefault(moves, 0L);
+  }
+
+  /**
+   * Retrieves the average number of moves per game.
+   *
+   * @return the average game length, or 0 if no game was played
+   */
+  public double getAverageLength() {
+    long games = getGames();
+    return games == 0 ? 0 : (double) totalMoves / games;
+  }
+
+  public long getElapsedNanos() {
+    return elapsedNanos;
+  }
+
+  /**
+   * Retrieves the simulation speed.
+   *
+   * @return the number of games played per second
+   */
+  public double getGamesPerSecond() {
+    return elapsedNanos == 0 ? 0 : getGames() * 1e9 / elapsedNanos;
+  }
+
+  /**
+   * Returns a report of the statistics, with a histogram of the game lengths.
+   *
+   * @return a multi-line report
+   */
+  @Override
+  public String toString() {
+    long games = getGames();
+    StringBuilder report = new StringBuilder();
+    report.append(String.format("%d games in %.3f s (%.0f games/s)%n",
+        games, elapsedNanos / 1e9, getGamesPerSecond()));
+    report.append(String.format("RED wins %d (%.2f%%), YELLOW wins %d (%.2f%%), draws %d (%.2f%%)%n",
+        redWins, percent(redWins, games), yellowWins, percent(yellowWins, games),
+        draws, percent(draws, games)));
+    report.append(String.format("average length %.2f moves%n", getAverageLength()));
+    long most = 1;
+    for (long count : lengths) {
+      most = Math.max(most, count);
+    }
+    for (long count : longGames.values()) {
+      most = Math.max(most, count);
+    }
+    for (int i = 0; i < lengths.length; i++) {
+      if (lengths[i] > 0) {
+        bar(report, i, lengths[i], most);
+      }
+    }
+    for (Map.Entry<Integer, Long> length : longGames.entrySet()) {
+      bar(report, length.getKey(), length.getValue(), most);
+    }
+    return report.toString();
+  }
+
+  private static void bar(StringBuilder report, int moves, long count, long most) {
+    int bar = (int) (50 * count / most);
+    report.append(String.format("%4d %10d %s%n", moves, count, "#".repeat(Math.max(1, bar))));
+  }
+
+  private static double percent(long part, long whole) {
+    return whole == 0 ? 0 : 100.0 * part / whole;
+  }
+}
@@ -0,0 +1,344 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import connect.BitboardConnectFourModel;
+import connect.BoardView;
+import connect.ConnectFourModel;
+import connect.ConnectFourModelImpl;
+import connect.ConnectFourModels;
+import connect.GameStatus;
+import connect.ModelListener;
+import connect.MoveEvent;
+import connect.Player;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * A JUnit test class for the BitboardConnectFourModel class.
+ */
+public class BitboardConnectFourModelTest {
+
+  private BitboardConnectFourModel sixBySeven;
+  private BitboardConnectFourModel tenByTen;
+
+  /**
+   * Set up the test fixture with a single-word and a multi-word bitboard.
+   */
+  @Before
+  public void setUp() {
+    this.sixBySeven = new BitboardConnectFourModel(6, 7); // fits in one long per player
+    this.tenByTen = new BitboardConnectFourModel(10, 10); // spread over several longs
+  }
+
+  /**
+   * Test that an exception is thrown when the number of rows is less than 4.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testConstructorRowsLessThanFour() {
+    new BitboardConnectFourModel(3, 7);
+  }
+
+  /**
+   * Test that the bottom row of the board is the last row of the board state.
+   */
+  @Test
+  public void getBoardState() {
+    this.sixBySeven.makeMove(3); //red
+    this.sixBySeven.makeMove(3); //yellow
+    this.sixBySeven.makeMove(6); //red
+    Player[][] board = new Player[6][7];
+    board[5][3] = Player.RED;
+    board[4][3] = Player.YELLOW;
+    board[5][6] = Player.RED;
+    assertArrayEquals(board, this.sixBySeven.getBoardState());
+  }
+
+  /**
+   * Test that a vertical win is not confused with discs in the next column.
+   */
+  @Test
+  public void verticalWinDoesNotWrapColumns() {
+    // red fills the top of column 0 and the bottom of column 1, which are adjacent bits
+    // apart from the sentinel bit between them
+    for (int i = 0; i < 4; i++) {
+      this.sixBySeven.makeMove(0); //red, yellow, red, yellow
+    }
+    this.sixBySeven.makeMove(0); //red
+    this.sixBySeven.makeMove(2); //yellow
+    this.sixBySeven.makeMove(1); //red
+    this.sixBySeven.makeMove(2); //yellow
+    this.sixBySeven.makeMove(1); //red
+    assertNull(this.sixBySeven.getWinner());
+    assertEquals(Player.YELLOW, this.sixBySeven.getTurn());
+  }
+
+  /**
+   * Test a diagonal win on a board that does not fit in a single word.
+   */
+  @Test
+  public void diagonalWinOnMultiWordBoard() {
+    int[] moves = {6, 7, 7, 8, 8, 9, 8, 9, 9, 0, 9};
+    for (int move : moves) {
+      this.tenByTen.makeMove(move);
+    }
+    assertTrue(this.tenByTen.isGameOver());
+    assertEquals(Player.RED, this.tenByTen.getWinner());
+    assertNull(this.tenByTen.getTurn());
+  }
+
+  /**
+   * Test that full columns are left out of the legal moves.
+   */
+  @Test
+  public void getLegalMoves() {
+    assertArrayEquals(new int[] {0, 1, 2, 3, 4, 5, 6}, this.sixBySeven.getLegalMoves());
+    for (int i = 0; i < 6; i++) {
+      this.sixBySeven.makeMove(2);
+    }
+    assertFalse(this.sixBySeven.isLegalMove(2));
+    assertFalse(this.sixBySeven.isLegalMove(7));
+    assertFalse(this.sixBySeven.isLegalMove(-1));
+    assertTrue(this.sixBySeven.isLegalMove(3));
+    assertArrayEquals(new int[] {0, 1, 3, 4, 5, 6}, this.sixBySeven.getLegalMoves());
+    this.sixBySeven.resetBoard();
+    assertEquals(7, this.sixBySeven.getLegalMoves().length);
+  }
+
+  /**
+   * Test that a move is rejected once the game is won, on this model and on the dense one, and
+   * that the rejected move leaves the board as it was.
+   */
+  @Test
+  public void rejectsMoveAfterWin() {
+    ConnectFourModel[] models = {this.sixBySeven, new ConnectFourModelImpl(6, 7)};
+    for (ConnectFourModel model : models) {
+      for (int move : new int[] {0, 1, 0, 1, 0, 1, 0}) { // red wins in column 0
+        model.makeMove(move);
+      }
+      assertFalse(model.isLegalMove(3));
+      assertArrayEquals(new int[0], model.getLegalMoves());
+      try {
+        model.makeMove(3);
+        fail("A move after the win was accepted");
+      } catch (IllegalArgumentException e) {
+        // expected
+      }
+      assertEquals(7, model.getMoveHistory().length);
+      assertNull(model.getBoardView().cell(5, 3));
+      assertEquals(Player.RED, model.getWinner());
+    }
+  }
+
+  /**
+   * Test that the board view reads the live board without copying it.
+   */
+  @Test
+  public void getBoardView() {
+    BoardView view = this.sixBySeven.getBoardView();
+    assertEquals(6, view.getRows());
+    assertEquals(7, view.getColumns());
+    long version = view.version();
+    this.sixBySeven.makeMove(4); //red
+    this.sixBySeven.makeMove(4); //yellow
+    assertNotEquals(version, view.version());
+    assertEquals(Player.RED, view.cell(5, 4));
+    assertEquals(Player.YELLOW, view.cell(4, 4));
+    assertNull(view.cell(3, 4));
+    assertEquals(2, view.height(4));
+    assertEquals(0, view.height(0));
+    version = view.version();
+    this.sixBySeven.resetBoard();
+    assertNotEquals(version, view.version());
+    assertNull(view.cell(5, 4));
+    assertEquals(0, view.height(4));
+  }
+
+  /**
+   * Test that the board view rejects cells outside the board.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void getBoardViewOutOfBounds() {
+    this.tenByTen.getBoardView().cell(10, 0);
+  }
+
+  /**
+   * Test that listeners receive one event per move, with the cell that changed.
+   */
+  @Test
+  public void modelListener() {
+    checkModelListener(this.sixBySeven);
+    checkModelListener(new ConnectFourModelImpl(6, 7));
+  }
+
+  private void checkModelListener(ConnectFourModel model) {
+    List<MoveEvent> events = new ArrayList<>();
+    int[] resets = new int[1];
+    ModelListener listener = new ModelListener() {
+      @Override
+      public void moveMade(MoveEvent event) {
+        events.add(event);
+      }
+
+      @Override
+      public void moveUndone(MoveEvent event) {
+        events.add(event);
+      }
+
+      @Override
+      public void boardReset() {
+        resets[0]++;
+      }
+    };
+    model.addModelListener(listener);
+    for (int i = 0; i < 3; i++) {
+      model.makeMove(0); //red
+      model.makeMove(1); //yellow
+    }
+    model.makeMove(0); //red wins vertically
+    assertEquals(7, events.size());
+    assertEquals(5, events.get(0).getRow());
+    assertEquals(0, events.get(0).getColumn());
+    assertEquals(Player.RED, events.get(0).getPlayer());
+    assertEquals(GameStatus.IN_PROGRESS, events.get(0).getStatus());
+    assertEquals(Player.YELLOW, events.get(5).getPlayer());
+    assertEquals(2, events.get(6).getRow());
+    assertEquals(GameStatus.WON, events.get(6).getStatus());
+
+    model.undoMove(); //take back the winning disc
+    assertEquals(8, events.size());
+    assertEquals(2, events.get(7).getRow());
+    assertEquals(Player.RED, events.get(7).getPlayer());
+    assertEquals(GameStatus.IN_PROGRESS, events.get(7).getStatus());
+
+    model.resetBoard();
+    assertEquals(1, resets[0]);
+    model.removeModelListener(listener);
+    model.makeMove(0);
+    assertEquals(8, events.size());
+  }
+
+  /**
+   * Test that undoing moves restores the board, the turn, the winner and the position key, on
+   * both models.
+   */
+  @Test
+  public void undoMove() {
+    checkUndoMove(this.sixBySeven);
+    checkUndoMove(this.tenByTen);
+    checkUndoMove(new ConnectFourModelImpl(6, 7));
+  }
+
+  private void checkUndoMove(ConnectFourModel model) {
+    Random random = new Random(3);
+    for (int game = 0; game < 50; game++) {
+      model.resetBoard();
+      List<String> boards = new ArrayList<>();
+      List<Player> winners = new ArrayList<>();
+      List<Player> turns = new ArrayList<>();
+      List<Long> keys = new ArrayList<>();
+      while (!model.isGameOver()) {
+        int column = random.nextInt(model.getBoardView().getColumns());
+        if (model.isLegalMove(column)) {
+          boards.add(model.toString());
+          winners.add(model.getWinner());
+          turns.add(model.getTurn());
+          keys.add(model.getPositionKey());
+          model.makeMove(column);
+        }
+      }
+      for (int i = boards.size() - 1; i >= 0; i--) {
+        model.undoMove();
+        assertEquals(boards.get(i), model.toString());
+        assertEquals(winners.get(i), model.getWinner());
+        assertEquals(turns.get(i), model.getTurn());
+        assertEquals((long) keys.get(i), model.getPositionKey());
+      }
+    }
+  }
+
+  /**
+   * Test that the position key depends only on the discs, not on the order of the moves,
+   * and that it is the same on both models.
+   */
+  @Test
+  public void getPositionKey() {
+    ConnectFourModel other = new ConnectFourModelImpl(6, 7);
+    assertEquals(0, this.sixBySeven.getPositionKey());
+    int[] moves = {3, 2, 4, 2};
+    int[] transposed = {4, 2, 3, 2};
+    for (int i = 0; i < moves.length; i++) {
+      this.sixBySeven.makeMove(moves[i]);
+      other.makeMove(transposed[i]);
+    }
+    assertEquals(this.sixBySeven.getPositionKey(), other.getPositionKey());
+    long key = this.sixBySeven.getPositionKey();
+    this.sixBySeven.makeMove(5);
+    assertNotEquals(key, this.sixBySeven.getPositionKey());
+    this.sixBySeven.undoMove();
+    assertEquals(key, this.sixBySeven.getPositionKey());
+    this.sixBySeven.resetBoard();
+    assertEquals(0, this.sixBySeven.getPositionKey());
+  }
+
+  /**
+   * Test that undoing on an empty board is rejected.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void undoMoveOnEmptyBoard() {
+    this.sixBySeven.makeMove(0);
+    this.sixBySeven.undoMove();
+    this.sixBySeven.undoMove();
+  }
+
+  /**
+   * Test that the factory picks the bitboard for boards that fit in one word.
+   */
+  @Test
+  public void factoryPicksImplementation() {
+    assertTrue(ConnectFourModels.create(6, 7) instanceof BitboardConnectFourModel);
+    assertTrue(ConnectFourModels.create(10, 10) instanceof ConnectFourModelImpl);
+  }
+
+  /**
+   * Play random games on both models and check that they always agree.
+   */
+  @Test
+  public void agreesWithConnectFourModelImpl() {
+    Random random = new Random(42);
+    int[][] sizes = {{4, 4}, {6, 7}, {7, 9}, {8, 9}, {10, 10}};
+    for (int[] size : sizes) {
+      for (int game = 0; game < 200; game++) {
+        ConnectFourModel expected = new ConnectFourModelImpl(size[0], size[1]);
+        ConnectFourModel actual = new BitboardConnectFourModel(size[0], size[1]);
+        while (!expected.isGameOver()) {
+          int column = random.nextInt(size[1]);
+          assertEquals(expected.getBoardState()[0][column] == null, actual.isLegalMove(column));
+          if (!expected.isLegalMove(column)) {
+            continue;
+          }
+          expected.makeMove(column);
+          actual.makeMove(column);
+          assertEquals(expected.getWinner(), actual.getWinner());
+          assertEquals(expected.getTurn(), actual.getTurn());
+          assertEquals(expected.isGameOver(), actual.isGameOver());
+        }
+        assertArrayEquals(expected.getBoardState(), actual.getBoardState());
+        for (int i = 0; i < size[0]; i++) {
+          for (int j = 0; j < size[1]; j++) {
+            assertEquals(expected.getBoardState()[i][j], actual.getBoardView().cell(i, j));
+            assertEquals(expected.getBoardState()[i][j], expected.getBoardView().cell(i, j));
+          }
+        }
+        assertEquals(expected.toString(), actual.toString());
+      }
+    }
+  }
+}
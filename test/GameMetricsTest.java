@@ -0,0 +1,113 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import connect.ConnectFourModel;
+import connect.ConnectFourModelImpl;
+import connect.metrics.GameMetrics;
+import connect.metrics.InstrumentedConnectFourModel;
+import connect.metrics.LatencyHistogram;
+import java.lang.management.ManagementFactory;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import org.junit.Test;
+
+/**
+ * A JUnit test class for the GameMetrics class and the models it instruments.
+ */
+public class GameMetricsTest {
+
+  /**
+   * Test that moves, rejected moves, getWinner calls and finished games are counted.
+   */
+  @Test
+  public void countsMovesAndGames() {
+    GameMetrics metrics = new GameMetrics();
+    ConnectFourModel model = new InstrumentedConnectFourModel(new ConnectFourModelImpl(6, 7),
+        metrics);
+    for (int i = 0; i < 3; i++) {
+      model.makeMove(0);
+      model.makeMove(1);
+    }
+    assertEquals(1, metrics.getActiveGames());
+    try {
+      model.makeMove(7);
+      fail("The move should have been rejected");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    model.makeMove(0);
+    model.getWinner();
+    assertEquals(7, metrics.getMovesMade());
+    assertEquals(1, metrics.getIllegalMoves());
+    assertEquals(1, metrics.getWinnerCalls());
+    assertEquals(1, metrics.getGamesStarted());
+    assertEquals(1, metrics.getGamesFinished());
+    assertEquals(0, metrics.getActiveGames());
+    assertEquals(7, metrics.getModelMoveLatency().getCount());
+  }
+
+  /**
+   * Test that taking back a winning move resumes the game, and that a reset abandons it.
+   */
+  @Test
+  public void tracksActiveGames() {
+    GameMetrics metrics = new GameMetrics();
+    ConnectFourModel model = new InstrumentedConnectFourModel(new ConnectFourModelImpl(6, 7),
+        metrics);
+    for (int i = 0; i < 3; i++) {
+      model.makeMove(0);
+      model.makeMove(1);
+    }
+    model.makeMove(0);
+    model.undoMove();
+    assertEquals(0, metrics.getGamesFinished());
+    assertEquals(1, metrics.getActiveGames());
+    model.resetBoard();
+    assertEquals(0, metrics.getActiveGames());
+    model.resetBoard();
+    assertEquals(0, metrics.getActiveGames());
+    model.makeMove(3);
+    assertEquals(2, metrics.getGamesStarted());
+    assertEquals(1, metrics.getActiveGames());
+  }
+
+  /**
+   * Test that concurrent recording loses no values.
+   */
+  @Test
+  public void recordsConcurrently() throws InterruptedException {
+    LatencyHistogram histogram = new LatencyHistogram();
+    Thread[] threads = new Thread[4];
+    for (int t = 0; t < threads.length; t++) {
+      threads[t] = new Thread(() -> {
+        for (int i = 1; i <= 100_000; i++) {
+          histogram.record(i);
+        }
+      });
+      threads[t].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(400_000, histogram.count());
+    assertEquals(100_000, histogram.max());
+    long median = histogram.percentile(50);
+    assertTrue(median >= 50_000 && median <= 53_125);
+  }
+
+  /**
+   * Test that the global metrics can be read over JMX.
+   */
+  @Test
+  public void registersWithJmx() throws Exception {
+    GameMetrics.global().illegalMove();
+    ObjectName name = new ObjectName(GameMetrics.OBJECT_NAME);
+    Object illegal = ManagementFactory.getPlatformMBeanServer().getAttribute(name,
+        "IllegalMoves");
+    assertTrue((Long) illegal >= 1);
+    CompositeData latency = (CompositeData) ManagementFactory.getPlatformMBeanServer()
+        .getAttribute(name, "ModelMoveLatency");
+    assertTrue(latency.containsKey("p99"));
+  }
+}
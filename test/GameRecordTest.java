@@ -0,0 +1,194 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import connect.ConnectFourModel;
+import connect.ConnectFourModelImpl;
+import connect.ConnectFourModels;
+import connect.GameStatus;
+import connect.Player;
+import connect.record.GameArchive;
+import connect.record.GameRecord;
+import connect.record.GameRecordReader;
+import connect.record.GameRecordWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+import org.junit.Test;
+
+/**
+ * A JUnit test class for the game record writer, reader and archive.
+ */
+public class GameRecordTest {
+
+  /**
+   * Plays a random game to the end on a board of the given size.
+   */
+  private static ConnectFourModel randomGame(Random random, int rows, int columns) {
+    ConnectFourModel model = ConnectFourModels.create(rows, columns);
+    while (!model.isGameOver()) {
+      int column = random.nextInt(columns);
+      if (model.isLegalMove(column)) {
+        model.makeMove(column);
+      }
+    }
+    return model;
+  }
+
+  /**
+   * Test that a classic game takes 5 bytes plus half a byte per move.
+   */
+  @Test
+  public void nibblePerMove() throws IOException {
+    ConnectFourModel model = new ConnectFourModelImpl(6, 7);
+    int[] moves = {0, 6, 1, 6, 2, 5, 3}; // red wins on the bottom row
+    for (int move : moves) {
+      model.makeMove(move);
+    }
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (GameRecordWriter writer = new GameRecordWriter(bytes)) {
+      writer.write(model);
+    }
+    // file header, record, end marker, one index entry and the trailer
+    assertEquals(5 + (5 + 4) + 1 + 8 + 20, bytes.size());
+    try (GameRecordReader reader = new GameRecordReader(
+        new ByteArrayInputStream(bytes.toByteArray()))) {
+      GameRecord record = reader.next();
+      assertArrayEquals(moves, record.getMoves());
+      assertEquals(GameStatus.WON, record.getStatus());
+      assertEquals(Player.RED, record.getWinner());
+      assertNull(reader.next());
+    }
+  }
+
+  /**
+   * Test that games on several board sizes are read back in order, both by streaming and by id.
+   */
+  @Test
+  public void writeStreamAndFetch() throws IOException {
+    Random random = new Random(13);
+    int[][] sizes = {{6, 7}, {4, 16}, {10, 20}, {5, 4}};
+    List<GameRecord> expected = new ArrayList<>();
+    Path file = Files.createTempFile("games", ".c4r");
+    try {
+      try (GameRecordWriter writer = new GameRecordWriter(file)) {
+        for (int i = 0; i < 400; i++) {
+          int[] size = sizes[i % sizes.length];
+          ConnectFourModel model = randomGame(random, size[0], size[1]);
+          if (i % 7 == 0) {
+            model.undoMove(); // an unfinished game
+          }
+          GameRecord record = GameRecord.of(model);
+          expected.add(record);
+          assertEquals(i, writer.write(record));
+        }
+      }
+
+      try (GameRecordReader reader = new GameRecordReader(file)) {
+        for (GameRecord record : expected) {
+          assertEquals(record, reader.next());
+        }
+        assertNull(reader.next());
+      }
+
+      try (GameArchive archive = new GameArchive(file)) {
+        assertEquals(expected.size(), archive.size());
+        for (int id = expected.size() - 1; id >= 0; id -= 3) {
+          assertEquals(expected.get(id), archive.get(id));
+        }
+        GameRecord last = expected.get(expected.size() - 1);
+        ConnectFourModelImpl replayed = archive.replay(expected.size() - 1);
+        assertEquals(last.getWinner(), replayed.getWinner());
+        assertArrayEquals(last.getMoves(), replayed.getMoveHistory());
+      }
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  /**
+   * Test that an archive whose writer was never closed is rejected.
+   */
+  @Test(expected = IOException.class)
+  public void archiveWithoutIndex() throws IOException {
+    Path file = Files.createTempFile("games", ".c4r");
+    try {
+      GameRecordWriter writer = new GameRecordWriter(file);
+      writer.write(GameRecord.of(randomGame(new Random(1), 6, 7)));
+      new GameArchive(file).close();
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  /**
+   * Test that an archive written in another version of the format is rejected.
+   */
+  @Test(expected = IOException.class)
+  public void archiveOfOtherVersion() throws IOException {
+    Path file = Files.createTempFile("games", ".c4r");
+    try {
+      try (GameRecordWriter writer = new GameRecordWriter(file)) {
+        writer.write(GameRecord.of(randomGame(new Random(1), 6, 7)));
+      }
+      byte[] bytes = Files.readAllBytes(file);
+      bytes[4]++; // the version follows the magic number
+      Files.write(file, bytes);
+      new GameArchive(file).close();
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  /**
+   * Test that a writer whose stream fails deletes its temporary index file, even though it is
+   * never closed.
+   */
+  @Test
+  public void failedWriteDeletesIndex() throws IOException {
+    long before = indexFiles();
+    GameRecordWriter writer = new GameRecordWriter(new OutputStream() {
+      @Override
+      public void write(int b) throws IOException {
+        throw new IOException("The disk is full");
+      }
+    });
+    assertEquals(before + 1, indexFiles());
+    GameRecord record = GameRecord.of(randomGame(new Random(2), 6, 7));
+    try {
+      while (true) { // until the buffer is flushed
+        writer.write(record);
+      }
+    } catch (IOException e) {
+      assertEquals("The disk is full", e.getMessage());
+    }
+    assertEquals(before, indexFiles());
+  }
+
+  /**
+   * Counts the temporary index files of the writers.
+   */
+  private static long indexFiles() throws IOException {
+    Path directory = Paths.get(System.getProperty("java.io.tmpdir"));
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.filter(f -> f.getFileName().toString().startsWith("connect-four-index"))
+          .count();
+    }
+  }
+
+  /**
+   * Test that a game record with a column out of bounds is rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void recordColumnOutOfBounds() {
+    new GameRecord(6, 7, new int[] {3, 7}, GameStatus.IN_PROGRESS, null);
+  }
+}
@@ -0,0 +1,98 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import connect.server.GameServer;
+import connect.server.LoadTestClient;
+import connect.server.LoadTestResult;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * A JUnit test class for the GameServer class, over the loopback interface.
+ */
+public class GameServerTest {
+
+  private GameServer server;
+
+  /**
+   * Set up the test fixture with a server with two event loops on a free port.
+   */
+  @Before
+  public void setUp() throws IOException {
+    this.server = new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+        2, 6, 7);
+    this.server.start();
+  }
+
+  /**
+   * Stop the server.
+   */
+  @After
+  public void tearDown() throws IOException {
+    this.server.close();
+  }
+
+  /**
+   * Test every command of the protocol on one session.
+   */
+  @Test
+  public void protocol() throws IOException {
+    try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), this.server.getPort())) {
+      PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
+      BufferedReader in = new BufferedReader(
+          new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+      out.println("MOVE 3");
+      assertEquals("MOVED 3 RED IN_PROGRESS", in.readLine());
+      out.println("MOVE 7");
+      assertEquals("ERROR The column is out of bounds", in.readLine());
+      out.println("MOVE x");
+      assertEquals("ERROR Not a number: x", in.readLine());
+      out.println("MOVE 3");
+      assertEquals("MOVED 3 YELLOW IN_PROGRESS", in.readLine());
+      out.println("UNDO");
+      assertEquals("UNDONE 3", in.readLine());
+      out.println("BOARD");
+      assertEquals("BOARD 6 7 3", in.readLine());
+      out.println("FLY");
+      assertEquals("ERROR Unknown command", in.readLine());
+
+      out.println("NEW 4 4");
+      assertEquals("READY 4 4", in.readLine());
+      // several commands in one packet are answered in order
+      out.print("MOVE 0\nMOVE 1\nMOVE 0\nMOVE 1\nMOVE 0\nMOVE 1\nMOVE 0\nMOVE 2\n");
+      out.flush();
+      for (int i = 0; i < 6; i++) {
+        assertTrue(in.readLine().endsWith("IN_PROGRESS"));
+      }
+      assertEquals("MOVED 0 RED WON RED", in.readLine());
+      assertEquals("ERROR The game is over", in.readLine());
+
+      out.println("QUIT");
+      assertEquals("BYE", in.readLine());
+      assertNull(in.readLine());
+    }
+  }
+
+  /**
+   * Test that a short load test plays legal moves only, on many sessions at once.
+   */
+  @Test
+  public void loadTest() throws IOException {
+    InetSocketAddress address =
+        new InetSocketAddress(InetAddress.getLoopbackAddress(), this.server.getPort());
+    LoadTestResult result = new LoadTestClient(address, 50, 6, 7, 1).run(300);
+    assertEquals(0, result.getErrors());
+    assertTrue(result.getMoves() > 0);
+    assertTrue(result.getP99Nanos() <= result.getMaxNanos());
+  }
+}
@@ -0,0 +1,117 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import connect.BitboardConnectFourModel;
+import connect.ConnectFourModel;
+import connect.ConnectFourModelImpl;
+import connect.engine.Hint;
+import connect.engine.HintAnalyzer;
+import java.util.concurrent.CompletableFuture;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * A JUnit test class for the HintAnalyzer class.
+ */
+public class HintAnalyzerTest {
+
+  private HintAnalyzer analyzer;
+
+  /**
+   * Set up the test fixture with a four-thread analyzer.
+   */
+  @Before
+  public void setUp() {
+    this.analyzer = new HintAnalyzer(4, 1);
+  }
+
+  /**
+   * Stop the threads of the analyzer.
+   */
+  @After
+  public void tearDown() {
+    this.analyzer.shutdown();
+  }
+
+  /**
+   * Test that a winning column scores 1 and is the hint, and that the model is not changed.
+   */
+  @Test
+  public void findsImmediateWin() {
+    ConnectFourModel model = new BitboardConnectFourModel(6, 7);
+    int[] moves = {0, 6, 1, 6, 2, 5}; // red has three in a row on the bottom
+    for (int move : moves) {
+      model.makeMove(move);
+    }
+    Hint hint = this.analyzer.analyze(model, 50);
+    assertEquals(3, hint.getColumn());
+    assertEquals(1, hint.getScores()[3], 0);
+    assertEquals(7, hint.getScores().length);
+    assertArrayEquals(moves, model.getMoveHistory());
+  }
+
+  /**
+   * Test that a column that lets the opponent win scores 0, and a full column is not scored.
+   */
+  @Test
+  public void scoresLosingAndFullColumns() {
+    ConnectFourModel model = new ConnectFourModelImpl(4, 5);
+    int[] moves = {0, 0, 0, 0, 1, 4, 1, 4, 1}; // column 0 is full, yellow must stop column 1
+    for (int move : moves) {
+      model.makeMove(move);
+    }
+    double[] scores = this.analyzer.analyze(model, 50).getScores();
+    assertTrue(Double.isNaN(scores[0]));
+    assertEquals(0, scores[2], 0);
+    assertEquals(0, scores[3], 0);
+    assertTrue(scores[1] > 0);
+  }
+
+  /**
+   * Test that every column is searched at the same time, so a hint takes about as long as its
+   * budget, and that many hints can be computed at once.
+   */
+  @Test
+  public void answersWithinDeadline() throws Exception {
+    ConnectFourModel model = new ConnectFourModelImpl(6, 7);
+    long start = System.nanoTime();
+    Hint hint = this.analyzer.analyze(model, 100);
+    long elapsed = (System.nanoTime() - start) / 1_000_000;
+    assertTrue("took " + elapsed + " ms", elapsed < 1000);
+    for (int column = 0; column < 7; column++) {
+      assertTrue(hint.getPlayouts(column) > 0);
+    }
+    assertTrue(hint.getColumn() >= 0);
+
+    CompletableFuture<?>[] hints = new CompletableFuture<?>[20];
+    for (int i = 0; i < hints.length; i++) {
+      hints[i] = this.analyzer.analyzeAsync(model, 10);
+    }
+    CompletableFuture.allOf(hints).get();
+  }
+
+  /**
+   * Test that the deadline is kept even when it leaves no time for a single playout, in which
+   * case the columns are not scored.
+   */
+  @Test
+  public void keepsHardDeadline() {
+    ConnectFourModel model = new ConnectFourModelImpl(64, 64);
+    long start = System.nanoTime();
+    Hint hint = this.analyzer.analyze(model, 0);
+    assertTrue(System.nanoTime() - start < 1_000_000_000L);
+    assertEquals(0, hint.getPlayouts());
+    assertEquals(-1, hint.getColumn());
+    assertTrue(Double.isNaN(hint.getScores()[0]));
+  }
+
+  /**
+   * Test that a board too large for playouts to finish in time is refused.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void refusesHugeBoard() {
+    this.analyzer.analyze(new ConnectFourModelImpl(1000, 1000), 300);
+  }
+}
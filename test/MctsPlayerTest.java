@@ -0,0 +1,90 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import connect.BitboardConnectFourModel;
+import connect.ConnectFourModel;
+import connect.ConnectFourModelImpl;
+import connect.engine.MctsPlayer;
+import connect.engine.MctsResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * A JUnit test class for the MctsPlayer class.
+ */
+public class MctsPlayerTest {
+
+  private MctsPlayer player;
+
+  /**
+   * Set up the test fixture with a two-thread player with a small tree.
+   */
+  @Before
+  public void setUp() {
+    this.player = new MctsPlayer(2, 1 << 16, 1);
+  }
+
+  /**
+   * Stop the search threads.
+   */
+  @After
+  public void tearDown() {
+    this.player.shutdown();
+  }
+
+  /**
+   * Test that the player takes an immediate win.
+   */
+  @Test
+  public void takesImmediateWin() throws InterruptedException {
+    ConnectFourModel model = new BitboardConnectFourModel(6, 7);
+    int[] moves = {0, 6, 1, 6, 2, 5}; // red has three in a row on the bottom
+    for (int move : moves) {
+      model.makeMove(move);
+    }
+    MctsResult result = this.player.search(model, 10_000, 20_000);
+    assertEquals(3, result.getColumn());
+    assertTrue(result.getWinRate() > 0.9);
+    assertEquals(40_000, result.getPlayouts());
+    assertEquals(6, model.getMoveHistory().length); // the model is not changed
+  }
+
+  /**
+   * Test that the player blocks a vertical threat of the opponent.
+   */
+  @Test
+  public void blocksThreat() throws InterruptedException {
+    ConnectFourModel model = new ConnectFourModelImpl(10, 10);
+    int[] moves = {4, 0, 4, 9, 4}; // red threatens to win in column 4
+    for (int move : moves) {
+      model.makeMove(move);
+    }
+    MctsResult result = this.player.search(model, 10_000, 20_000);
+    assertEquals(4, result.getColumn());
+  }
+
+  /**
+   * Test that the search stops when the time is up.
+   */
+  @Test
+  public void honorsBudget() throws InterruptedException {
+    MctsResult result = this.player.search(new ConnectFourModelImpl(20, 20), 200);
+    assertTrue(result.getElapsedNanos() < 1_000_000_000L);
+    assertTrue(result.getPlayouts() > 0);
+    assertTrue(result.getNodes() <= 2 << 16);
+  }
+
+  /**
+   * Test that an exception is thrown when the game is over.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void searchFinishedGame() throws InterruptedException {
+    ConnectFourModel model = new BitboardConnectFourModel(4, 4);
+    int[] moves = {0, 1, 0, 1, 0, 1, 0};
+    for (int move : moves) {
+      model.makeMove(move);
+    }
+    this.player.search(model, 100);
+  }
+}
@@ -0,0 +1,70 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import connect.ConnectFourModel;
+import connect.ConnectFourModelImpl;
+import connect.ModelPool;
+import connect.Player;
+import org.junit.Test;
+
+/**
+ * A JUnit test class for the ModelPool class, and for resetting models in place.
+ */
+public class ModelPoolTest {
+
+  /**
+   * Test that a released model comes back with an empty board, and only for its own size.
+   */
+  @Test
+  public void reusesReleasedModels() {
+    ModelPool pool = new ModelPool(2);
+    ConnectFourModel model = pool.acquire(6, 7);
+    model.makeMove(3);
+    model.makeMove(3);
+    pool.release(model);
+    assertEquals(1, pool.idle(6, 7));
+    assertNotSame(model, pool.acquire(7, 6));
+    ConnectFourModel again = pool.acquire(6, 7);
+    assertSame(model, again);
+    assertEquals(0, again.getMoveHistory().length);
+    assertNull(again.getBoardView().cell(5, 3));
+    assertEquals(Player.RED, again.getTurn());
+    assertEquals(0, pool.idle(6, 7));
+  }
+
+  /**
+   * Test that the pool keeps no more idle models than it may.
+   */
+  @Test
+  public void boundedPerSize() {
+    ModelPool pool = new ModelPool(2);
+    for (int i = 0; i < 5; i++) {
+      pool.release(new ConnectFourModelImpl(10, 10));
+    }
+    assertEquals(2, pool.idle(10, 10));
+  }
+
+  /**
+   * Test that initializing the board clears it in place, including a won game.
+   */
+  @Test
+  public void initializeBoardInPlace() {
+    ConnectFourModel model = new ConnectFourModelImpl(10, 10);
+    int[] moves = {0, 1, 0, 1, 0, 1, 0};
+    for (int move : moves) {
+      model.makeMove(move);
+    }
+    model.resetBoard();
+    for (int i = 0; i < 10; i++) {
+      for (int j = 0; j < 10; j++) {
+        assertNull(model.getBoardView().cell(i, j));
+      }
+    }
+    model.makeMove(0);
+    model.initializeBoard();
+    assertNull(model.getBoardState()[9][0]);
+    assertEquals(0, model.getBoardView().height(0));
+  }
+}
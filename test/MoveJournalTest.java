@@ -0,0 +1,334 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import connect.ConnectFourModel;
+import connect.journal.MoveJournal;
+import connect.server.GameServer;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * A JUnit test class for the MoveJournal class, and for a game server that writes to one.
+ */
+public class MoveJournalTest {
+
+  private Path file;
+
+  /**
+   * Set up the test fixture with the name of a journal file that does not exist yet.
+   */
+  @Before
+  public void setUp() throws IOException {
+    this.file = Files.createTempFile("connect-four-journal", ".log");
+    Files.delete(this.file);
+  }
+
+  /**
+   * Delete the journal file, and the files of its snapshots.
+   */
+  @After
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(this.file);
+    Files.deleteIfExists(sibling(".snapshot"));
+    Files.deleteIfExists(sibling(".compacting"));
+  }
+
+  private Path sibling(String suffix) {
+    return this.file.resolveSibling(this.file.getFileName() + suffix);
+  }
+
+  /**
+   * Test that the games that were not ended are rebuilt when the journal is opened again.
+   */
+  @Test
+  public void recoversGames() throws Exception {
+    try (MoveJournal journal = new MoveJournal(this.file)) {
+      journal.newGame(0, 6, 7);
+      journal.newGame(1, 6, 7);
+      journal.newGame(2, 5, 9);
+      journal.move(0, 3);
+      journal.move(1, 2);
+      journal.move(0, 4);
+      journal.undo(0);
+      journal.move(0, 5);
+      journal.endGame(1);
+      journal.await(journal.move(2, 8));
+    }
+    try (MoveJournal journal = new MoveJournal(this.file)) {
+      assertEquals(2, journal.recovered().size());
+      assertEquals(2, journal.maxGameId());
+      assertArrayEquals(new int[] {3, 5}, journal.recovered().get(0L).getMoveHistory());
+      ConnectFourModel other = journal.recovered().get(2L);
+      assertEquals(9, other.getBoardView().getColumns());
+      assertArrayEquals(new int[] {8}, other.getMoveHistory());
+    }
+  }
+
+  /**
+   * Test that a record cut short by a crash is dropped, and new records go after the last good
+   * one.
+   */
+  @Test
+  public void dropsTornRecord() throws Exception {
+    try (MoveJournal journal = new MoveJournal(this.file)) {
+      journal.newGame(7, 6, 7);
+      journal.move(7, 3);
+    }
+    Files.write(this.file, new byte[] {0, 0, 0, 0, 0, 0, 0, 7, 0, 0}, StandardOpenOption.APPEND);
+    try (MoveJournal journal = new MoveJournal(this.file)) {
+      assertArrayEquals(new int[] {3}, journal.recovered().get(7L).getMoveHistory());
+      journal.move(7, 3);
+    }
+    try (MoveJournal journal = new MoveJournal(this.file)) {
+      assertArrayEquals(new int[] {3, 3}, journal.recovered().get(7L).getMoveHistory());
+    }
+  }
+
+  /**
+   * Test that the records of threads waiting at the same time share forces.
+   */
+  @Test
+  public void groupsCommits() throws Exception {
+    int threads = 8;
+    int moves = 200;
+    try (MoveJournal journal = new MoveJournal(this.file)) {
+      List<Thread> workers = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        long game = t;
+        workers.add(new Thread(() -> {
+          try {
+            journal.await(journal.newGame(game, 6, 7));
+            for (int i = 0; i < moves; i++) {
+              // undoing every other move keeps the game going
+              long sequence = i % 2 == 0 ? journal.move(game, 0) : journal.undo(game);
+              journal.await(sequence);
+            }
+          } catch (IOException | InterruptedException e) {
+            throw new IllegalStateException(e);
+          }
+        }));
+      }
+      workers.forEach(Thread::start);
+      for (Thread worker : workers) {
+        worker.join();
+      }
+      assertEquals(threads * (moves + 1), journal.appended());
+      assertTrue(journal.syncs() < journal.appended());
+    }
+    try (MoveJournal journal = new MoveJournal(this.file)) {
+      assertEquals(threads, journal.recovered().size());
+    }
+  }
+
+  /**
+   * Test that a snapshot replaces the records it covers, and that the games are recovered from
+   * the snapshot and the records written after it.
+   */
+  @Test
+  public void recoversFromSnapshot() throws Exception {
+    try (MoveJournal journal = new MoveJournal(this.file)) {
+      journal.newGame(0, 6, 7);
+      journal.newGame(1, 6, 7);
+      journal.newGame(2, 7, 40);
+      for (int i = 0; i < 6; i++) {
+        journal.move(0, i % 3);
+        journal.move(2, 39 - i);
+      }
+      journal.endGame(1);
+      journal.snapshot();
+      assertTrue(Files.exists(sibling(".snapshot")));
+      assertEquals(16, Files.size(this.file));
+      journal.undo(0);
+      journal.move(2, 17);
+    }
+    try (MoveJournal journal = new MoveJournal(this.file)) {
+      assertEquals(2, journal.recovered().size());
+      assertEquals(2, journal.maxGameId());
+      assertArrayEquals(new int[] {0, 1, 2, 0, 1},
+          journal.recovered().get(0L).getMoveHistory());
+      assertArrayEquals(new int[] {39, 38, 37, 36, 35, 34, 17},
+          journal.recovered().get(2L).getMoveHistory());
+      // a recovered game can be taken back past the snapshot
+      journal.recovered().get(0L).undoMove();
+    }
+  }
+
+  /**
+   * Test that the journal is compacted in the background once it grows, and that many
+   * compactions leave only the games that are still going.
+   */
+  @Test
+  public void compactsInBackground() throws Exception {
+    try (MoveJournal journal = new MoveJournal(this.file, 4096)) {
+      for (long game = 0; game < 500; game++) {
+        journal.newGame(game, 6, 7);
+        for (int i = 0; i < 10; i++) {
+          journal.move(game, i % 7);
+        }
+        if (game % 100 != 0) {
+          journal.endGame(game);
+        }
+        journal.await(journal.appended());
+      }
+      // 96 KB of records were written, but only the last ones are still in the file
+      assertTrue(Files.size(this.file) < 32 * 1024);
+    }
+    try (MoveJournal journal = new MoveJournal(this.file)) {
+      assertEquals(5, journal.recovered().size());
+      assertEquals(499, journal.maxGameId());
+      assertEquals(10, journal.recovered().get(400L).getMoveHistory().length);
+    }
+  }
+
+  /**
+   * Test that a compaction cut short by a crash is finished when the journal is opened again.
+   */
+  @Test
+  public void finishesInterruptedCompaction() throws Exception {
+    try (MoveJournal journal = new MoveJournal(this.file)) {
+      journal.newGame(3, 6, 7);
+      journal.move(3, 3);
+    }
+    // the file was renamed for a compaction, and the process stopped before it ran
+    Files.move(this.file, sibling(".compacting"));
+    try (MoveJournal journal = new MoveJournal(this.file)) {
+      assertArrayEquals(new int[] {3}, journal.recovered().get(3L).getMoveHistory());
+      journal.move(3, 4);
+    }
+    assertTrue(Files.exists(sibling(".snapshot")));
+    assertTrue(!Files.exists(sibling(".compacting")));
+    try (MoveJournal journal = new MoveJournal(this.file)) {
+      assertArrayEquals(new int[] {3, 4}, journal.recovered().get(3L).getMoveHistory());
+    }
+  }
+
+  /**
+   * Test that a game in progress can be resumed after the server restarts.
+   */
+  @Test
+  public void serverResumesGames() throws Exception {
+    String id;
+    try (MoveJournal journal = new MoveJournal(this.file)) {
+      GameServer server = new GameServer(
+          new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1, 6, 7, journal);
+      try {
+        server.start();
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+          PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
+          BufferedReader in = new BufferedReader(
+              new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+          out.println("MOVE 3");
+          assertEquals("MOVED 3 RED IN_PROGRESS", in.readLine());
+          out.println("MOVE 4");
+          assertEquals("MOVED 4 YELLOW IN_PROGRESS", in.readLine());
+          out.println("GAME");
+          id = in.readLine().substring("GAME ".length());
+          // the server stops while the game is in progress, before the client goes away
+          server.close();
+        }
+      } finally {
+        server.close();
+      }
+    }
+    try (MoveJournal journal = new MoveJournal(this.file);
+        GameServer server = new GameServer(
+            new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1, 6, 7, journal)) {
+      server.start();
+      try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+        PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
+        BufferedReader in = new BufferedReader(
+            new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+        out.println("RESUME 12345");
+        assertEquals("ERROR There is no game 12345 to resume", in.readLine());
+        out.println("RESUME " + id);
+        assertEquals("READY 6 7", in.readLine());
+        out.println("BOARD");
+        assertEquals("BOARD 6 7 3,4", in.readLine());
+        out.println("MOVE 3");
+        assertEquals("MOVED 3 RED IN_PROGRESS", in.readLine());
+        out.println("GAME");
+        assertEquals("GAME " + id, in.readLine());
+      }
+    }
+  }
+
+  /**
+   * Test that a change the journal refuses, because it is closed, is not made to the game
+   * either.
+   */
+  @Test
+  public void closedJournalLeavesGameUnchanged() throws Exception {
+    MoveJournal journal = new MoveJournal(this.file);
+    try (GameServer server = new GameServer(
+        new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1, 6, 7, journal)) {
+      server.start();
+      try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+        PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
+        BufferedReader in = new BufferedReader(
+            new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+        out.println("MOVE 3");
+        assertEquals("MOVED 3 RED IN_PROGRESS", in.readLine());
+        journal.close();
+        out.println("MOVE 4");
+        assertEquals("ERROR The journal is closed", in.readLine());
+        out.println("UNDO");
+        assertEquals("ERROR The journal is closed", in.readLine());
+        out.println("NEW");
+        assertEquals("ERROR The journal is closed", in.readLine());
+        out.println("NEW 5 5");
+        assertEquals("ERROR The journal is closed", in.readLine());
+        out.println("BOARD");
+        assertEquals("BOARD 6 7 3", in.readLine());
+      }
+    } finally {
+      journal.close();
+    }
+  }
+
+  /**
+   * Test that a connection whose game cannot be started, because the journal is closed, is
+   * closed right away, and that the event loop goes on serving the other connections.
+   */
+  @Test
+  public void closedJournalRefusesNewConnection() throws Exception {
+    MoveJournal journal = new MoveJournal(this.file);
+    try (GameServer server = new GameServer(
+        new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1, 6, 7, journal)) {
+      server.start();
+      try (Socket first = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+        PrintWriter out = new PrintWriter(first.getOutputStream(), true);
+        BufferedReader in = new BufferedReader(
+            new InputStreamReader(first.getInputStream(), StandardCharsets.US_ASCII));
+        out.println("MOVE 3");
+        assertEquals("MOVED 3 RED IN_PROGRESS", in.readLine());
+        journal.close();
+        try (Socket second = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+          second.setSoTimeout(5000);
+          assertNull(new BufferedReader(new InputStreamReader(second.getInputStream(),
+              StandardCharsets.US_ASCII)).readLine());
+        }
+        out.println("BOARD");
+        assertEquals("BOARD 6 7 3", in.readLine());
+        assertEquals(1, server.getSessionCount());
+      }
+    } finally {
+      journal.close();
+    }
+  }
+}
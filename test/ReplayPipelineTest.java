@@ -0,0 +1,67 @@
+import static org.junit.Assert.assertEquals;
+
+import connect.batch.ReplayPipeline;
+import connect.batch.ReplaySummary;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import org.junit.Test;
+
+/**
+ * A JUnit test class for the ReplayPipeline class.
+ */
+public class ReplayPipelineTest {
+
+  /**
+   * Test the outcome of every kind of game, with batches smaller than the input so that the
+   * order of the output depends on the batches being written in order.
+   */
+  @Test
+  public void outcomesInInputOrder() throws IOException, InterruptedException {
+    String input = String.join("\n",
+        "1727374", // red wins on the bottom row
+        "12123252", // yellow wins vertically in column 2
+        "4453",
+        "",
+        "11111111", // the eighth disc does not fit in the first column
+        "17273748", // moves go on after red won
+        "12x",
+        "4") + "\n";
+    StringWriter out = new StringWriter();
+    ReplaySummary summary = new ReplayPipeline(6, 7, 3, 2).run(new StringReader(input), out);
+    assertEquals(String.join("\n",
+        "RED 7",
+        "YELLOW 8",
+        "UNFINISHED 4",
+        "UNFINISHED 0",
+        "INVALID 7 The column is full",
+        "INVALID 8 The game is already over",
+        "INVALID 3 Not a column",
+        "UNFINISHED 1") + "\n", out.toString());
+    assertEquals(8, summary.getGames());
+    assertEquals(1, summary.getRedWins());
+    assertEquals(1, summary.getYellowWins());
+    assertEquals(3, summary.getInvalid());
+  }
+
+  /**
+   * Test that a full board without four in a row is a draw, and that columns above 9 are
+   * separated by commas.
+   */
+  @Test
+  public void drawAndWideBoards() throws IOException, InterruptedException {
+    StringBuilder draw = new StringBuilder();
+    // columns in pairs fill the 4 * 4 board with alternating pairs of colors
+    for (String move : new String[] {"1", "2", "1", "2", "2", "1", "2", "1",
+        "3", "4", "3", "4", "4", "3", "4", "3"}) {
+      draw.append(move);
+    }
+    StringWriter out = new StringWriter();
+    new ReplayPipeline(4, 4, 1, 16).run(new StringReader(draw + "\n"), out);
+    assertEquals("DRAW 16\n", out.toString());
+
+    out = new StringWriter();
+    new ReplayPipeline(6, 12, 2, 1).run(new StringReader("12,11,12,11,12,11,12\n10,13\n"), out);
+    assertEquals("RED 7\nINVALID 2 The column is out of bounds\n", out.toString());
+  }
+}
@@ -0,0 +1,74 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import connect.sim.MovePolicies;
+import connect.sim.SelfPlaySimulator;
+import connect.sim.SimulationStats;
+import org.junit.Test;
+
+/**
+ * A JUnit test class for the SelfPlaySimulator class.
+ */
+public class SelfPlaySimulatorTest {
+
+  /**
+   * Test that every game is counted once, and that the game lengths add up to the games.
+   */
+  @Test
+  public void countsEveryGame() throws InterruptedException {
+    SelfPlaySimulator simulator = new SelfPlaySimulator(6, 7, 3,
+        MovePolicies.random(), MovePolicies.greedy());
+    SimulationStats stats = simulator.run(1001, 5);
+    assertEquals(1001, stats.getGames());
+    assertEquals(1001, stats.getRedWins() + stats.getYellowWins() + stats.getDraws());
+    long lengths = 0;
+    for (int moves = 0; moves <= 42; moves++) {
+      lengths += stats.getGamesOfLength(moves);
+    }
+    assertEquals(1001, lengths);
+    assertEquals(0, stats.getGamesOfLength(6)); // nobody can win in fewer than 7 moves
+    assertTrue(stats.getAverageLength() >= 7);
+  }
+
+  /**
+   * Test that the same seed and number of threads give the same statistics.
+   */
+  @Test
+  public void sameSeedSameStats() throws InterruptedException {
+    SelfPlaySimulator simulator = new SelfPlaySimulator(5, 5, 2,
+        MovePolicies.random(), MovePolicies.random());
+    SimulationStats first = simulator.run(500, 9);
+    SimulationStats second = simulator.run(500, 9);
+    assertEquals(first.getRedWins(), second.getRedWins());
+    assertEquals(first.getDraws(), second.getDraws());
+    assertEquals(first.getAverageLength(), second.getAverageLength(), 0);
+  }
+
+  /**
+   * Test that games on a huge board are counted without a slot for every possible length.
+   */
+  @Test
+  public void countsGamesOnHugeBoard() throws InterruptedException {
+    SelfPlaySimulator simulator = new SelfPlaySimulator(10_000, 10_000, 2,
+        MovePolicies.random(), MovePolicies.random());
+    SimulationStats stats = simulator.run(4, 3);
+    assertEquals(4, stats.getGames());
+    assertTrue(stats.getAverageLength() >= 7);
+  }
+
+  /**
+   * Test that a board with more cells than an int can count is rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void boardTooLarge() {
+    new SelfPlaySimulator(100_000, 100_000, 1, MovePolicies.random(), MovePolicies.random());
+  }
+
+  /**
+   * Test that a simulator without threads is rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void noThreads() {
+    new SelfPlaySimulator(6, 7, 0, MovePolicies.random(), MovePolicies.random());
+  }
+}
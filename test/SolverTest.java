@@ -0,0 +1,193 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import connect.BitboardConnectFourModel;
+import connect.ConnectFourModel;
+import connect.engine.LazySmpSolver;
+import connect.engine.SearchResult;
+import connect.engine.Solver;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * A JUnit test class for the Solver class. Scores are checked against a plain minimax search
+ * without any pruning, on small boards where that is fast enough.
+ */
+public class SolverTest {
+
+  private Solver solver;
+
+  /**
+   * Set up the test fixture with a solver with a small transposition table.
+   */
+  @Before
+  public void setUp() {
+    this.solver = new Solver(16);
+  }
+
+  /**
+   * Test that the solver takes an immediate win.
+   */
+  @Test
+  public void takesImmediateWin() {
+    ConnectFourModel model = new BitboardConnectFourModel(6, 7);
+    int[] moves = {0, 6, 1, 6, 2, 5}; // red has three in a row on the bottom
+    for (int move : moves) {
+      model.makeMove(move);
+    }
+    SearchResult result = this.solver.solve(model);
+    assertEquals(3, result.getColumn());
+    assertEquals((42 + 1 - 6) / 2, result.getScore());
+  }
+
+  /**
+   * Test that an exception is thrown when the game is over.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void solveFinishedGame() {
+    ConnectFourModel model = new BitboardConnectFourModel(4, 4);
+    int[] moves = {0, 1, 0, 1, 0, 1, 0};
+    for (int move : moves) {
+      model.makeMove(move);
+    }
+    this.solver.solve(model);
+  }
+
+  /**
+   * Test that an exception is thrown when the board does not fit in 64 bits.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void solveBoardTooLarge() {
+    this.solver.solve(new BitboardConnectFourModel(8, 8));
+  }
+
+  /**
+   * Compare the solver with a plain minimax search on random positions of small boards.
+   */
+  @Test
+  public void agreesWithMinimax() {
+    Random random = new Random(7);
+    int[][] sizes = {{4, 4}, {4, 5}, {5, 4}};
+    for (int[] size : sizes) {
+      int rows = size[0];
+      int columns = size[1];
+      for (int game = 0; game < 40; game++) {
+        ConnectFourModel model = new BitboardConnectFourModel(rows, columns);
+        int[][] grid = new int[rows][columns];
+        int[] heights = new int[columns];
+        int player = 1;
+        int moves = 0;
+        int opening = rows * columns / 2 - 2 + random.nextInt(3);
+        while (moves < opening && !model.isGameOver()) {
+          int column = random.nextInt(columns);
+          if (!model.isLegalMove(column)) {
+            continue;
+          }
+          model.makeMove(column);
+          grid[heights[column]++][column] = player;
+          player = 3 - player;
+          moves++;
+        }
+        if (model.isGameOver()) {
+          continue;
+        }
+        int expected = minimax(grid, heights, moves, player);
+        SearchResult result = this.solver.solve(model);
+        assertEquals(expected, result.getScore());
+
+        // the best column must reach that score
+        int column = result.getColumn();
+        assertTrue(heights[column] < rows);
+        if (!wins(grid, heights[column], column, player)) {
+          grid[heights[column]++][column] = player;
+          assertEquals(-expected, minimax(grid, heights, moves + 1, 3 - player));
+        }
+      }
+    }
+  }
+
+  /**
+   * Test that the Lazy SMP solver finds the same scores as the single-threaded solver, and
+   * reports the nodes of every thread.
+   */
+  @Test
+  public void lazySmpAgreesWithSolver() throws InterruptedException {
+    LazySmpSolver parallel = new LazySmpSolver(4, 16);
+    Random random = new Random(11);
+    try {
+      for (int game = 0; game < 20; game++) {
+        ConnectFourModel model = new BitboardConnectFourModel(6, 7);
+        int opening = 16 + random.nextInt(6);
+        for (int moves = 0; moves < opening && !model.isGameOver(); ) {
+          int column = random.nextInt(7);
+          if (model.isLegalMove(column)) {
+            model.makeMove(column);
+            moves++;
+          }
+        }
+        if (model.isGameOver()) {
+          continue;
+        }
+        SearchResult expected = this.solver.solve(model);
+        SearchResult actual = parallel.solve(model);
+        assertEquals(expected.getScore(), actual.getScore());
+        assertEquals(4, actual.getThreadNodes().length);
+        assertTrue(model.isLegalMove(actual.getColumn()));
+      }
+    } finally {
+      parallel.shutdown();
+    }
+  }
+
+  /**
+   * Scores a position for the player to move, trying every move.
+   */
+  private static int minimax(int[][] grid, int[] heights, int moves, int player) {
+    int rows = grid.length;
+    int columns = heights.length;
+    int area = rows * columns;
+    if (moves == area) {
+      return 0;
+    }
+    for (int j = 0; j < columns; j++) {
+      if (heights[j] < rows && wins(grid, heights[j], j, player)) {
+        return (area + 1 - moves) / 2;
+      }
+    }
+    int best = -area;
+    for (int j = 0; j < columns; j++) {
+      if (heights[j] < rows) {
+        grid[heights[j]++][j] = player;
+        best = Math.max(best, -minimax(grid, heights, moves + 1, 3 - player));
+        grid[--heights[j]][j] = 0;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Checks whether a disc of the player at the given cell would make four in a row, where row 0
+   * is the bottom of the board.
+   */
+  private static boolean wins(int[][] grid, int row, int column, int player) {
+    int[][] directions = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+    for (int[] d : directions) {
+      int count = 1;
+      for (int sign = -1; sign <= 1; sign += 2) {
+        int i = row + sign * d[0];
+        int j = column + sign * d[1];
+        while (i >= 0 && i < grid.length && j >= 0 && j < grid[0].length
+            && grid[i][j] == player) {
+          count++;
+          i += sign * d[0];
+          j += sign * d[1];
+        }
+      }
+      if (count >= 4) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
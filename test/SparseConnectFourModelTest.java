@@ -0,0 +1,100 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import connect.ConnectFourModel;
+import connect.ConnectFourModelImpl;
+import connect.ConnectFourModels;
+import connect.Player;
+import connect.SparseConnectFourModel;
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * A JUnit test class for the SparseConnectFourModel class.
+ */
+public class SparseConnectFourModelTest {
+
+  /**
+   * Play random games on the sparse and the dense model and check that they always agree,
+   * including after taking moves back.
+   */
+  @Test
+  public void agreesWithConnectFourModelImpl() {
+    Random random = new Random(17);
+    int[][] sizes = {{4, 4}, {6, 7}, {9, 17}, {20, 12}};
+    for (int[] size : sizes) {
+      for (int game = 0; game < 100; game++) {
+        ConnectFourModel expected = new ConnectFourModelImpl(size[0], size[1]);
+        ConnectFourModel actual = new SparseConnectFourModel(size[0], size[1]);
+        while (!expected.isGameOver()) {
+          int column = random.nextInt(size[1]);
+          assertEquals(expected.isLegalMove(column), actual.isLegalMove(column));
+          if (!expected.isLegalMove(column)) {
+            continue;
+          }
+          expected.makeMove(column);
+          actual.makeMove(column);
+          assertEquals(expected.getWinner(), actual.getWinner());
+          assertEquals(expected.getTurn(), actual.getTurn());
+          assertEquals(expected.getPositionKey(), actual.getPositionKey());
+          if (random.nextInt(8) == 0) {
+            expected.undoMove();
+            actual.undoMove();
+          }
+        }
+        assertArrayEquals(expected.getBoardState(), actual.getBoardState());
+        assertArrayEquals(expected.getMoveHistory(), actual.getMoveHistory());
+        assertEquals(expected.toString(), actual.toString());
+      }
+    }
+  }
+
+  /**
+   * Test that a move is rejected once the game is won, and that the rejected move leaves the
+   * board as it was.
+   */
+  @Test
+  public void rejectsMoveAfterWin() {
+    ConnectFourModel model = new SparseConnectFourModel(6, 7);
+    for (int move : new int[] {0, 1, 0, 1, 0, 1, 0}) { // red wins in column 0
+      model.makeMove(move);
+    }
+    assertFalse(model.isLegalMove(3));
+    try {
+      model.makeMove(3);
+      fail("A move after the win was accepted");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    assertEquals(7, model.getMoveHistory().length);
+    assertNull(model.getBoardView().cell(5, 3));
+    assertEquals(Player.RED, model.getWinner());
+  }
+
+  /**
+   * Test a diagonal win far out on a board of a billion cells, which could not be allocated
+   * densely.
+   */
+  @Test
+  public void hugeBoard() {
+    ConnectFourModel model = ConnectFourModels.create(10_000, 100_000);
+    assertTrue(model instanceof SparseConnectFourModel);
+    int base = 99_990;
+    int[] moves = {base, base + 1, base + 1, base + 2, base + 2, base + 3, base + 2,
+        base + 3, base + 3, 0, base + 3};
+    for (int move : moves) {
+      model.makeMove(move);
+    }
+    assertEquals(Player.RED, model.getWinner());
+    assertEquals(Player.RED, model.getBoardView().cell(9_996, base + 3));
+    assertNull(model.getBoardView().cell(9_995, base + 3));
+    assertEquals(4, model.getBoardView().height(base + 3));
+    model.resetBoard();
+    assertNull(model.getBoardView().cell(9_999, base));
+    assertEquals(0, model.getMoveHistory().length);
+  }
+}
@@ -0,0 +1,194 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import connect.ConnectFourModelImpl;
+import connect.ConnectFourViewInterface;
+import connect.Features;
+import connect.SwingConnectFourController;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+import javax.swing.SwingUtilities;
+import org.junit.Test;
+
+/**
+ * A JUnit test class for the SwingConnectFourController class, with a view that records what it
+ * is told instead of showing it.
+ */
+public class SwingConnectFourControllerTest {
+
+  /**
+   * A view that keeps the colors of the cells and the text of the labels.
+   */
+  private static final class RecordingView implements ConnectFourViewInterface {
+
+    final Map<String, String> cells = new ConcurrentHashMap<>();
+    volatile String hint;
+    volatile String instruction;
+    volatile double[] scores;
+    volatile boolean offEventThread;
+
+    private void check() {
+      if (!SwingUtilities.isEventDispatchThread()) {
+        offEventThread = true;
+      }
+    }
+
+    @Override
+    public void displayGameState(String gameState) {
+    }
+
+    @Override
+    public void displayPlayerTurn(String player) {
+      check();
+      hint = player + "'s turn";
+    }
+
+    @Override
+    public void displayInvalidNumber(String invalidInput) {
+    }
+
+    @Override
+    public void displayErrorMessage(String message) {
+      check();
+      hint = message;
+    }
+
+    @Override
+    public void displayGameQuit(String gameState) {
+    }
+
+    @Override
+    public void displayGameOver(String winner) {
+      check();
+      hint = "Game over: " + winner;
+    }
+
+    @Override
+    public void askPlayAgain() {
+      check();
+      instruction = "Play again?";
+    }
+
+    @Override
+    public void addFeatures(Features features) {
+    }
+
+    @Override
+    public void setBoardSize(int rows, int columns) {
+    }
+
+    @Override
+    public void updateButtonColor(int i, int j, String color) {
+      check();
+      cells.put(i + "," + j, color);
+    }
+
+    @Override
+    public void emptyBoard() {
+      check();
+      cells.clear();
+    }
+
+    @Override
+    public void startGame() {
+    }
+
+    @Override
+    public void resetLabel() {
+      check();
+      hint = null;
+      instruction = null;
+    }
+
+    @Override
+    public void showHint(double[] scores) {
+      check();
+      this.scores = scores;
+    }
+  }
+
+  /**
+   * Waits until the game thread and the event dispatch thread have brought the view to the
+   * expected state.
+   */
+  private static void settle(BooleanSupplier done) throws Exception {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (!done.getAsBoolean() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(5);
+    }
+    SwingUtilities.invokeAndWait(() -> { });
+    assertTrue(done.getAsBoolean());
+  }
+
+  /**
+   * Test that moves made through the controller end up in the view, on the event dispatch
+   * thread.
+   */
+  @Test
+  public void updatesViewOnEventThread() throws Exception {
+    RecordingView view = new RecordingView();
+    SwingConnectFourController controller =
+        new SwingConnectFourController(new ConnectFourModelImpl(6, 7), view);
+    for (int i = 0; i < 3; i++) {
+      controller.makeMove(0);
+      controller.makeMove(1);
+    }
+    controller.makeMove(0);
+    // the two labels may reach the view in separate batches
+    settle(() -> "Game over: RED".equals(view.hint) && "Play again?".equals(view.instruction));
+    assertEquals("RED", view.cells.get("2,0"));
+    assertEquals("YELLOW", view.cells.get("3,1"));
+    assertEquals(7, view.cells.size());
+    assertFalse(view.offEventThread);
+    controller.shutdown();
+  }
+
+  /**
+   * Test that undoing and restarting are applied in order.
+   */
+  @Test
+  public void undoesAndRestarts() throws Exception {
+    RecordingView view = new RecordingView();
+    SwingConnectFourController controller =
+        new SwingConnectFourController(new ConnectFourModelImpl(6, 7), view);
+    controller.makeMove(3);
+    controller.makeMove(4);
+    controller.undoMove();
+    settle(() -> "null".equals(view.cells.get("5,4")) && "YELLOW's turn".equals(view.hint));
+    controller.restartGame();
+    controller.makeMove(2);
+    controller.makeMove(5);
+    settle(() -> "YELLOW".equals(view.cells.get("5,5")) && "RED's turn".equals(view.hint));
+    assertNull(view.cells.get("5,3"));
+    assertEquals("RED", view.cells.get("5,2"));
+    assertEquals(2, view.cells.size());
+    assertNull(view.instruction);
+    controller.shutdown();
+  }
+
+  /**
+   * Test that a hint is shown once it is computed, and hidden by the next move.
+   */
+  @Test
+  public void showsAndHidesHint() throws Exception {
+    RecordingView view = new RecordingView();
+    SwingConnectFourController controller =
+        new SwingConnectFourController(new ConnectFourModelImpl(6, 7), view);
+    for (int i = 0; i < 3; i++) {
+      controller.makeMove(2);
+      controller.makeMove(5);
+    }
+    controller.requestHint();
+    settle(() -> view.scores != null);
+    assertEquals(7, view.scores.length);
+    assertEquals(1, view.scores[2], 0); // red wins in column 2
+    controller.makeMove(2);
+    settle(() -> view.scores == null && "Game over: RED".equals(view.hint));
+    controller.requestHint();
+    settle(() -> "The game is over".equals(view.hint));
+    controller.shutdown();
+  }
+}
@@ -0,0 +1,133 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import connect.BoardView;
+import connect.ConnectFourModel;
+import connect.ConnectFourModelImpl;
+import connect.Player;
+import connect.engine.WindowEvaluator;
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * A JUnit test class for the WindowEvaluator class, which checks the incremental scores against
+ * scores computed from scratch.
+ */
+public class WindowEvaluatorTest {
+
+  private static final int[] WEIGHTS = {0, 1, 8, 64, 1 << 20};
+
+  /**
+   * Scores a board the slow way, by scanning every window.
+   */
+  private static long rescan(BoardView board) {
+    int[][] directions = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+    long score = 0;
+    for (int i = 0; i < board.getRows(); i++) {
+      for (int j = 0; j < board.getColumns(); j++) {
+        for (int[] d : directions) {
+          int lastRow = i + 3 * d[0];
+          int lastColumn = j + 3 * d[1];
+          if (lastRow >= board.getRows() || lastColumn < 0 || lastColumn >= board.getColumns()) {
+            continue;
+          }
+          int red = 0;
+          int yellow = 0;
+          for (int k = 0; k < 4; k++) {
+            Player player = board.cell(i + k * d[0], j + k * d[1]);
+            if (player == Player.RED) {
+              red++;
+            } else if (player == Player.YELLOW) {
+              yellow++;
+            }
+          }
+          score += yellow == 0 ? WEIGHTS[red] : red == 0 ? -WEIGHTS[yellow] : 0;
+        }
+      }
+    }
+    return score;
+  }
+
+  /**
+   * Test that an empty board scores 0 and the first disc in the middle favors its player.
+   */
+  @Test
+  public void scoresOpening() {
+    WindowEvaluator evaluator = new WindowEvaluator(6, 7);
+    assertEquals(0, evaluator.evaluate(Player.RED));
+    evaluator.play(5, 3, Player.RED);
+    // the bottom middle cell is in 4 horizontal, 1 vertical and 2 diagonal windows
+    assertEquals(7, evaluator.evaluate(Player.RED));
+    assertEquals(-7, evaluator.evaluate(Player.YELLOW));
+    evaluator.unplay(5, 3, Player.RED);
+    assertEquals(0, evaluator.evaluate(Player.RED));
+  }
+
+  /**
+   * Test that an evaluator attached to a model follows random moves, undos and resets, on boards
+   * of several sizes.
+   */
+  @Test
+  public void followsModel() {
+    Random random = new Random(7);
+    int[][] sizes = {{4, 4}, {6, 7}, {5, 40}, {30, 9}};
+    for (int[] size : sizes) {
+      ConnectFourModel model = new ConnectFourModelImpl(size[0], size[1]);
+      model.makeMove(0);
+      WindowEvaluator evaluator = WindowEvaluator.attach(model);
+      for (int step = 0; step < 2000; step++) {
+        if (model.isGameOver() || random.nextInt(4) == 0 && model.getMoveHistory().length > 0) {
+          model.undoMove();
+        } else if (random.nextInt(200) == 0) {
+          model.resetBoard();
+        } else {
+          int[] legal = model.getLegalMoves();
+          model.makeMove(legal[random.nextInt(legal.length)]);
+        }
+        assertEquals(rescan(model.getBoardView()), evaluator.evaluate(Player.RED));
+        assertEquals(model.getWinner(), evaluator.getWinner());
+      }
+    }
+  }
+
+  /**
+   * Test that four in a row is found, and forgotten when it is taken back.
+   */
+  @Test
+  public void findsWinner() {
+    ConnectFourModel model = new ConnectFourModelImpl(6, 7);
+    WindowEvaluator evaluator = WindowEvaluator.attach(model);
+    int[] moves = {0, 6, 1, 6, 2, 5, 3}; // red wins on the bottom row
+    for (int move : moves) {
+      assertNull(evaluator.getWinner());
+      model.makeMove(move);
+    }
+    assertEquals(Player.RED, evaluator.getWinner());
+    assertTrue(evaluator.evaluate(Player.RED) > 1 << 19);
+    model.undoMove();
+    assertNull(evaluator.getWinner());
+  }
+
+  /**
+   * Test that the windows at the edges of a long board are found without any table of windows.
+   */
+  @Test
+  public void scoresEdgesOfLongBoard() {
+    WindowEvaluator evaluator = new WindowEvaluator(4, 1_000_000);
+    for (int row = 3; row >= 1; row--) {
+      evaluator.play(row, 999_999, Player.YELLOW);
+    }
+    assertNull(evaluator.getWinner());
+    evaluator.play(0, 999_999, Player.YELLOW);
+    assertEquals(Player.YELLOW, evaluator.getWinner());
+  }
+
+  /**
+   * Test that a board with more cells than an int can count is rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsBoardTooLarge() {
+    new WindowEvaluator(100_000, 100_000);
+  }
+}